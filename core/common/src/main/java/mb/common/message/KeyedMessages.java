@@ -2,25 +2,80 @@ package mb.common.message;
 
 import mb.common.util.ListView;
 import mb.common.util.MultiHashMap;
+import mb.common.util.SetView;
 import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
-import java.util.stream.Collectors;
 
+/**
+ * Immutable messages keyed by the resource they originate from, where messages without an origin have the {@code null}
+ * key. Messages are stored per resource in exactly-sized arrays, and the severities of all messages are summarized when
+ * creating this object, such that reading messages and checking for severities does not allocate nor iterate over
+ * messages. Use {@link KeyedMessagesBuilder} to create keyed messages incrementally.
+ */
 public class KeyedMessages implements Serializable {
-    final MultiHashMap<@Nullable ResourceKey, Message> messages;
+    private static final ListView<Message> noMessages = ListView.of();
 
+    private final HashMap<@Nullable ResourceKey, ListView<Message>> messages;
+    private transient @MonotonicNonNull SetView<@Nullable ResourceKey> resources = null;
+    private final int messageCount;
+    private final int severities; // Bit set with bit 1 << Severity.ordinal() set for each severity that occurs.
 
-    public KeyedMessages(MultiHashMap<@Nullable ResourceKey, Message> messages) {
+
+    private KeyedMessages(HashMap<@Nullable ResourceKey, ListView<Message>> messages, int messageCount, int severities) {
         this.messages = messages;
+        this.messageCount = messageCount;
+        this.severities = severities;
     }
 
+    public KeyedMessages(MultiHashMap<@Nullable ResourceKey, Message> messages) {
+        this(messages.getInnerMap());
+    }
+
+    /**
+     * Creates keyed messages from a copy of {@code messages}. {@link PackedMessages Packed messages} are not copied, as
+     * they are immutable.
+     */
+    public KeyedMessages(Map<@Nullable ResourceKey, ? extends Collection<? extends Message>> messages) {
+        this.messages = new HashMap<>(messages.size());
+        int messageCount = 0;
+        int severities = 0;
+        for(Entry<@Nullable ResourceKey, ? extends Collection<? extends Message>> entry : messages.entrySet()) {
+            if(entry.getValue() instanceof PackedMessages) {
+                // Packed messages are immutable and compact already; keep them as is.
+                final PackedMessages packed = (PackedMessages)entry.getValue();
+                severities |= packed.getSeverityBits();
+                messageCount += packed.size();
+                this.messages.put(entry.getKey(), new ListView<>(packed));
+                continue;
+            }
+            final Message[] array = entry.getValue().toArray(new Message[0]);
+            for(Message message : array) {
+                severities |= severityBit(message.severity);
+            }
+            messageCount += array.length;
+            this.messages.put(entry.getKey(), array.length == 0 ? noMessages : new ListView<>(Arrays.asList(array)));
+        }
+        this.messageCount = messageCount;
+        this.severities = severities;
+    }
+
+    public static KeyedMessages of() {
+        return new KeyedMessages(new HashMap<>(), 0, 0);
+    }
 
+
+    /**
+     * Gets the number of resources that have messages, where messages without an origin count as one resource.
+     */
     public int size() {
         return messages.size();
     }
@@ -29,8 +84,15 @@ public class KeyedMessages implements Serializable {
         return messages.isEmpty();
     }
 
+    /**
+     * Gets the total number of messages.
+     */
+    public int getMessageCount() {
+        return messageCount;
+    }
+
     public void accept(KeyedMessageVisitor visitor) {
-        for(Entry<@Nullable ResourceKey, ArrayList<Message>> entry : messages.entrySet()) {
+        for(Entry<@Nullable ResourceKey, ListView<Message>> entry : messages.entrySet()) {
             final @Nullable ResourceKey resource = entry.getKey();
             for(Message msg : entry.getValue()) {
                 if(resource == null) {
@@ -45,7 +107,7 @@ public class KeyedMessages implements Serializable {
     }
 
     public void accept(GeneralMessageVisitor visitor) {
-        for(Entry<@Nullable ResourceKey, ArrayList<Message>> entry : messages.entrySet()) {
+        for(Entry<@Nullable ResourceKey, ListView<Message>> entry : messages.entrySet()) {
             final @Nullable ResourceKey resource = entry.getKey();
             for(Message msg : entry.getValue()) {
                 if(!visitor.message(msg.text, msg.exception, msg.severity, resource, msg.region)) return;
@@ -53,23 +115,30 @@ public class KeyedMessages implements Serializable {
         }
     }
 
-    public Iterable<Message> getMessages(ResourceKey resource) {
-        return messages.get(resource);
+    public ListView<Message> getMessages(ResourceKey resource) {
+        return getMessagesOrEmpty(resource);
+    }
+
+    public ListView<Message> getMessagesWithoutOrigin() {
+        return getMessagesOrEmpty(null);
     }
 
-    public Iterable<Message> getMessagesWithoutOrigin() {
-        return messages.get(null);
+    public SetView<@Nullable ResourceKey> getResources() {
+        if(resources == null) {
+            resources = new SetView<>(messages.keySet());
+        }
+        return resources;
     }
 
-    public Set<@Nullable ResourceKey> getResources() {
-        return messages.keySet();
+    private ListView<Message> getMessagesOrEmpty(@Nullable ResourceKey resource) {
+        final @Nullable ListView<Message> resourceMessages = messages.get(resource);
+        if(resourceMessages == null) return noMessages;
+        return resourceMessages;
     }
 
 
     public boolean containsSeverity(Severity severity) {
-        return messages.values().stream().flatMap(Collection::stream).anyMatch(
-            message -> message.severity.equals(severity)
-        );
+        return (severities & severityBit(severity)) != 0;
     }
 
     public boolean containsError() {
@@ -94,9 +163,7 @@ public class KeyedMessages implements Serializable {
 
 
     public boolean containsSeverityOrHigher(Severity severity) {
-        return messages.values().stream().flatMap(Collection::stream).anyMatch(
-            message -> message.severity.compareTo(severity) >= 0
-        );
+        return (severities >>> severity.ordinal()) != 0;
     }
 
     public boolean containsErrorOrHigher() {
@@ -121,16 +188,33 @@ public class KeyedMessages implements Serializable {
 
 
     public Messages asMessages() {
-        final ArrayList<Message> list = messages.values().stream().flatMap(Collection::stream).collect(Collectors.toCollection(ArrayList::new));
+        final ArrayList<Message> list = new ArrayList<>(messageCount);
+        for(ListView<Message> resourceMessages : messages.values()) {
+            resourceMessages.addAllTo(list);
+        }
         return new Messages(new ListView<>(list));
     }
 
 
-    @Override public boolean equals(Object o) {
+    /**
+     * Adds all messages to {@code builder}, keyed by their resource.
+     */
+    void addTo(MultiHashMap<@Nullable ResourceKey, Message> builder) {
+        for(Entry<@Nullable ResourceKey, ListView<Message>> entry : messages.entrySet()) {
+            builder.putAll(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static int severityBit(Severity severity) {
+        return 1 << severity.ordinal();
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
         if(this == o) return true;
         if(o == null || getClass() != o.getClass()) return false;
         final KeyedMessages that = (KeyedMessages) o;
-        return messages.equals(that.messages);
+        return messageCount == that.messageCount && severities == that.severities && messages.equals(that.messages);
     }
 
     @Override public int hashCode() {
@@ -7,9 +7,31 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public class KeyedMessagesBuilder {
     private final MultiHashMap<@Nullable ResourceKey, Message> messages = new MultiHashMap<>();
+    private final @Nullable MessageTextPool textPool;
+    private final boolean removeDuplicates;
+
+
+    /**
+     * Creates a builder that builds {@link PackedMessages packed messages} per resource, with texts from {@code
+     * textPool}, which is more compact in memory and when serialized when many messages have equal texts.
+     *
+     * @param removeDuplicates Whether to remove messages that are equal to an earlier message of the same resource
+     *                         when building.
+     */
+    public KeyedMessagesBuilder(MessageTextPool textPool, boolean removeDuplicates) {
+        this.textPool = textPool;
+        this.removeDuplicates = removeDuplicates;
+    }
+
+    public KeyedMessagesBuilder() {
+        this.textPool = null;
+        this.removeDuplicates = false;
+    }
 
 
     public void addMessage(String text, @Nullable Throwable exception, Severity severity, @Nullable ResourceKey resourceKey, @Nullable Region region) {
@@ -62,7 +84,7 @@ public class KeyedMessagesBuilder {
     }
 
     public void addMessages(KeyedMessages messages) {
-        this.messages.putAll(messages.messages);
+        messages.addTo(this.messages);
     }
 
 
@@ -81,7 +103,10 @@ public class KeyedMessagesBuilder {
     }
 
     public void replaceMessages(KeyedMessages messages) {
-        this.messages.replaceAll(messages.messages);
+        for(@Nullable ResourceKey resourceKey : messages.getResources()) {
+            this.messages.removeAll(resourceKey);
+        }
+        messages.addTo(this.messages);
     }
 
 
@@ -94,7 +119,19 @@ public class KeyedMessagesBuilder {
     }
 
 
+    /**
+     * Creates immutable keyed messages from a copy of the messages in this builder, such that this builder can be
+     * modified and built again afterwards.
+     */
     public KeyedMessages build() {
-        return new KeyedMessages(new MultiHashMap<>(this.messages));
+        final @Nullable MessageTextPool textPool = this.textPool;
+        if(textPool != null) {
+            final HashMap<@Nullable ResourceKey, PackedMessages> packed = new HashMap<>(messages.size());
+            for(Map.Entry<@Nullable ResourceKey, ArrayList<Message>> entry : messages.entrySet()) {
+                packed.put(entry.getKey(), PackedMessages.pack(entry.getValue(), textPool, removeDuplicates));
+            }
+            return new KeyedMessages(packed);
+        }
+        return new KeyedMessages(this.messages);
     }
 }
@@ -0,0 +1,41 @@
+package mb.common.message;
+
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Receives messages while they are being produced, such as the messages of each file during a check of a project,
+ * such that they can be shown before all messages have been produced. Messages pushed into a sink are added to
+ * previously pushed messages; a sink never replaces or removes messages. Producers still return all messages as {@link
+ * KeyedMessages} when they are done, which are authoritative.
+ */
+@FunctionalInterface
+public interface KeyedMessagesSink {
+    /**
+     * Receives {@code messages} of {@code resource}, or messages without an origin if {@code resource} is {@code
+     * null}. May be called multiple times for the same resource, and with no messages to indicate that a resource has
+     * been processed.
+     */
+    void messages(@Nullable ResourceKey resource, Iterable<? extends Message> messages);
+
+    /**
+     * Receives all messages in {@code messages}, one resource at a time.
+     */
+    default void messages(KeyedMessages messages) {
+        for(@Nullable ResourceKey resource : messages.getResources()) {
+            if(resource == null) {
+                messages(null, messages.getMessagesWithoutOrigin());
+            } else {
+                messages(resource, messages.getMessages(resource));
+            }
+        }
+    }
+
+
+    /**
+     * Gets a sink that ignores all messages.
+     */
+    static KeyedMessagesSink ignore() {
+        return (resource, messages) -> {};
+    }
+}
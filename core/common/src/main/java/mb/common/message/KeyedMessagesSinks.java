@@ -0,0 +1,75 @@
+package mb.common.message;
+
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of {@link KeyedMessagesSink sinks} per root (e.g. project directory), which connects producers of messages,
+ * such as check tasks that cannot be given a sink as input, to consumers that want to receive messages while they are
+ * being produced, such as an IDE that updates markers. Consumers {@link #register register} a sink for a root before
+ * requiring a producer, and producers push messages into the sink {@link #get gotten} for their root. Safe to use from
+ * multiple threads.
+ */
+public class KeyedMessagesSinks {
+    private final ConcurrentHashMap<ResourceKey, CopyOnWriteArrayList<KeyedMessagesSink>> sinks = new ConcurrentHashMap<>();
+
+
+    /**
+     * Registers {@code sink} to receive messages pushed for {@code root}, until the returned registration is closed.
+     */
+    public Registration register(ResourceKey root, KeyedMessagesSink sink) {
+        sinks.compute(root, (k, rootSinks) -> {
+            final CopyOnWriteArrayList<KeyedMessagesSink> newRootSinks = rootSinks != null ? rootSinks : new CopyOnWriteArrayList<>();
+            newRootSinks.add(sink);
+            return newRootSinks;
+        });
+        return new Registration(root, sink);
+    }
+
+    /**
+     * Gets a sink that pushes messages for {@code root} into all sinks that are registered for {@code root} at the time
+     * messages are pushed. Messages are ignored when no sinks are registered.
+     */
+    public KeyedMessagesSink get(ResourceKey root) {
+        return (resource, messages) -> {
+            final @Nullable CopyOnWriteArrayList<KeyedMessagesSink> rootSinks = sinks.get(root);
+            if(rootSinks == null) return;
+            for(KeyedMessagesSink sink : rootSinks) {
+                sink.messages(resource, messages);
+            }
+        };
+    }
+
+    public boolean hasSinks(ResourceKey root) {
+        final @Nullable CopyOnWriteArrayList<KeyedMessagesSink> rootSinks = sinks.get(root);
+        return rootSinks != null && !rootSinks.isEmpty();
+    }
+
+
+    private void unregister(ResourceKey root, KeyedMessagesSink sink) {
+        sinks.computeIfPresent(root, (k, rootSinks) -> {
+            rootSinks.remove(sink);
+            return rootSinks.isEmpty() ? null : rootSinks;
+        });
+    }
+
+    public class Registration implements AutoCloseable {
+        private final ResourceKey root;
+        private final KeyedMessagesSink sink;
+
+        private Registration(ResourceKey root, KeyedMessagesSink sink) {
+            this.root = root;
+            this.sink = sink;
+        }
+
+        /**
+         * Unregisters the sink, such that it no longer receives messages.
+         */
+        @Override public void close() {
+            unregister(root, sink);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package mb.common.message;
+
+import mb.common.util.WeakInterner;
+
+/**
+ * Pool of message texts, which returns the same string instance for equal texts, such that messages with equal texts
+ * (e.g., the same "unresolved reference" text for each occurrence) share a single string in memory. Texts are held
+ * weakly: a text is removed from the pool when no message refers to it any more. Safe to use from multiple threads.
+ */
+public class MessageTextPool {
+    private static final MessageTextPool shared = new MessageTextPool();
+
+    private final WeakInterner<String> texts = new WeakInterner<>();
+
+
+    /**
+     * Gets the process-wide text pool.
+     */
+    public static MessageTextPool shared() {
+        return shared;
+    }
+
+
+    /**
+     * Gets the pooled instance of {@code text}, adding {@code text} to the pool if there is none.
+     */
+    public String intern(String text) {
+        return texts.intern(text);
+    }
+
+    /**
+     * Gets the number of texts in the pool, including texts that are no longer referred to but have not been removed
+     * yet.
+     */
+    public int size() {
+        return texts.size();
+    }
+}
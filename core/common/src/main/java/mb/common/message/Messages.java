@@ -1,7 +1,6 @@
 package mb.common.message;
 
 import mb.common.util.ListView;
-import mb.common.util.MultiHashMap;
 import mb.resource.ResourceKey;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -120,9 +119,7 @@ public class Messages implements Iterable<Message>, Serializable {
 
 
     public KeyedMessages toKeyed(@Nullable ResourceKey key) {
-        final MultiHashMap<@Nullable ResourceKey, Message> map = new MultiHashMap<>();
-        map.putAll(key, messages);
-        return new KeyedMessages(map);
+        return new KeyedMessages(Collections.singletonMap(key, messages.asUnmodifiable()));
     }
 
 
@@ -10,6 +10,25 @@ import java.util.Collection;
 
 public class MessagesBuilder {
     private final ArrayList<Message> messages = new ArrayList<>();
+    private final @Nullable MessageTextPool textPool;
+    private final boolean removeDuplicates;
+
+
+    /**
+     * Creates a builder that builds {@link PackedMessages packed messages} with texts from {@code textPool}, which is
+     * more compact in memory and when serialized when many messages have equal texts.
+     *
+     * @param removeDuplicates Whether to remove messages that are equal to an earlier message when building.
+     */
+    public MessagesBuilder(MessageTextPool textPool, boolean removeDuplicates) {
+        this.textPool = textPool;
+        this.removeDuplicates = removeDuplicates;
+    }
+
+    public MessagesBuilder() {
+        this.textPool = null;
+        this.removeDuplicates = false;
+    }
 
 
     public void addMessage(String text, @Nullable Throwable exception, Severity severity, @Nullable Region region) {
@@ -59,6 +78,10 @@ public class MessagesBuilder {
 
 
     public Messages build() {
+        final @Nullable MessageTextPool textPool = this.textPool;
+        if(textPool != null) {
+            return new Messages(new ListView<>(PackedMessages.pack(messages, textPool, removeDuplicates)));
+        }
         return new Messages(ListView.copyOf(messages));
     }
 }
@@ -0,0 +1,248 @@
+package mb.common.message;
+
+import mb.common.region.Region;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of messages stored as struct-of-arrays: an array of texts taken from a {@link MessageTextPool}, and
+ * arrays of severities, region offsets, and (only when any message has one) exceptions. Stores messages without
+ * creating an object per message and region, and with a single string per distinct text; {@link Message} objects are
+ * only created when getting or iterating over messages.
+ *
+ * Serialized in a compact form, where each distinct text is written once, and each message as the index of its text, its
+ * severity, and its region as variable-length integers. Deserialized texts are pooled in {@link
+ * MessageTextPool#shared()}, such that messages of deserialized outputs (e.g., from the PIE store) share texts.
+ */
+public class PackedMessages extends AbstractList<Message> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final Severity[] severityValues = Severity.values();
+
+    private transient int size;
+    private transient String[] texts;
+    private transient byte[] severities;
+    private transient int[] startOffsets; // -1 for messages without a region.
+    private transient int[] endOffsets;
+    private transient Throwable @Nullable [] exceptions;
+    private transient int severityBits; // Bit set with bit 1 << Severity.ordinal() set for each severity that occurs.
+
+
+    private PackedMessages(int size, String[] texts, byte[] severities, int[] startOffsets, int[] endOffsets, Throwable @Nullable [] exceptions) {
+        init(size, texts, severities, startOffsets, endOffsets, exceptions);
+    }
+
+    /**
+     * Packs {@code messages}, taking their texts from {@code textPool}.
+     *
+     * @param removeDuplicates Whether to remove messages that are equal to an earlier message, keeping the first.
+     */
+    public static PackedMessages pack(Iterable<? extends Message> messages, MessageTextPool textPool, boolean removeDuplicates) {
+        final ArrayList<Message> list = new ArrayList<>();
+        final @Nullable HashSet<Message> seen = removeDuplicates ? new HashSet<>() : null;
+        for(Message message : messages) {
+            if(seen == null || seen.add(message)) {
+                list.add(message);
+            }
+        }
+        final int size = list.size();
+        final String[] texts = new String[size];
+        final byte[] severities = new byte[size];
+        final int[] startOffsets = new int[size];
+        final int[] endOffsets = new int[size];
+        Throwable @Nullable [] exceptions = null;
+        for(int i = 0; i < size; ++i) {
+            final Message message = list.get(i);
+            texts[i] = textPool.intern(message.text);
+            severities[i] = (byte)message.severity.ordinal();
+            if(message.region != null) {
+                startOffsets[i] = message.region.getStartOffset();
+                endOffsets[i] = message.region.getEndOffset();
+            } else {
+                startOffsets[i] = -1;
+                endOffsets[i] = -1;
+            }
+            if(message.exception != null) {
+                if(exceptions == null) {
+                    exceptions = new Throwable[size];
+                }
+                exceptions[i] = message.exception;
+            }
+        }
+        return new PackedMessages(size, texts, severities, startOffsets, endOffsets, exceptions);
+    }
+
+    /**
+     * Packs {@code messages}, taking their texts from {@code textPool}.
+     */
+    public static PackedMessages pack(Iterable<? extends Message> messages, MessageTextPool textPool) {
+        return pack(messages, textPool, false);
+    }
+
+
+    @Override public int size() {
+        return size;
+    }
+
+    @Override public Message get(int index) {
+        checkIndex(index);
+        final int startOffset = startOffsets[index];
+        final @Nullable Region region = startOffset != -1 ? Region.fromOffsets(startOffset, endOffsets[index]) : null;
+        final @Nullable Throwable exception = exceptions != null ? exceptions[index] : null;
+        return new Message(texts[index], exception, severityValues[severities[index]], region);
+    }
+
+    public String getText(int index) {
+        checkIndex(index);
+        return texts[index];
+    }
+
+    public Severity getSeverity(int index) {
+        checkIndex(index);
+        return severityValues[severities[index]];
+    }
+
+    public boolean containsSeverity(Severity severity) {
+        return (severityBits & (1 << severity.ordinal())) != 0;
+    }
+
+    int getSeverityBits() {
+        return severityBits;
+    }
+
+
+    private void init(int size, String[] texts, byte[] severities, int[] startOffsets, int[] endOffsets, Throwable @Nullable [] exceptions) {
+        this.size = size;
+        this.texts = texts;
+        this.severities = severities;
+        this.startOffsets = startOffsets;
+        this.endOffsets = endOffsets;
+        this.exceptions = exceptions;
+        int severityBits = 0;
+        for(int i = 0; i < size; ++i) {
+            severityBits |= 1 << severities[i];
+        }
+        this.severityBits = severityBits;
+    }
+
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + size + " messages");
+        }
+    }
+
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        final HashMap<String, Integer> textIndices = new HashMap<>();
+        final ArrayList<String> distinctTexts = new ArrayList<>();
+        final int[] messageTextIndices = new int[size];
+        for(int i = 0; i < size; ++i) {
+            final int textIndex = textIndices.computeIfAbsent(texts[i], text -> {
+                distinctTexts.add(text);
+                return distinctTexts.size() - 1;
+            });
+            messageTextIndices[i] = textIndex;
+        }
+        writeVarInt(out, distinctTexts.size());
+        for(String text : distinctTexts) {
+            out.writeObject(text);
+        }
+        writeVarInt(out, size);
+        for(int i = 0; i < size; ++i) {
+            writeVarInt(out, messageTextIndices[i]);
+            out.writeByte(severities[i]);
+            // Region as start offset + 1 (0 for no region) and length, which are small for most messages.
+            writeVarInt(out, startOffsets[i] + 1);
+            if(startOffsets[i] != -1) {
+                writeVarInt(out, endOffsets[i] - startOffsets[i]);
+            }
+        }
+        out.writeObject(exceptions);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final MessageTextPool textPool = MessageTextPool.shared();
+        final int distinctTextCount = readVarInt(in);
+        final String[] distinctTexts = new String[distinctTextCount];
+        for(int i = 0; i < distinctTextCount; ++i) {
+            distinctTexts[i] = textPool.intern((String)in.readObject());
+        }
+        final int size = readVarInt(in);
+        final String[] texts = new String[size];
+        final byte[] severities = new byte[size];
+        final int[] startOffsets = new int[size];
+        final int[] endOffsets = new int[size];
+        for(int i = 0; i < size; ++i) {
+            final int textIndex = readVarInt(in);
+            if(textIndex >= distinctTextCount) {
+                throw new InvalidObjectException("Text index " + textIndex + " is out of bounds for " + distinctTextCount + " texts");
+            }
+            texts[i] = distinctTexts[textIndex];
+            severities[i] = in.readByte();
+            if(severities[i] < 0 || severities[i] >= severityValues.length) {
+                throw new InvalidObjectException("Severity code " + severities[i] + " is not a valid severity code");
+            }
+            final int startOffset = readVarInt(in) - 1;
+            startOffsets[i] = startOffset;
+            endOffsets[i] = startOffset != -1 ? startOffset + readVarInt(in) : -1;
+        }
+        final Throwable @Nullable [] exceptions = (Throwable @Nullable [])in.readObject();
+        if(exceptions != null && exceptions.length != size) {
+            throw new InvalidObjectException("Number of exceptions " + exceptions.length + " does not match number of messages " + size);
+        }
+        init(size, texts, severities, startOffsets, endOffsets, exceptions);
+    }
+
+    private static void writeVarInt(ObjectOutputStream out, int value) throws IOException {
+        while((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ObjectInputStream in) throws IOException {
+        int value = 0;
+        for(int shift = 0; shift < 32; shift += 7) {
+            final byte b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0) return value;
+        }
+        throw new InvalidObjectException("Variable-length integer is too long");
+    }
+
+
+    @Override public boolean equals(@Nullable Object obj) {
+        if(this == obj) return true;
+        if(!(obj instanceof PackedMessages)) return super.equals(obj);
+        final PackedMessages other = (PackedMessages)obj;
+        if(size != other.size) return false;
+        for(int i = 0; i < size; ++i) {
+            if(severities[i] != other.severities[i] || startOffsets[i] != other.startOffsets[i] || endOffsets[i] != other.endOffsets[i]) {
+                return false;
+            }
+            if(!texts[i].equals(other.texts[i])) return false;
+            final @Nullable Throwable exception = exceptions != null ? exceptions[i] : null;
+            final @Nullable Throwable otherException = other.exceptions != null ? other.exceptions[i] : null;
+            if(!Objects.equals(exception, otherException)) return false;
+        }
+        return true;
+    }
+
+    @Override public int hashCode() {
+        // Same as List#hashCode, as this is equal to other lists with equal messages.
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,155 @@
+package mb.common.style;
+
+import mb.common.region.Region;
+import mb.common.token.PackedTokens;
+import mb.common.token.Token;
+import mb.common.token.TokenImpl;
+import mb.common.token.TokenType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Styling stored as struct-of-arrays: {@link PackedTokens packed tokens} without fragments, and for each token an
+ * index into a palette of distinct styles. Stores styling without creating objects per token, region, and token
+ * style; {@link TokenStyle} objects are only created by {@link #getStylePerToken()}.
+ */
+public class PackedStyling implements Styling {
+    private final PackedTokens<?> tokens;
+    private final int[] styleIndices;
+    private final Style[] palette;
+
+
+    private PackedStyling(PackedTokens<?> tokens, int[] styleIndices, Style[] palette) {
+        this.tokens = tokens;
+        this.styleIndices = styleIndices;
+        this.palette = palette;
+    }
+
+    /**
+     * Creates packed styling from given {@code styling}, or returns it when it already is packed styling.
+     */
+    public static PackedStyling fromStyling(Styling styling) {
+        if(styling instanceof PackedStyling) {
+            return (PackedStyling)styling;
+        }
+        final Builder builder = new Builder();
+        for(TokenStyle tokenStyle : styling.getStylePerToken()) {
+            builder.add(tokenStyle.getToken(), tokenStyle.getStyle());
+        }
+        return builder.build();
+    }
+
+
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Gets the start offset (inclusive) of the token at {@code index}.
+     */
+    public int getStartOffset(int index) {
+        return tokens.getStartOffset(index);
+    }
+
+    /**
+     * Gets the end offset (exclusive) of the token at {@code index}.
+     */
+    public int getEndOffset(int index) {
+        return tokens.getEndOffset(index);
+    }
+
+    public TokenType getTokenType(int index) {
+        return tokens.getType(index);
+    }
+
+    public Style getStyle(int index) {
+        return palette[styleIndices[index]];
+    }
+
+    /**
+     * Gets the index into the {@link #getPalette() palette} of the style of the token at {@code index}.
+     */
+    public int getStyleIndex(int index) {
+        return styleIndices[index];
+    }
+
+    /**
+     * Gets the distinct styles of this styling. Consumers can convert each style in the palette once, and then look up
+     * converted styles by {@link #getStyleIndex(int) style index}.
+     */
+    public Style[] getPalette() {
+        return palette.clone();
+    }
+
+    /**
+     * Creates a token style object for every token. Tokens in this styling have no fragments.
+     */
+    @Override public ArrayList<TokenStyle> getStylePerToken() {
+        final int size = tokens.size();
+        final ArrayList<TokenStyle> stylePerToken = new ArrayList<>(size);
+        for(int i = 0; i < size; ++i) {
+            final Token<?> token = new TokenImpl<>(tokens.getType(i), Region.fromOffsets(tokens.getStartOffset(i), tokens.getEndOffset(i)), null);
+            stylePerToken.add(new TokenStyleImpl(token, getStyle(i)));
+        }
+        return stylePerToken;
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final PackedStyling other = (PackedStyling)o;
+        if(!tokens.equals(other.tokens)) return false;
+        for(int i = 0; i < styleIndices.length; ++i) {
+            if(!getStyle(i).equals(other.getStyle(i))) return false;
+        }
+        return true;
+    }
+
+    @Override public int hashCode() {
+        int result = tokens.hashCode();
+        for(int i = 0; i < styleIndices.length; ++i) {
+            result = 31 * result + getStyle(i).hashCode();
+        }
+        return result;
+    }
+
+    @Override public String toString() {
+        return "PackedStyling(" + tokens.size() + " tokens, " + palette.length + " styles)";
+    }
+
+
+    public static class Builder {
+        private final PackedTokens.Builder<Object> tokens = new PackedTokens.Builder<>(false);
+        private final HashMap<Style, Integer> paletteIndices = new HashMap<>();
+        private final ArrayList<Style> palette = new ArrayList<>();
+        private int[] styleIndices = new int[16];
+        private int size = 0;
+
+
+        public Builder add(int startOffset, int endOffset, TokenType type, Style style) {
+            tokens.add(startOffset, endOffset, type, null);
+            final int styleIndex = paletteIndices.computeIfAbsent(style, s -> {
+                palette.add(s);
+                return palette.size() - 1;
+            });
+            if(size == styleIndices.length) {
+                styleIndices = Arrays.copyOf(styleIndices, size * 2);
+            }
+            styleIndices[size++] = styleIndex;
+            return this;
+        }
+
+        public Builder add(Token<?> token, Style style) {
+            final Region region = token.getRegion();
+            return add(region.getStartOffset(), region.getEndOffset(), token.getType(), style);
+        }
+
+        public PackedStyling build() {
+            return new PackedStyling(tokens.build(), Arrays.copyOf(styleIndices, size), palette.toArray(new Style[0]));
+        }
+    }
+}
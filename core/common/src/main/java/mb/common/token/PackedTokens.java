@@ -0,0 +1,273 @@
+package mb.common.token;
+
+import mb.common.region.Region;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Tokens stored as struct-of-arrays: arrays of start offsets, end offsets, and token type codes, and optionally an
+ * array of fragments. Stores tokens without creating an object per token and region; {@link Token} objects are only
+ * created when iterating over the tokens or when getting a single token with {@link #get(int)}.
+ *
+ * @param <F> Type of fragments.
+ */
+public class PackedTokens<F> implements Iterable<Token<F>>, Serializable {
+    /**
+     * Number of distinct token type codes, such that type codes can be used as indices into arrays of this length.
+     */
+    public static final int typeCodeCount = 7;
+
+    private final int size;
+    private final int[] startOffsets;
+    private final int[] endOffsets;
+    private final byte[] types;
+    private final Object @Nullable [] fragments;
+
+
+    private PackedTokens(int size, int[] startOffsets, int[] endOffsets, byte[] types, Object @Nullable [] fragments) {
+        this.size = size;
+        this.startOffsets = startOffsets;
+        this.endOffsets = endOffsets;
+        this.types = types;
+        this.fragments = fragments;
+    }
+
+    /**
+     * Creates packed tokens from given {@code tokens}.
+     *
+     * @param keepFragments Whether to keep the fragments of tokens. If not, {@link #getFragment(int)} always returns
+     *                      {@code null}.
+     */
+    public static <F> PackedTokens<F> fromTokens(Iterable<? extends Token<? extends F>> tokens, boolean keepFragments) {
+        if(tokens instanceof PackedTokens<?> && (!keepFragments || ((PackedTokens<?>)tokens).fragments != null)) {
+            @SuppressWarnings("unchecked") final PackedTokens<F> packedTokens = (PackedTokens<F>)tokens;
+            return packedTokens;
+        }
+        final Builder<F> builder = new Builder<>(keepFragments);
+        for(Token<? extends F> token : tokens) {
+            builder.add(token);
+        }
+        return builder.build();
+    }
+
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the start offset (inclusive) of the token at {@code index}.
+     */
+    public int getStartOffset(int index) {
+        checkIndex(index);
+        return startOffsets[index];
+    }
+
+    /**
+     * Gets the end offset (exclusive) of the token at {@code index}.
+     */
+    public int getEndOffset(int index) {
+        checkIndex(index);
+        return endOffsets[index];
+    }
+
+    public TokenType getType(int index) {
+        checkIndex(index);
+        return decodeType(types[index]);
+    }
+
+    /**
+     * Gets the type code of the token at {@code index}, as encoded by {@link #encodeType(TokenType)}.
+     */
+    public byte getTypeCode(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    public @Nullable F getFragment(int index) {
+        checkIndex(index);
+        if(fragments == null) return null;
+        @SuppressWarnings("unchecked") final @Nullable F fragment = (@Nullable F)fragments[index];
+        return fragment;
+    }
+
+    /**
+     * Creates a token object for the token at {@code index}.
+     */
+    public Token<F> get(int index) {
+        return new TokenImpl<>(getType(index), Region.fromOffsets(startOffsets[index], endOffsets[index]), getFragment(index));
+    }
+
+    /**
+     * Creates a list with a token object for every token.
+     */
+    public ArrayList<Token<F>> toList() {
+        final ArrayList<Token<F>> list = new ArrayList<>(size);
+        for(int i = 0; i < size; ++i) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    @Override public Iterator<Token<F>> iterator() {
+        return new Iterator<Token<F>>() {
+            private int index = 0;
+
+            @Override public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override public Token<F> next() {
+                if(index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+        };
+    }
+
+
+    /**
+     * Encodes given token type into a type code, for storing token types in primitive arrays.
+     */
+    public static byte encodeType(TokenType type) {
+        return TokenTypes.caseOf(type)
+            .identifier_((byte)0)
+            .string_((byte)1)
+            .number_((byte)2)
+            .keyword_((byte)3)
+            .operator_((byte)4)
+            .layout_((byte)5)
+            .unknown_((byte)6);
+    }
+
+    /**
+     * Decodes given type code, encoded with {@link #encodeType(TokenType)}, back into a token type.
+     */
+    public static TokenType decodeType(byte code) {
+        switch(code) {
+            case 0:
+                return TokenTypes.identifier();
+            case 1:
+                return TokenTypes.string();
+            case 2:
+                return TokenTypes.number();
+            case 3:
+                return TokenTypes.keyword();
+            case 4:
+                return TokenTypes.operator();
+            case 5:
+                return TokenTypes.layout();
+            case 6:
+                return TokenTypes.unknown();
+            default:
+                throw new IllegalArgumentException("Token type code " + code + " is not a valid token type code");
+        }
+    }
+
+    private void checkIndex(int index) {
+        if(index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + size + " tokens");
+        }
+    }
+
+
+    @Override public boolean equals(@Nullable Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        final PackedTokens<?> other = (PackedTokens<?>)obj;
+        if(size != other.size) return false;
+        for(int i = 0; i < size; ++i) {
+            if(startOffsets[i] != other.startOffsets[i] || endOffsets[i] != other.endOffsets[i] || types[i] != other.types[i]) {
+                return false;
+            }
+            final @Nullable Object fragment = fragments != null ? fragments[i] : null;
+            final @Nullable Object otherFragment = other.fragments != null ? other.fragments[i] : null;
+            if(!Objects.equals(fragment, otherFragment)) return false;
+        }
+        return true;
+    }
+
+    @Override public int hashCode() {
+        int result = size;
+        for(int i = 0; i < size; ++i) {
+            result = 31 * result + startOffsets[i];
+            result = 31 * result + endOffsets[i];
+            result = 31 * result + types[i];
+        }
+        return result;
+    }
+
+    @Override public String toString() {
+        return "PackedTokens(" + size + " tokens)";
+    }
+
+
+    public static class Builder<F> {
+        private final boolean keepFragments;
+        private int size = 0;
+        private int[] startOffsets;
+        private int[] endOffsets;
+        private byte[] types;
+        private Object @Nullable [] fragments;
+
+
+        public Builder(boolean keepFragments, int initialCapacity) {
+            this.keepFragments = keepFragments;
+            this.startOffsets = new int[initialCapacity];
+            this.endOffsets = new int[initialCapacity];
+            this.types = new byte[initialCapacity];
+            this.fragments = keepFragments ? new Object[initialCapacity] : null;
+        }
+
+        public Builder(boolean keepFragments) {
+            this(keepFragments, 16);
+        }
+
+
+        public Builder<F> add(int startOffset, int endOffset, TokenType type, @Nullable F fragment) {
+            if(size == startOffsets.length) {
+                final int capacity = Math.max(16, size * 2);
+                startOffsets = Arrays.copyOf(startOffsets, capacity);
+                endOffsets = Arrays.copyOf(endOffsets, capacity);
+                types = Arrays.copyOf(types, capacity);
+                if(fragments != null) {
+                    fragments = Arrays.copyOf(fragments, capacity);
+                }
+            }
+            startOffsets[size] = startOffset;
+            endOffsets[size] = endOffset;
+            types[size] = encodeType(type);
+            if(fragments != null) {
+                fragments[size] = fragment;
+            }
+            ++size;
+            return this;
+        }
+
+        public Builder<F> add(Token<? extends F> token) {
+            final Region region = token.getRegion();
+            return add(region.getStartOffset(), region.getEndOffset(), token.getType(), keepFragments ? token.getFragment() : null);
+        }
+
+        public PackedTokens<F> build() {
+            return new PackedTokens<>(
+                size,
+                Arrays.copyOf(startOffsets, size),
+                Arrays.copyOf(endOffsets, size),
+                Arrays.copyOf(types, size),
+                fragments != null ? Arrays.copyOf(fragments, size) : null
+            );
+        }
+    }
+}
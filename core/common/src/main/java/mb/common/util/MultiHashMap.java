@@ -5,7 +5,9 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -19,8 +21,14 @@ public class MultiHashMap<K extends @Nullable Object, V> implements Serializable
         this.map = new HashMap<>();
     }
 
+    /**
+     * Creates a copy of {@code map}, which does not share value lists with {@code map}.
+     */
     public MultiHashMap(MultiHashMap<K, V> map) {
-        this.map = new HashMap<>(map.map);
+        this.map = new HashMap<>(map.map.size());
+        for(Entry<K, ArrayList<V>> entry : map.map.entrySet()) {
+            this.map.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
     }
 
     public MultiHashMap(Map<? extends K, ArrayList<V>> map) {
@@ -36,8 +44,14 @@ public class MultiHashMap<K extends @Nullable Object, V> implements Serializable
         return map.isEmpty();
     }
 
-    public ArrayList<V> get(K key) {
-        return map.computeIfAbsent(key, k -> new ArrayList<>());
+    /**
+     * Gets the values for {@code key}, or an empty unmodifiable list if there are none. Does not add {@code key} to this
+     * map.
+     */
+    public List<V> get(K key) {
+        final @Nullable ArrayList<V> values = map.get(key);
+        if(values == null) return Collections.emptyList();
+        return values;
     }
 
     public boolean containsKey(K key) {
@@ -126,4 +140,20 @@ public class MultiHashMap<K extends @Nullable Object, V> implements Serializable
             }
         }
     }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final MultiHashMap<?, ?> that = (MultiHashMap<?, ?>)o;
+        return map.equals(that.map);
+    }
+
+    @Override public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override public String toString() {
+        return map.toString();
+    }
 }
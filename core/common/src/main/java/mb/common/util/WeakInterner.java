@@ -0,0 +1,76 @@
+package mb.common.util;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Interner that returns the same instance for equal objects, holding interned objects weakly: an interned object is
+ * removed when nothing else refers to it any more. Safe to use from multiple threads; objects are spread over
+ * independently locked stripes by their hash code, such that threads interning different objects rarely contend.
+ *
+ * @param <T> Type of interned objects, which must be immutable with respect to {@link Object#equals} and {@link
+ *            Object#hashCode}.
+ */
+public class WeakInterner<T> {
+    private static final int defaultStripeCount = 16;
+
+    private final WeakHashMap<T, WeakReference<T>>[] stripes;
+
+
+    /**
+     * Creates an interner with {@code stripeCount} stripes, which is rounded up to a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public WeakInterner(int stripeCount) {
+        if(stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count " + stripeCount + " is not positive");
+        }
+        final int roundedStripeCount = Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = (WeakHashMap<T, WeakReference<T>>[])new WeakHashMap<?, ?>[Math.max(roundedStripeCount, 1)];
+        for(int i = 0; i < stripes.length; ++i) {
+            stripes[i] = new WeakHashMap<>();
+        }
+    }
+
+    public WeakInterner() {
+        this(defaultStripeCount);
+    }
+
+
+    /**
+     * Gets the interned instance equal to {@code object}, interning {@code object} if no equal object is interned.
+     */
+    public T intern(T object) {
+        final WeakHashMap<T, WeakReference<T>> stripe = stripe(object);
+        synchronized(stripe) {
+            final @Nullable WeakReference<T> reference = stripe.get(object);
+            final @Nullable T interned = reference != null ? reference.get() : null;
+            if(interned != null) return interned;
+            stripe.put(object, new WeakReference<>(object));
+            return object;
+        }
+    }
+
+    /**
+     * Gets the number of interned objects, including objects that are no longer referred to but have not been removed
+     * yet.
+     */
+    public int size() {
+        int size = 0;
+        for(WeakHashMap<T, WeakReference<T>> stripe : stripes) {
+            synchronized(stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+
+    private WeakHashMap<T, WeakReference<T>> stripe(T object) {
+        final int hash = object.hashCode();
+        // Spread higher bits downwards, as stripes are selected by the lowest bits.
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+}
@@ -0,0 +1,150 @@
+package mb.common.message;
+
+import mb.common.region.Region;
+import mb.common.util.SerializationUtil;
+import mb.resource.DefaultResourceKey;
+import mb.resource.ResourceKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests the {@link KeyedMessages} and {@link KeyedMessagesBuilder} classes. */
+@DisplayName("KeyedMessages")
+public class KeyedMessagesTests {
+    private static final ResourceKey resource1 = new DefaultResourceKey("test", "1");
+    private static final ResourceKey resource2 = new DefaultResourceKey("test", "2");
+
+    private static KeyedMessages createMessages() {
+        final KeyedMessagesBuilder builder = new KeyedMessagesBuilder();
+        builder.addMessage("error", Severity.Error, resource1, Region.fromOffsets(0, 3));
+        builder.addMessage("warning", Severity.Warning, resource1);
+        builder.addMessage("info", Severity.Info);
+        return builder.build();
+    }
+
+    /** Tests reading messages. */
+    @DisplayName("getMessages()")
+    @Nested public class GetMessagesTests {
+
+        @Test
+        public void returnsMessagesOfResource() {
+            // Arrange
+            KeyedMessages sut = createMessages();
+
+            // Act
+            ArrayList<Message> messages = new ArrayList<>();
+            sut.getMessages(resource1).addAllTo(messages);
+
+            // Assert
+            assertEquals(2, messages.size());
+            assertEquals("error", messages.get(0).text);
+            assertEquals("warning", messages.get(1).text);
+            assertEquals(1, sut.getMessagesWithoutOrigin().size());
+        }
+
+        @Test
+        public void doesNotModifyMessages() {
+            // Arrange
+            KeyedMessages sut = createMessages();
+            KeyedMessages expected = createMessages();
+
+            // Act
+            boolean isEmpty = sut.getMessages(resource2).isEmpty();
+
+            // Assert
+            assertTrue(isEmpty);
+            assertEquals(2, sut.size());
+            assertFalse(sut.getResources().contains(resource2));
+            assertEquals(expected, sut);
+            assertEquals(expected.hashCode(), sut.hashCode());
+        }
+    }
+
+    /** Tests the severity summaries. */
+    @DisplayName("containsSeverity()")
+    @Nested public class ContainsSeverityTests {
+
+        @Test
+        public void summarizesSeverities() {
+            // Arrange
+            KeyedMessages sut = createMessages();
+
+            // Assert
+            assertTrue(sut.containsError());
+            assertTrue(sut.containsWarning());
+            assertTrue(sut.containsInfo());
+            assertFalse(sut.containsDebug());
+            assertTrue(sut.containsErrorOrHigher());
+            assertTrue(sut.containsTraceOrHigher());
+            assertEquals(3, sut.getMessageCount());
+        }
+
+        @Test
+        public void summarizesNoSeverities() {
+            // Arrange
+            KeyedMessages sut = new KeyedMessagesBuilder().build();
+
+            // Assert
+            assertTrue(sut.isEmpty());
+            assertFalse(sut.containsTraceOrHigher());
+            assertFalse(sut.containsError());
+        }
+    }
+
+    /** Tests the {@link KeyedMessagesBuilder#build} function. */
+    @DisplayName("build()")
+    @Nested public class BuildTests {
+
+        @Test
+        public void doesNotShareMessagesWithBuilder() {
+            // Arrange
+            KeyedMessagesBuilder builder = new KeyedMessagesBuilder();
+            builder.addMessage("error", Severity.Error, resource1);
+
+            // Act
+            KeyedMessages sut = builder.build();
+            builder.addMessage("another error", Severity.Error, resource1);
+
+            // Assert
+            assertEquals(1, sut.getMessages(resource1).size());
+            assertEquals(2, builder.build().getMessages(resource1).size());
+        }
+
+        @Test
+        public void replacesMessagesOfResources() {
+            // Arrange
+            KeyedMessagesBuilder builder = new KeyedMessagesBuilder();
+            builder.addMessages(createMessages());
+            KeyedMessagesBuilder replacementBuilder = new KeyedMessagesBuilder();
+            replacementBuilder.addMessage("replaced", Severity.Debug, resource1);
+
+            // Act
+            builder.replaceMessages(replacementBuilder.build());
+            KeyedMessages sut = builder.build();
+
+            // Assert
+            assertEquals(1, sut.getMessages(resource1).size());
+            assertEquals("replaced", sut.getMessages(resource1).get(0).text);
+            assertEquals(1, sut.getMessagesWithoutOrigin().size());
+            assertFalse(sut.containsError());
+        }
+
+        @Test
+        public void survivesSerialization() {
+            // Arrange
+            KeyedMessages sut = createMessages();
+
+            // Act
+            KeyedMessages deserialized = SerializationUtil.deserialize(SerializationUtil.serialize(sut), KeyedMessages.class.getClassLoader());
+
+            // Assert
+            assertEquals(sut, deserialized);
+            assertTrue(deserialized.containsError());
+            assertTrue(deserialized.getResources().contains(resource1));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package mb.common.message;
+
+import mb.common.region.Region;
+import mb.common.util.SerializationUtil;
+import mb.resource.DefaultResourceKey;
+import mb.resource.ResourceKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests the {@link PackedMessages} class. */
+@DisplayName("PackedMessages")
+public class PackedMessagesTests {
+    private static List<Message> createMessages() {
+        final RuntimeException exception = new RuntimeException();
+        return Arrays.asList(
+            new Message(new String("Unresolved reference"), Severity.Error, Region.fromOffsets(0, 3)),
+            new Message(new String("Unresolved reference"), Severity.Error, Region.fromOffsets(10, 13)),
+            new Message(new String("Analysis failed"), exception, Severity.Error, null),
+            new Message(new String("Unresolved reference"), Severity.Warning),
+            new Message(new String("Unresolved reference"), Severity.Error, Region.fromOffsets(0, 3))
+        );
+    }
+
+    /** Tests the {@link PackedMessages#pack} function. */
+    @DisplayName("pack()")
+    @Nested public class PackTests {
+
+        @Test
+        public void keepsMessages() {
+            // Arrange
+            List<Message> messages = createMessages();
+
+            // Act
+            PackedMessages sut = PackedMessages.pack(messages, new MessageTextPool());
+
+            // Assert
+            assertEquals(messages, sut);
+            assertEquals(messages.hashCode(), sut.hashCode());
+            assertEquals(new ArrayList<>(messages), new ArrayList<>(sut));
+            assertTrue(sut.containsSeverity(Severity.Warning));
+            assertFalse(sut.containsSeverity(Severity.Info));
+        }
+
+        @Test
+        public void sharesEqualTexts() {
+            // Arrange
+            List<Message> messages = createMessages();
+
+            // Act
+            PackedMessages sut = PackedMessages.pack(messages, new MessageTextPool());
+
+            // Assert
+            assertSame(sut.getText(0), sut.getText(1));
+            assertSame(sut.getText(0), sut.getText(3));
+        }
+
+        @Test
+        public void removesDuplicates() {
+            // Arrange
+            List<Message> messages = createMessages();
+
+            // Act
+            PackedMessages sut = PackedMessages.pack(messages, new MessageTextPool(), true);
+
+            // Assert
+            assertEquals(messages.subList(0, 4), sut);
+        }
+    }
+
+    /** Tests serializing packed messages. */
+    @DisplayName("serialization")
+    @Nested public class SerializationTests {
+
+        @Test
+        public void survivesSerialization() {
+            // Arrange
+            PackedMessages sut = PackedMessages.pack(createMessages(), new MessageTextPool());
+
+            // Act
+            PackedMessages deserialized = SerializationUtil.deserialize(SerializationUtil.serialize(sut), PackedMessages.class.getClassLoader());
+
+            // Assert
+            assertEquals(sut.size(), deserialized.size());
+            for(int i = 0; i < sut.size(); ++i) {
+                assertEquals(sut.getText(i), deserialized.getText(i));
+                assertEquals(sut.getSeverity(i), deserialized.getSeverity(i));
+                assertEquals(sut.get(i).region, deserialized.get(i).region);
+            }
+            assertSame(deserialized.getText(0), deserialized.getText(1));
+            assertNotNull(deserialized.get(2).exception);
+        }
+
+        @Test
+        public void isSmallerThanUnpacked() {
+            // Arrange
+            ResourceKey resource = new DefaultResourceKey("test", "1");
+            KeyedMessagesBuilder builder = new KeyedMessagesBuilder();
+            KeyedMessagesBuilder packedBuilder = new KeyedMessagesBuilder(new MessageTextPool(), false);
+            for(int i = 0; i < 1000; ++i) {
+                builder.addMessage(new String("Unresolved reference"), Severity.Error, resource, Region.fromOffsets(i, i + 1));
+                packedBuilder.addMessage(new String("Unresolved reference"), Severity.Error, resource, Region.fromOffsets(i, i + 1));
+            }
+
+            // Act
+            KeyedMessages messages = builder.build();
+            KeyedMessages packedMessages = packedBuilder.build();
+
+            // Assert
+            assertEquals(messages, packedMessages);
+            assertTrue(SerializationUtil.serialize(packedMessages).length < SerializationUtil.serialize(messages).length);
+        }
+    }
+}
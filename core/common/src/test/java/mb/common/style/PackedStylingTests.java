@@ -0,0 +1,70 @@
+package mb.common.style;
+
+import mb.common.region.Region;
+import mb.common.token.TokenImpl;
+import mb.common.token.TokenTypes;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests the {@link PackedStyling} class. */
+@SuppressWarnings("CodeBlock2Expr")
+@DisplayName("PackedStyling")
+public class PackedStylingTests {
+
+    private static final Style keywordStyle = new StyleImpl(new Color(0, 0, 128), null, true, false, false, false);
+    private static final Style layoutStyle = new StyleImpl(new Color(63, 127, 95), null, false, true, false, false);
+
+    /** Tests the {@link PackedStyling.Builder} class. */
+    @DisplayName("Builder")
+    @Nested public class BuilderTests {
+
+        @Test
+        public void sharesEqualStylesInPalette() {
+            // Act
+            PackedStyling sut = new PackedStyling.Builder()
+                .add(0, 3, TokenTypes.keyword(), keywordStyle)
+                .add(3, 4, TokenTypes.layout(), layoutStyle)
+                .add(4, 6, TokenTypes.keyword(), new StyleImpl(new Color(0, 0, 128), null, true, false, false, false))
+                .build();
+
+            // Assert
+            assertEquals(3, sut.size());
+            assertEquals(2, sut.getPalette().length);
+            assertEquals(sut.getStyleIndex(0), sut.getStyleIndex(2));
+            assertEquals(keywordStyle, sut.getStyle(2));
+            assertEquals(4, sut.getStartOffset(2));
+            assertEquals(6, sut.getEndOffset(2));
+            assertEquals(TokenTypes.keyword(), sut.getTokenType(2));
+        }
+
+    }
+
+    /** Tests the {@link PackedStyling#fromStyling} and {@link PackedStyling#getStylePerToken} functions. */
+    @DisplayName("fromStyling()/getStylePerToken()")
+    @Nested public class ConversionTests {
+
+        @Test
+        public void roundTripsStyling() {
+            // Arrange
+            ArrayList<TokenStyle> stylePerToken = new ArrayList<>();
+            stylePerToken.add(new TokenStyleImpl(new TokenImpl<>(TokenTypes.keyword(), Region.fromOffsets(0, 3), null), keywordStyle));
+            stylePerToken.add(new TokenStyleImpl(new TokenImpl<>(TokenTypes.layout(), Region.fromOffsets(3, 4), null), layoutStyle));
+            Styling styling = new StylingImpl(stylePerToken);
+
+            // Act
+            PackedStyling sut = PackedStyling.fromStyling(styling);
+
+            // Assert
+            assertEquals(stylePerToken, sut.getStylePerToken());
+            assertSame(sut, PackedStyling.fromStyling(sut));
+            assertEquals(sut, PackedStyling.fromStyling(styling));
+        }
+
+    }
+
+}
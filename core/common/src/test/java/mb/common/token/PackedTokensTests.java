@@ -0,0 +1,113 @@
+package mb.common.token;
+
+import mb.common.region.Region;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests the {@link PackedTokens} class. */
+@SuppressWarnings("CodeBlock2Expr")
+@DisplayName("PackedTokens")
+public class PackedTokensTests {
+
+    private static List<Token<String>> createTokens() {
+        return Arrays.asList(
+            new TokenImpl<>(TokenTypes.keyword(), Region.fromOffsets(0, 3), "let"),
+            new TokenImpl<>(TokenTypes.layout(), Region.fromOffsets(3, 4), null),
+            new TokenImpl<>(TokenTypes.identifier(), Region.fromOffsets(4, 5), "x")
+        );
+    }
+
+    /** Tests the {@link PackedTokens#fromTokens} function. */
+    @DisplayName("fromTokens()")
+    @Nested public class FromTokensTests {
+
+        @Test
+        public void keepsTokensWithFragments() {
+            // Arrange
+            List<Token<String>> tokens = createTokens();
+
+            // Act
+            PackedTokens<String> sut = PackedTokens.fromTokens(tokens, true);
+
+            // Assert
+            assertEquals(3, sut.size());
+            assertEquals(tokens, sut.toList());
+            assertEquals(4, sut.getStartOffset(2));
+            assertEquals(5, sut.getEndOffset(2));
+            assertEquals(TokenTypes.identifier(), sut.getType(2));
+            assertEquals("x", sut.getFragment(2));
+        }
+
+        @Test
+        public void dropsFragments() {
+            // Arrange
+            List<Token<String>> tokens = createTokens();
+
+            // Act
+            PackedTokens<String> sut = PackedTokens.fromTokens(tokens, false);
+
+            // Assert
+            assertEquals(3, sut.size());
+            for(int i = 0; i < sut.size(); ++i) {
+                assertEquals(tokens.get(i).getType(), sut.getType(i));
+                assertEquals(tokens.get(i).getRegion(), sut.get(i).getRegion());
+                assertNull(sut.getFragment(i));
+            }
+        }
+
+        @Test
+        public void iteratesOverAllTokens() {
+            // Arrange
+            List<Token<String>> tokens = createTokens();
+            PackedTokens<String> sut = PackedTokens.fromTokens(tokens, true);
+
+            // Act
+            ArrayList<Token<String>> iterated = new ArrayList<>();
+            sut.forEach(iterated::add);
+
+            // Assert
+            assertEquals(tokens, iterated);
+        }
+
+        @Test
+        public void equalTokensAreEqual() {
+            // Act
+            PackedTokens<String> tokens1 = PackedTokens.fromTokens(createTokens(), true);
+            PackedTokens<String> tokens2 = PackedTokens.fromTokens(createTokens(), true);
+
+            // Assert
+            assertEquals(tokens1, tokens2);
+            assertEquals(tokens1.hashCode(), tokens2.hashCode());
+        }
+
+    }
+
+    /** Tests the {@link PackedTokens#encodeType} and {@link PackedTokens#decodeType} functions. */
+    @DisplayName("encodeType()/decodeType()")
+    @Nested public class TypeCodeTests {
+
+        @Test
+        public void roundTripsAllTypes() {
+            // Arrange
+            List<TokenType> types = Arrays.asList(TokenTypes.identifier(), TokenTypes.string(), TokenTypes.number(),
+                TokenTypes.keyword(), TokenTypes.operator(), TokenTypes.layout(), TokenTypes.unknown());
+
+            // Act & Assert
+            assertEquals(PackedTokens.typeCodeCount, types.size());
+            for(TokenType type : types) {
+                byte code = PackedTokens.encodeType(type);
+                assertTrue(code >= 0 && code < PackedTokens.typeCodeCount);
+                assertEquals(type, PackedTokens.decodeType(code));
+            }
+        }
+
+    }
+
+}
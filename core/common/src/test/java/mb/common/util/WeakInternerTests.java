@@ -0,0 +1,87 @@
+package mb.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Tests the {@link WeakInterner} class. */
+@DisplayName("WeakInterner")
+public class WeakInternerTests {
+
+    /** Tests the {@link WeakInterner#intern} function. */
+    @DisplayName("intern()")
+    @Nested public class InternTests {
+
+        @Test
+        public void returnsFirstInstanceForEqualObjects() {
+            // Arrange
+            WeakInterner<String> sut = new WeakInterner<>();
+            String first = new String("Unresolved reference");
+
+            // Act
+            String interned = sut.intern(first);
+            String internedAgain = sut.intern(new String("Unresolved reference"));
+
+            // Assert
+            assertSame(first, interned);
+            assertSame(first, internedAgain);
+            assertEquals(1, sut.size());
+        }
+
+        @Test
+        public void keepsUnequalObjectsApart() {
+            // Arrange
+            WeakInterner<String> sut = new WeakInterner<>(1);
+
+            // Act
+            String a = sut.intern("a");
+            String b = sut.intern("b");
+
+            // Assert
+            assertEquals("a", a);
+            assertEquals("b", b);
+            assertEquals(2, sut.size());
+        }
+
+        @Test
+        public void returnsSameInstanceFromMultipleThreads() throws InterruptedException, ExecutionException {
+            // Arrange
+            WeakInterner<String> sut = new WeakInterner<>();
+            ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+            // Act
+            List<Future<String>> futures = new ArrayList<>();
+            for(int i = 0; i < 64; ++i) {
+                futures.add(executorService.submit(() -> sut.intern(new String("text"))));
+            }
+            executorService.shutdown();
+
+            // Assert
+            String interned = futures.get(0).get();
+            for(Future<String> future : futures) {
+                assertSame(interned, future.get());
+            }
+            assertEquals(1, sut.size());
+        }
+    }
+
+    /** Tests the {@link WeakInterner} constructor. */
+    @DisplayName("WeakInterner()")
+    @Nested public class ConstructorTests {
+
+        @Test
+        public void rejectsNonPositiveStripeCount() {
+            // Act/Assert
+            assertThrows(IllegalArgumentException.class, () -> new WeakInterner<String>(0));
+        }
+    }
+}
@@ -2,6 +2,7 @@ package mb.constraint.common;
 
 import mb.common.message.KeyedMessages;
 import mb.common.message.KeyedMessagesBuilder;
+import mb.common.message.MessageTextPool;
 import mb.common.message.Messages;
 import mb.common.message.Severity;
 import mb.jsglr.common.ResourceKeyAttachment;
@@ -15,6 +16,8 @@ import mb.resource.ResourceRuntimeException;
 import mb.resource.ResourceService;
 import mb.stratego.common.StrategoException;
 import mb.stratego.common.StrategoRuntime;
+import mb.stratego.common.StrategoRuntimePool;
+import mb.stratego.common.StrategyHandle;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.core.Tools;
 import org.spoofax.interpreter.terms.IStrategoAppl;
@@ -25,11 +28,17 @@ import org.spoofax.interpreter.terms.ITermFactory;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class ConstraintAnalyzer {
     public static class Result implements Serializable {
@@ -48,6 +57,21 @@ public class ConstraintAnalyzer {
             this.ast = null;
             this.analysis = null;
         }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final Result other = (Result)o;
+            return resource.equals(other.resource) && Objects.equals(ast, other.ast) && Objects.equals(analysis, other.analysis);
+        }
+
+        @Override public int hashCode() {
+            return Objects.hash(resource, ast, analysis);
+        }
+
+        @Override public String toString() {
+            return "Result(" + resource + ")";
+        }
     }
 
     public static class SingleFileResult implements Serializable {
@@ -63,29 +87,94 @@ public class ConstraintAnalyzer {
     }
 
     public static class MultiFileResult implements Serializable {
-        public final ArrayList<Result> results;
+        public final ResultMap results;
         public final KeyedMessages messages;
 
-        public MultiFileResult(ArrayList<Result> results, KeyedMessages messages) {
+        public MultiFileResult(ResultMap results, KeyedMessages messages) {
             this.results = results;
             this.messages = messages;
         }
 
+        public MultiFileResult(Iterable<Result> results, KeyedMessages messages) {
+            this(new ResultMap(results), messages);
+        }
+
         public @Nullable Result getResult(ResourceKey resource) {
-            // OPTO: linear search to lookup. Cannot use HashMap because it does not serialize properly.
-            return results.stream().filter((r) -> r.resource.equals(resource)).findFirst().orElse(null);
+            return results.get(resource);
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final MultiFileResult other = (MultiFileResult)o;
+            return results.equals(other.results) && messages.equals(other.messages);
+        }
+
+        @Override public int hashCode() {
+            return Objects.hash(results, messages);
+        }
+
+        @Override public String toString() {
+            return "MultiFileResult(" + results + ", " + messages + ")";
         }
     }
 
 
     private final LoggerFactory loggerFactory;
     private final ResourceService resourceService;
-    private final StrategoRuntime strategoRuntime;
+    private final StrategoRuntimePool strategoRuntimePool;
     private final ITermFactory termFactory;
-    private final String strategyId;
+    private final StrategyHandle strategy;
     private final boolean multiFile;
+    private final @Nullable Executor unitExecutor;
+
+
+    /**
+     * Creates a constraint analyzer that invokes the analysis strategy with runtimes leased from {@code
+     * strategoRuntimePool}, such that multiple analyses can run concurrently.
+     *
+     * In single-file mode, files are analyzed independently of each other. If {@code unitExecutor} is not {@code
+     * null}, the changed files of a single analysis are then split into (at most as many as runtimes in the pool)
+     * groups, which are analyzed concurrently on {@code unitExecutor}, each with its own leased runtime. This produces
+     * the same results as analyzing all files with one strategy invocation. In multi-file mode, the analysis strategy
+     * solves the per-file and project-wide constraints of all files in one invocation, which cannot be split, and
+     * {@code unitExecutor} is ignored.
+     */
+    public ConstraintAnalyzer(
+        LoggerFactory loggerFactory,
+        ResourceService resourceService,
+        StrategoRuntimePool strategoRuntimePool,
+        String strategyId,
+        boolean multiFile,
+        @Nullable Executor unitExecutor
+    ) {
+        this.loggerFactory = loggerFactory;
+        this.resourceService = resourceService;
+        this.strategoRuntimePool = strategoRuntimePool;
+        this.termFactory = strategoRuntimePool.getTermFactory();
+        this.strategy = strategoRuntimePool.lookup(strategyId);
+        this.multiFile = multiFile;
+        this.unitExecutor = unitExecutor;
+    }
 
+    /**
+     * Creates a constraint analyzer that invokes the analysis strategy with runtimes leased from {@code
+     * strategoRuntimePool}, such that multiple analyses can run concurrently.
+     */
+    public ConstraintAnalyzer(
+        LoggerFactory loggerFactory,
+        ResourceService resourceService,
+        StrategoRuntimePool strategoRuntimePool,
+        String strategyId,
+        boolean multiFile
+    ) {
+        this(loggerFactory, resourceService, strategoRuntimePool, strategyId, multiFile, null);
+    }
 
+    /**
+     * Creates a constraint analyzer that invokes the analysis strategy with {@code strategoRuntime}. Analyses with this
+     * analyzer are serialized, as a runtime may only be used by one thread at a time.
+     */
     public ConstraintAnalyzer(
         LoggerFactory loggerFactory,
         ResourceService resourceService,
@@ -93,12 +182,7 @@ public class ConstraintAnalyzer {
         String strategyId,
         boolean multiFile
     ) {
-        this.loggerFactory = loggerFactory;
-        this.resourceService = resourceService;
-        this.strategoRuntime = strategoRuntime;
-        this.termFactory = strategoRuntime.getTermFactory();
-        this.strategyId = strategyId;
-        this.multiFile = multiFile;
+        this(loggerFactory, resourceService, StrategoRuntimePool.of(strategoRuntime), strategyId, multiFile);
     }
 
 
@@ -118,12 +202,10 @@ public class ConstraintAnalyzer {
     ) throws ConstraintAnalyzerException {
         final HashMap<ResourceKey, IStrategoTerm> asts = new HashMap<>(1);
         asts.put(resource, ast);
-        final MultiFileResult multiFileResult = doAnalyze(root, asts, context);
-        final @Nullable Result result;
-        try {
-            result = multiFileResult.results.get(0);
-        } catch(IndexOutOfBoundsException e) {
-            throw new RuntimeException("BUG: no analysis result was found for resource '" + resource + "'", e);
+        final MultiFileResult multiFileResult = doAnalyze(root, asts, Collections.emptySet(), context);
+        final @Nullable Result result = multiFileResult.getResult(resource);
+        if(result == null) {
+            throw new RuntimeException("BUG: no analysis result was found for resource '" + resource + "'");
         }
         return new SingleFileResult(result.ast, result.analysis, multiFileResult.messages.asMessages());
     }
@@ -133,12 +215,33 @@ public class ConstraintAnalyzer {
         HashMap<ResourceKey, IStrategoTerm> asts,
         ConstraintAnalyzerContext context
     ) throws ConstraintAnalyzerException {
-        return doAnalyze(root, asts, context);
+        return doAnalyze(root, asts, Collections.emptySet(), context);
+    }
+
+    /**
+     * Analyzes {@code asts} incrementally, continuing from the results in {@code context} of a previous analysis.
+     * Resources in {@code unchanged} that have a result in {@code context} are not reanalyzed, but their cached result
+     * is reused (and in multi-file mode, updated with the changed results). Resources with a result in {@code context}
+     * but without an AST in {@code asts} are removed.
+     *
+     * @param asts      ASTs of all resources to analyze, including unchanged resources.
+     * @param unchanged Resources of which the AST did not change since the analysis that produced {@code context}.
+     * @param context   Context with the results of a previous analysis, which is updated with the results of this
+     *                  analysis.
+     */
+    public MultiFileResult analyze(
+        @Nullable ResourceKey root,
+        HashMap<ResourceKey, IStrategoTerm> asts,
+        Set<ResourceKey> unchanged,
+        ConstraintAnalyzerContext context
+    ) throws ConstraintAnalyzerException {
+        return doAnalyze(root, asts, unchanged, context);
     }
 
     private MultiFileResult doAnalyze(
         @Nullable ResourceKey root,
         HashMap<ResourceKey, IStrategoTerm> asts,
+        Set<ResourceKey> unchanged,
         ConstraintAnalyzerContext context
     ) throws ConstraintAnalyzerException {
         /// 1. Compute changeset from given asts and cache.
@@ -147,11 +250,18 @@ public class ConstraintAnalyzer {
         for(Entry<ResourceKey, IStrategoTerm> entry : asts.entrySet()) {
             final ResourceKey resource = entry.getKey();
             final IStrategoTerm ast = entry.getValue();
+            if(unchanged.contains(resource) && context.getResult(resource) != null) {
+                // Unchanged resource with a cached result: reuse the cached result.
+                continue;
+            }
             ResourceKeyAttachment.setResourceKey(ast, resource);
             addedOrChangedAsts.put(resource, ast);
         }
         final HashSet<ResourceKey> removed = new HashSet<>(context.getResultResources());
-        removed.removeAll(addedOrChangedAsts.keySet());
+        removed.removeAll(asts.keySet());
+        if(root != null) {
+            removed.remove(root);
+        }
 
         /// 2. Transform changeset into list of changed terms and expect objects, and remove invalidated units from the context.
 
@@ -206,9 +316,8 @@ public class ConstraintAnalyzer {
 
         // Cached resources.
         if(multiFile) {
-            for(Map.Entry<ResourceKey, Result> entry : context.getResultEntries()) {
-                final ResourceKey resource = entry.getKey();
-                final Result cachedResult = entry.getValue();
+            for(Result cachedResult : context.getResults()) {
+                final ResourceKey resource = cachedResult.resource;
                 if(!addedOrChangedAsts.containsKey(resource)) {
                     final IStrategoTerm change = mkAppl("Cached", cachedResult.analysis);
                     expects.put(resource, new Update(resource));
@@ -220,33 +329,18 @@ public class ConstraintAnalyzer {
         /// 3. Call analysis, and list results.
 
         final Map<ResourceKey, IStrategoTerm> resultTerms = new HashMap<>();
-        final IStrategoTerm action;
+        final List<IStrategoTerm> resultEntries;
+        final @Nullable Executor unitExecutor = this.unitExecutor;
+        final int groupCount = Math.min(changeTerms.size(), strategoRuntimePool.getMaxSize());
         if(multiFile && root != null) {
-            action = mkAppl("AnalyzeMulti", rootChange, termFactory.makeList(changeTerms));
+            resultEntries = invokeAnalysis(mkAppl("AnalyzeMulti", rootChange, termFactory.makeList(changeTerms)));
+        } else if(!multiFile && unitExecutor != null && groupCount > 1) {
+            resultEntries = invokeAnalysisConcurrently(changeTerms, groupCount, unitExecutor);
         } else {
-            action = mkAppl("AnalyzeSingle", termFactory.makeList(changeTerms));
-        }
-
-        final @Nullable IStrategoTerm allResultsTerm;
-        try {
-            allResultsTerm = strategoRuntime.invoke(strategyId, action);
-        } catch(StrategoException e) {
-            throw new ConstraintAnalyzerException(e);
-        }
-        if(allResultsTerm == null) {
-            throw new ConstraintAnalyzerException("Constraint analysis strategy '" + strategyId + "' failed");
-        }
-
-        final @Nullable List<IStrategoTerm> allResultTerms = match(allResultsTerm, "AnalysisResult", 1);
-        if(allResultTerms == null || allResultTerms.isEmpty()) {
-            throw new RuntimeException("BUG: invalid constraint analysis result, got " + allResultsTerm);
+            resultEntries = invokeAnalysis(mkAppl("AnalyzeSingle", termFactory.makeList(changeTerms)));
         }
 
-        final IStrategoTerm resultsTerm = allResultTerms.get(0);
-        if(!Tools.isTermList(resultsTerm)) {
-            throw new RuntimeException("BUG: expected list of results, got: " + resultsTerm);
-        }
-        for(IStrategoTerm entry : resultsTerm) {
+        for(IStrategoTerm entry : resultEntries) {
             if(!Tools.isTermTuple(entry) || entry.getSubtermCount() != 2) {
                 throw new RuntimeException("BUG: expected tuple result, got " + entry);
             }
@@ -268,7 +362,18 @@ public class ConstraintAnalyzer {
 
         /// 4. Process analysis results and collect messages.
 
-        final KeyedMessagesBuilder messagesBuilder = new KeyedMessagesBuilder();
+        final KeyedMessagesBuilder messagesBuilder = new KeyedMessagesBuilder(MessageTextPool.shared(), false);
+
+        // Replay messages of cached results in single-file mode, as those are not reanalyzed.
+        if(!multiFile) {
+            for(ResourceKey resource : asts.keySet()) {
+                if(addedOrChangedAsts.containsKey(resource)) continue;
+                final @Nullable KeyedMessages cachedMessages = context.getMessages(resource);
+                if(cachedMessages != null) {
+                    messagesBuilder.addMessages(cachedMessages);
+                }
+            }
+        }
 
         // Process result terms, updating the result cache.
         for(Map.Entry<ResourceKey, IStrategoTerm> entry : resultTerms.entrySet()) {
@@ -292,19 +397,86 @@ public class ConstraintAnalyzer {
 
         /// 5. Build and return result object.
 
-        final ArrayList<Result> results = new ArrayList<>(asts.size());
-        for(ResourceKey resource : addedOrChangedAsts.keySet()) {
+        final ResultMap results = new ResultMap(asts.size());
+        for(ResourceKey resource : asts.keySet()) {
             final @Nullable Result result = context.getResult(resource);
             if(result != null) {
-                results.add(result);
+                results.put(result);
             } else {
-                results.add(new Result(resource));
+                results.put(new Result(resource));
             }
         }
         return new MultiFileResult(results, messagesBuilder.build());
     }
 
 
+    /**
+     * Invokes the analysis strategy with {@code action}, and returns the entries of the list of results.
+     */
+    private List<IStrategoTerm> invokeAnalysis(IStrategoTerm action) throws ConstraintAnalyzerException {
+        final @Nullable IStrategoTerm allResultsTerm;
+        try {
+            allResultsTerm = strategoRuntimePool.invoke(strategy, action);
+        } catch(StrategoException e) {
+            throw new ConstraintAnalyzerException(e);
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConstraintAnalyzerException(e);
+        }
+        if(allResultsTerm == null) {
+            throw new ConstraintAnalyzerException("Constraint analysis strategy '" + strategy + "' failed");
+        }
+
+        final @Nullable List<IStrategoTerm> allResultTerms = match(allResultsTerm, "AnalysisResult", 1);
+        if(allResultTerms == null || allResultTerms.isEmpty()) {
+            throw new RuntimeException("BUG: invalid constraint analysis result, got " + allResultsTerm);
+        }
+
+        final IStrategoTerm resultsTerm = allResultTerms.get(0);
+        if(!Tools.isTermList(resultsTerm)) {
+            throw new RuntimeException("BUG: expected list of results, got: " + resultsTerm);
+        }
+        return Arrays.asList(resultsTerm.getAllSubterms());
+    }
+
+    /**
+     * Splits {@code changeTerms} into {@code groupCount} groups, and analyzes each group in single-file mode with a
+     * separate strategy invocation on {@code unitExecutor}, returning the result entries of all groups.
+     */
+    private List<IStrategoTerm> invokeAnalysisConcurrently(ArrayList<IStrategoTerm> changeTerms, int groupCount, Executor unitExecutor) throws ConstraintAnalyzerException {
+        final ArrayList<CompletableFuture<List<IStrategoTerm>>> futures = new ArrayList<>(groupCount);
+        final int groupSize = (changeTerms.size() + groupCount - 1) / groupCount;
+        for(int start = 0; start < changeTerms.size(); start += groupSize) {
+            final List<IStrategoTerm> group = changeTerms.subList(start, Math.min(start + groupSize, changeTerms.size()));
+            final IStrategoTerm action = mkAppl("AnalyzeSingle", termFactory.makeList(group));
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return invokeAnalysis(action);
+                } catch(ConstraintAnalyzerException e) {
+                    throw new CompletionException(e);
+                }
+            }, unitExecutor));
+        }
+
+        final ArrayList<IStrategoTerm> resultEntries = new ArrayList<>(changeTerms.size());
+        try {
+            for(CompletableFuture<List<IStrategoTerm>> future : futures) {
+                resultEntries.addAll(future.join());
+            }
+        } catch(CompletionException e) {
+            for(CompletableFuture<List<IStrategoTerm>> future : futures) {
+                future.cancel(false);
+            }
+            final Throwable cause = e.getCause();
+            if(cause instanceof ConstraintAnalyzerException) throw (ConstraintAnalyzerException)cause;
+            if(cause instanceof RuntimeException) throw (RuntimeException)cause;
+            if(cause instanceof Error) throw (Error)cause;
+            throw e;
+        }
+        return resultEntries;
+    }
+
+
     abstract class Expect {
         final ResourceKey resource;
 
@@ -312,11 +484,21 @@ public class ConstraintAnalyzer {
             this.resource = resource;
         }
 
-        void addResultMessages(IStrategoTerm errors, IStrategoTerm warnings, IStrategoTerm notes, KeyedMessagesBuilder messagesBuilder) {
-            final @Nullable ResourceKey resourceOverride = multiFile ? null : resource;
-            MessageUtil.addMessagesFromTerm(messagesBuilder, errors, Severity.Error, resourceOverride);
-            MessageUtil.addMessagesFromTerm(messagesBuilder, warnings, Severity.Warning, resourceOverride);
-            MessageUtil.addMessagesFromTerm(messagesBuilder, notes, Severity.Info, resourceOverride);
+        void addResultMessages(IStrategoTerm errors, IStrategoTerm warnings, IStrategoTerm notes, ConstraintAnalyzerContext context, KeyedMessagesBuilder messagesBuilder) {
+            if(multiFile) {
+                MessageUtil.addMessagesFromTerm(messagesBuilder, errors, Severity.Error, null);
+                MessageUtil.addMessagesFromTerm(messagesBuilder, warnings, Severity.Warning, null);
+                MessageUtil.addMessagesFromTerm(messagesBuilder, notes, Severity.Info, null);
+            } else {
+                // Keep messages of this resource in the context, to replay them when its result is reused.
+                final KeyedMessagesBuilder resourceMessagesBuilder = new KeyedMessagesBuilder(MessageTextPool.shared(), false);
+                MessageUtil.addMessagesFromTerm(resourceMessagesBuilder, errors, Severity.Error, resource);
+                MessageUtil.addMessagesFromTerm(resourceMessagesBuilder, warnings, Severity.Warning, resource);
+                MessageUtil.addMessagesFromTerm(resourceMessagesBuilder, notes, Severity.Info, resource);
+                final KeyedMessages resourceMessages = resourceMessagesBuilder.build();
+                context.updateMessages(resource, resourceMessages);
+                messagesBuilder.addMessages(resourceMessages);
+            }
         }
 
         void addFailMessage(String text, KeyedMessagesBuilder messagesBuilder) {
@@ -337,8 +519,8 @@ public class ConstraintAnalyzer {
             if((results = match(resultTerm, "Full", 5)) != null) {
                 final IStrategoTerm ast = results.get(0);
                 final IStrategoTerm analysis = results.get(1);
-                addResultMessages(results.get(2), results.get(3), results.get(4), messagesBuilder);
                 context.updateResult(resource, ast, analysis);
+                addResultMessages(results.get(2), results.get(3), results.get(4), context, messagesBuilder);
             } else if(match(resultTerm, "Failed", 0) != null) {
                 addFailMessage("Analysis failed", messagesBuilder);
                 context.removeResult(resource);
@@ -358,8 +540,8 @@ public class ConstraintAnalyzer {
             final @Nullable List<IStrategoTerm> results;
             if((results = match(resultTerm, "Update", 4)) != null) {
                 final IStrategoTerm analysis = results.get(0);
-                addResultMessages(results.get(1), results.get(2), results.get(3), messagesBuilder);
                 context.updateResult(resource, analysis);
+                addResultMessages(results.get(1), results.get(2), results.get(3), context, messagesBuilder);
             } else if(match(resultTerm, "Failed", 0) != null) {
                 addFailMessage("Analysis failed", messagesBuilder);
                 context.removeResult(resource);
@@ -379,8 +561,8 @@ public class ConstraintAnalyzer {
             final @Nullable List<IStrategoTerm> results;
             if((results = match(resultTerm, "Full", 5)) != null) {
                 final IStrategoTerm analysis = results.get(1);
-                addResultMessages(results.get(2), results.get(3), results.get(4), messagesBuilder);
                 context.updateResult(resource, analysis);
+                addResultMessages(results.get(2), results.get(3), results.get(4), context, messagesBuilder);
             } else if(match(resultTerm, "Failed", 0) != null) {
                 addFailMessage("Analysis failed", messagesBuilder);
                 context.removeResult(resource);
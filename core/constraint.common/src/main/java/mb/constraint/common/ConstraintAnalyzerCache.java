@@ -0,0 +1,466 @@
+package mb.constraint.common;
+
+import mb.log.api.Logger;
+import mb.log.api.LoggerFactory;
+import mb.resource.ReadableResource;
+import mb.resource.ResourceKey;
+import mb.resource.ResourceService;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of {@link ConstraintAnalyzerContext analysis contexts} per project, such that analyses can continue from the
+ * results of a previous analysis instead of reanalyzing every file.
+ *
+ * The context of the last analysis of each project in this process is kept in memory with the modification time of
+ * each analyzed resource, and {@link #get gotten} with the resources whose modification time is unchanged. When
+ * persistent, contexts are also stored in a file per project, such that analyses can continue from the results of a
+ * previous process (e.g. before restarting an IDE or CLI). Files are written on a background thread, two seconds after the
+ * last analysis of a project (such that consecutive analyses are written once), and loaded when a project is first
+ * gotten in a process.
+ *
+ * Each file stores the analysis context of a project together with the content stamp of each analyzed resource, the
+ * stamp of the language that analyzed them, and the version of the file format. When loading, results of resources
+ * whose content stamp is unchanged are reused, and other results are reanalyzed. Files of another format version or
+ * language stamp, and files that cannot be read, are ignored, such that changing the language (e.g. rebuilding it)
+ * invalidates all cached results. Content stamps are only computed when a resource changed since it was last stamped.
+ *
+ * Contexts are stored with Java serialization (the same encoding as in the PIE store), compressed with GZIP, since
+ * analysis terms carry attachments such as origins, which binary ATerm formats do not preserve.
+ *
+ * This cache is not part of the PIE store: dropping the store (e.g. to clean or rebuild) does not reset it, and
+ * analyses after dropping the store still continue from cached contexts. Call {@link #clear()} along with dropping the
+ * store to also drop cached contexts from memory, and {@link #invalidate} to delete the file of a project.
+ */
+public class ConstraintAnalyzerCache {
+    private static final int magic = 0x53504341; // "SPCA"
+    private static final int formatVersion = 1;
+    private static final String fileExtension = ".analysis";
+    private static final long writeDelayMillis = 2000;
+
+    private final @Nullable Path directory;
+    private final String languageStamp;
+    private final @Nullable ResourceService resourceService;
+    private final @Nullable Logger log;
+    private final @Nullable ScheduledExecutorService writeExecutor;
+    private final ConcurrentHashMap<ResourceKey, Previous> previous = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ResourceKey, ContentStamp> contentStamps = new ConcurrentHashMap<>();
+    private final Set<ResourceKey> unwritten = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<ResourceKey, ScheduledFuture<?>> scheduledWrites = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+
+    /**
+     * Creates a persistent cache.
+     *
+     * @param directory       Directory to store cache files in.
+     * @param languageStamp   Stamp of the language that analyzes, which must change when the language changes. Use
+     *                        {@link #languageStamp(Class[])} to create a stamp from the artifacts of the language.
+     * @param resourceService Resource service to read analyzed resources with, to create their content stamps.
+     * @param loggerFactory   Logger factory to create a logger with, to report failures of background writes.
+     */
+    public ConstraintAnalyzerCache(Path directory, String languageStamp, ResourceService resourceService, LoggerFactory loggerFactory) {
+        this.directory = directory;
+        this.languageStamp = languageStamp;
+        this.resourceService = resourceService;
+        this.log = loggerFactory.create(ConstraintAnalyzerCache.class);
+        this.writeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "constraint-analyzer-cache-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private ConstraintAnalyzerCache() {
+        this.directory = null;
+        this.languageStamp = "";
+        this.resourceService = null;
+        this.log = null;
+        this.writeExecutor = null;
+    }
+
+    /**
+     * Creates a cache that only caches in memory, which never loads nor stores files.
+     */
+    public static ConstraintAnalyzerCache inMemory() {
+        return new ConstraintAnalyzerCache();
+    }
+
+
+    public boolean isPersistent() {
+        return directory != null;
+    }
+
+    public @Nullable Path getDirectory() {
+        return directory;
+    }
+
+    public String getLanguageStamp() {
+        return languageStamp;
+    }
+
+
+    /**
+     * Gets a copy of the context of the last analysis of the project at {@code root}, and determines which resources
+     * are unchanged by comparing the modification times of that analysis with {@code modifiedTimes}. When the project
+     * was not analyzed in this process, its context is loaded from its file instead, if this cache is persistent.
+     * Returns {@code null} when there is no context to start from.
+     */
+    public @Nullable WarmStart get(ResourceKey root, Map<ResourceKey, Instant> modifiedTimes) {
+        final @Nullable Previous previous = this.previous.get(root);
+        if(previous == null) {
+            return loadFile(root, modifiedTimes);
+        }
+        // Copy the context, as it is part of the output of the previous analysis, which may not be modified.
+        final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext(previous.context);
+        final HashSet<ResourceKey> unchanged = new HashSet<>();
+        for(Map.Entry<ResourceKey, Instant> entry : modifiedTimes.entrySet()) {
+            final ResourceKey resource = entry.getKey();
+            if(entry.getValue().equals(previous.modifiedTimes.get(resource)) && context.getResult(resource) != null) {
+                unchanged.add(resource);
+            }
+        }
+        return new WarmStart(context, unchanged);
+    }
+
+    /**
+     * Puts {@code context}, the context of an analysis of the project at {@code root}, with {@code modifiedTimes}, the
+     * modification times of the analyzed resources at the time they were analyzed, in memory. The context may not be
+     * modified afterwards. When this cache is persistent, schedules writing the context to its file on a background
+     * thread, replacing an earlier scheduled write of the same project.
+     */
+    public void put(ResourceKey root, ConstraintAnalyzerContext context, Map<ResourceKey, Instant> modifiedTimes) {
+        previous.put(root, new Previous(context, new HashMap<>(modifiedTimes)));
+        final @Nullable ScheduledExecutorService writeExecutor = this.writeExecutor;
+        if(writeExecutor == null) return;
+        unwritten.add(root);
+        scheduledWrites.compute(root, (k, scheduledWrite) -> {
+            if(scheduledWrite != null) {
+                scheduledWrite.cancel(false);
+            }
+            return writeExecutor.schedule(() -> write(root), writeDelayMillis, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Writes the contexts of all projects that were put but not yet written to their files, on the calling thread. Call
+     * before exiting the process, as scheduled writes do not keep the process alive.
+     */
+    public void flush() {
+        for(ResourceKey root : new ArrayList<>(unwritten)) {
+            write(root);
+        }
+    }
+
+    /**
+     * Removes all contexts from memory, and cancels scheduled writes.
+     */
+    public void clear() {
+        scheduledWrites.values().forEach(scheduledWrite -> scheduledWrite.cancel(false));
+        scheduledWrites.clear();
+        unwritten.clear();
+        previous.clear();
+        contentStamps.clear();
+    }
+
+
+    private @Nullable WarmStart loadFile(ResourceKey root, Map<ResourceKey, Instant> modifiedTimes) {
+        if(!isPersistent()) return null;
+        final HashMap<ResourceKey, String> stamps = new HashMap<>();
+        for(Map.Entry<ResourceKey, Instant> entry : modifiedTimes.entrySet()) {
+            final @Nullable String stamp = contentStamp(entry.getKey(), entry.getValue());
+            if(stamp != null) {
+                stamps.put(entry.getKey(), stamp);
+            }
+        }
+        final WarmStart warmStart = load(root, stamps);
+        return warmStart.isCold() ? null : warmStart;
+    }
+
+    private void write(ResourceKey root) {
+        // Writes are serialized, and write the latest context of the project, such that an earlier context never
+        // replaces a later one.
+        synchronized(writeLock) {
+            if(!unwritten.remove(root)) return;
+            final @Nullable Previous previous = this.previous.get(root);
+            if(previous == null) return;
+            final HashMap<ResourceKey, String> stamps = new HashMap<>();
+            for(Map.Entry<ResourceKey, Instant> entry : previous.modifiedTimes.entrySet()) {
+                final @Nullable String stamp = contentStamp(entry.getKey(), entry.getValue());
+                if(stamp != null) {
+                    stamps.put(entry.getKey(), stamp);
+                }
+            }
+            try {
+                store(root, previous.context, stamps);
+            } catch(IOException e) {
+                final @Nullable Logger log = this.log;
+                if(log != null) {
+                    log.warn("Storing analysis cache of '{}' failed; next process will reanalyze all files", e, root);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the content stamp of {@code resource} as it was at {@code modifiedTime}, or {@code null} if it cannot be
+     * read or has been modified since, in which case it must be reanalyzed.
+     */
+    private @Nullable String contentStamp(ResourceKey resource, Instant modifiedTime) {
+        final @Nullable ContentStamp cached = contentStamps.get(resource);
+        if(cached != null && cached.modifiedTime.equals(modifiedTime)) return cached.stamp;
+        final @Nullable ResourceService resourceService = this.resourceService;
+        if(resourceService == null) return null;
+        try {
+            final ReadableResource readable = resourceService.getReadableResource(resource);
+            final byte[] bytes = readable.readBytes();
+            // Check the modification time after reading, such that the stamp is never of contents from after it.
+            if(!readable.getLastModifiedTime().equals(modifiedTime)) return null;
+            final String stamp = contentStamp(bytes);
+            contentStamps.put(resource, new ContentStamp(modifiedTime, stamp));
+            return stamp;
+        } catch(IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Loads the cached context of the project at {@code root} from its file, and determines which resources are
+     * unchanged by comparing their cached content stamps with {@code contentStamps}. Returns an empty context when
+     * there is no valid cache file, or when this cache is not persistent.
+     */
+    public WarmStart load(ResourceKey root, Map<ResourceKey, String> contentStamps) {
+        final @Nullable Path file = file(root);
+        if(file == null) return WarmStart.cold();
+        final ConstraintAnalyzerContext context;
+        final HashMap<ResourceKey, String> cachedStamps;
+        try(final ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+            if(in.readInt() != magic || in.readInt() != formatVersion || !languageStamp.equals(in.readUTF())) {
+                return WarmStart.cold();
+            }
+            context = (ConstraintAnalyzerContext)in.readObject();
+            final int size = in.readInt();
+            cachedStamps = new HashMap<>(size);
+            for(int i = 0; i < size; ++i) {
+                final ResourceKey resource = (ResourceKey)in.readObject();
+                cachedStamps.put(resource, in.readUTF());
+            }
+        } catch(IOException | ClassNotFoundException | ClassCastException e) {
+            // Missing, outdated, or corrupt cache file: analyze from scratch.
+            return WarmStart.cold();
+        }
+        final HashSet<ResourceKey> unchanged = new HashSet<>();
+        for(Map.Entry<ResourceKey, String> entry : contentStamps.entrySet()) {
+            final ResourceKey resource = entry.getKey();
+            if(entry.getValue().equals(cachedStamps.get(resource)) && context.getResult(resource) != null) {
+                unchanged.add(resource);
+            }
+        }
+        return new WarmStart(context, unchanged);
+    }
+
+    /**
+     * Stores {@code context}, the context of an analysis of the project at {@code root}, with {@code contentStamps}, the
+     * content stamps of the analyzed resources, in its file. Does nothing when this cache is not persistent. The cache file is replaced
+     * atomically where supported, such that concurrent loads never read a partially written file.
+     */
+    public void store(ResourceKey root, ConstraintAnalyzerContext context, Map<ResourceKey, String> contentStamps) throws IOException {
+        final @Nullable Path file = file(root);
+        if(file == null) return;
+        Files.createDirectories(file.getParent());
+        final Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try(final ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(magic);
+                out.writeInt(formatVersion);
+                out.writeUTF(languageStamp);
+                out.writeObject(context);
+                out.writeInt(contentStamps.size());
+                for(Map.Entry<ResourceKey, String> entry : contentStamps.entrySet()) {
+                    out.writeObject(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Deletes the cache file of the project at {@code root}, if it exists.
+     */
+    public void invalidate(ResourceKey root) throws IOException {
+        final @Nullable Path file = file(root);
+        if(file == null) return;
+        Files.deleteIfExists(file);
+    }
+
+    private @Nullable Path file(ResourceKey root) {
+        if(directory == null) return null;
+        return directory.resolve(toHex(sha256(root.toString().getBytes(StandardCharsets.UTF_8))) + fileExtension);
+    }
+
+
+    /**
+     * Creates a content stamp of a resource from its contents.
+     */
+    public static String contentStamp(byte[] contents) {
+        return toHex(sha256(contents));
+    }
+
+    /**
+     * Creates a language stamp from the contents of the JAR files or class directories that contain {@code classes},
+     * such that the stamp changes when any of the classes (or resources next to them) change.
+     *
+     * @throws IOException When reading a JAR file or class directory fails.
+     */
+    public static String languageStamp(Class<?>... classes) throws IOException {
+        final MessageDigest digest = newDigest();
+        for(Class<?> cls : classes) {
+            final @Nullable CodeSource codeSource = cls.getProtectionDomain().getCodeSource();
+            final @Nullable URL location = codeSource != null ? codeSource.getLocation() : null;
+            digest.update(cls.getName().getBytes(StandardCharsets.UTF_8));
+            if(location == null) continue;
+            final Path path;
+            try {
+                path = Paths.get(location.toURI());
+            } catch(URISyntaxException | IllegalArgumentException e) {
+                // Not a local file; stamp the location itself.
+                digest.update(location.toString().getBytes(StandardCharsets.UTF_8));
+                continue;
+            }
+            if(Files.isDirectory(path)) {
+                final List<Path> files;
+                try(final Stream<Path> stream = Files.walk(path)) {
+                    files = stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for(Path file : files) {
+                    digest.update(path.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    update(digest, file);
+                }
+            } else {
+                update(digest, path);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, Path file) throws IOException {
+        try(final InputStream inputStream = Files.newInputStream(file)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch(NoSuchFileException e) {
+            // File was deleted while walking; it does not contribute to the stamp.
+        }
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        return newDigest().digest(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for(byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+
+    private static class ContentStamp {
+        final Instant modifiedTime;
+        final String stamp;
+
+        ContentStamp(Instant modifiedTime, String stamp) {
+            this.modifiedTime = modifiedTime;
+            this.stamp = stamp;
+        }
+    }
+
+    private static class Previous {
+        final ConstraintAnalyzerContext context;
+        final HashMap<ResourceKey, Instant> modifiedTimes;
+
+        Previous(ConstraintAnalyzerContext context, HashMap<ResourceKey, Instant> modifiedTimes) {
+            this.context = context;
+            this.modifiedTimes = modifiedTimes;
+        }
+    }
+
+    /**
+     * Context to start an analysis from, with the resources of which the cached results can be reused.
+     */
+    public static class WarmStart {
+        /** Context with cached results, which may be modified by an analysis. */
+        public final ConstraintAnalyzerContext context;
+        /** Resources that did not change since their results were cached. */
+        public final Set<ResourceKey> unchanged;
+
+        public WarmStart(ConstraintAnalyzerContext context, Set<ResourceKey> unchanged) {
+            this.context = context;
+            this.unchanged = unchanged;
+        }
+
+        public static WarmStart cold() {
+            return new WarmStart(new ConstraintAnalyzerContext(), Collections.emptySet());
+        }
+
+        public boolean isCold() {
+            return unchanged.isEmpty() && context.getResults().isEmpty();
+        }
+    }
+}
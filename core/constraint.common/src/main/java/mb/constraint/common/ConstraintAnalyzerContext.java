@@ -1,47 +1,85 @@
 package mb.constraint.common;
 
+import mb.common.message.KeyedMessages;
 import mb.constraint.common.ConstraintAnalyzer.Result;
 import mb.resource.ResourceKey;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
 import java.io.Serializable;
-import java.util.HashMap;
-import java.util.Map.Entry;
+import java.util.Collection;
 import java.util.Set;
 
 public class ConstraintAnalyzerContext implements Serializable {
-    // TODO: serializing hashmap may cause problems because it is not equal after a round-trip?
-    private final HashMap<ResourceKey, Result> results = new HashMap<>();
+    // Results, along with their messages in single-file mode, which are replayed for cached results, as single-file
+    // analysis does not reanalyze cached results.
+    private final ResultMap results;
+
+
+    public ConstraintAnalyzerContext() {
+        this.results = new ResultMap();
+    }
+
+    /**
+     * Creates a copy of {@code other}, such that an analysis can continue from the results of a previous analysis,
+     * without modifying the context of that previous analysis.
+     */
+    public ConstraintAnalyzerContext(ConstraintAnalyzerContext other) {
+        this.results = new ResultMap(other.results);
+    }
 
 
     public @Nullable Result getResult(ResourceKey resource) {
         return results.get(resource);
     }
 
-    public Set<Entry<ResourceKey, Result>> getResultEntries() {
-        return results.entrySet();
+    public Collection<Result> getResults() {
+        return results.values();
     }
 
     public Set<ResourceKey> getResultResources() {
         return results.keySet();
     }
 
+    @Nullable KeyedMessages getMessages(ResourceKey resource) {
+        return results.getMessages(resource);
+    }
+
 
     void updateResult(ResourceKey resource, IStrategoTerm ast, IStrategoTerm analysis) {
-        results.put(resource, new Result(resource, ast, analysis));
+        results.put(new Result(resource, ast, analysis));
     }
 
     void updateResult(ResourceKey resource, IStrategoTerm analysis) {
         final @Nullable Result result = results.get(resource);
         if(result == null) {
-            results.put(resource, new Result(resource, null, analysis));
+            results.put(new Result(resource, null, analysis));
         } else {
-            results.put(resource, new Result(resource, result.ast, analysis));
+            results.put(new Result(resource, result.ast, analysis));
         }
     }
 
+    void updateMessages(ResourceKey resource, KeyedMessages messages) {
+        results.putMessages(resource, messages);
+    }
+
     void removeResult(ResourceKey resource) {
         results.remove(resource);
     }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ConstraintAnalyzerContext other = (ConstraintAnalyzerContext)o;
+        return results.equals(other.results);
+    }
+
+    @Override public int hashCode() {
+        return results.hashCode();
+    }
+
+    @Override public String toString() {
+        return "ConstraintAnalyzerContext(" + results + ")";
+    }
 }
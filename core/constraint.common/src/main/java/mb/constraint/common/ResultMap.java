@@ -0,0 +1,189 @@
+package mb.constraint.common;
+
+import mb.common.message.KeyedMessages;
+import mb.constraint.common.ConstraintAnalyzer.Result;
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Constraint analysis results indexed by their resource, in insertion order. Each result can be accompanied by the
+ * messages of its resource, which the {@link ConstraintAnalyzerContext} uses to replay messages of cached results.
+ *
+ * Results are serialized as a sequence of results, and the index is rebuilt when deserializing, instead of serializing
+ * the internal structure of a hash map. Therefore, a deserialized result map is equal to the serialized one, even when
+ * the hash codes of resource keys differ between serialization and deserialization (e.g. in another JVM).
+ */
+public class ResultMap implements Iterable<Result>, Serializable {
+    private transient LinkedHashMap<ResourceKey, Entry> entries;
+
+
+    public ResultMap() {
+        this.entries = new LinkedHashMap<>();
+    }
+
+    public ResultMap(int initialCapacity) {
+        this.entries = new LinkedHashMap<>(initialCapacity);
+    }
+
+    public ResultMap(ResultMap other) {
+        this.entries = new LinkedHashMap<>(other.entries);
+    }
+
+    public ResultMap(Iterable<Result> results) {
+        this();
+        for(Result result : results) {
+            put(result);
+        }
+    }
+
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public boolean containsKey(ResourceKey resource) {
+        return entries.containsKey(resource);
+    }
+
+    public @Nullable Result get(ResourceKey resource) {
+        final @Nullable Entry entry = entries.get(resource);
+        return entry != null ? entry.result : null;
+    }
+
+    public Set<ResourceKey> keySet() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    public Collection<Result> values() {
+        return new AbstractCollection<Result>() {
+            @Override public Iterator<Result> iterator() {
+                final Iterator<Entry> iterator = entries.values().iterator();
+                return new Iterator<Result>() {
+                    @Override public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override public Result next() {
+                        return iterator.next().result;
+                    }
+                };
+            }
+
+            @Override public int size() {
+                return entries.size();
+            }
+        };
+    }
+
+    @Override public Iterator<Result> iterator() {
+        return values().iterator();
+    }
+
+
+    @Nullable KeyedMessages getMessages(ResourceKey resource) {
+        final @Nullable Entry entry = entries.get(resource);
+        return entry != null ? entry.messages : null;
+    }
+
+    /**
+     * Puts {@code result} into this map, replacing the result for the same resource if it exists, but keeping the
+     * messages of that resource.
+     */
+    void put(Result result) {
+        final @Nullable Entry entry = entries.get(result.resource);
+        entries.put(result.resource, new Entry(result, entry != null ? entry.messages : null));
+    }
+
+    /**
+     * Sets the messages of {@code resource}, which must have a result in this map.
+     */
+    void putMessages(ResourceKey resource, KeyedMessages messages) {
+        final @Nullable Entry entry = entries.get(resource);
+        if(entry == null) {
+            throw new RuntimeException("BUG: attempting to put messages for resource '" + resource + "', which has no result");
+        }
+        entries.put(resource, new Entry(entry.result, messages));
+    }
+
+    /**
+     * Removes the result and messages of {@code resource}.
+     */
+    void remove(ResourceKey resource) {
+        entries.remove(resource);
+    }
+
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(entries.size());
+        for(Entry entry : entries.values()) {
+            out.writeObject(entry.result);
+            out.writeObject(entry.messages);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int size = in.readInt();
+        entries = new LinkedHashMap<>(size);
+        for(int i = 0; i < size; ++i) {
+            final Result result = (Result)in.readObject();
+            final @Nullable KeyedMessages messages = (@Nullable KeyedMessages)in.readObject();
+            entries.put(result.resource, new Entry(result, messages));
+        }
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final ResultMap other = (ResultMap)o;
+        return entries.equals(other.entries);
+    }
+
+    @Override public int hashCode() {
+        return entries.hashCode();
+    }
+
+    @Override public String toString() {
+        return values().toString();
+    }
+
+
+    private static class Entry {
+        final Result result;
+        final @Nullable KeyedMessages messages;
+
+        Entry(Result result, @Nullable KeyedMessages messages) {
+            this.result = result;
+            this.messages = messages;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final Entry other = (Entry)o;
+            return result.equals(other.result) && Objects.equals(messages, other.messages);
+        }
+
+        @Override public int hashCode() {
+            return Objects.hash(result, messages);
+        }
+    }
+}
@@ -11,8 +11,6 @@ import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.jsglr.client.imploder.ImploderAttachment;
 import org.spoofax.terms.attachments.ParentAttachment;
 
-import java.util.ArrayList;
-
 public class ESVStyler {
     private final ESVStylingRules rules;
     private final Logger logger;
@@ -25,32 +23,29 @@ public class ESVStyler {
 
 
     public Styling style(Iterable<? extends Token<IStrategoTerm>> tokens) {
-        final ArrayList<TokenStyle> tokenStyles = new ArrayList<>();
+        final PackedStyling.Builder builder = new PackedStyling.Builder();
+        int offset = -1;
         for(Token<IStrategoTerm> token : tokens) {
             final @Nullable Style style = tokenStyle(token);
-            if(style != null) {
-                tokenStyles.add(new TokenStyleImpl(token, style));
+            if(style == null) {
+                continue;
             }
-        }
-        int offset = -1;
-        final ArrayList<TokenStyle> validated = new ArrayList<>();
-        for(TokenStyle tokenStyle : tokenStyles) {
-            final Region region = tokenStyle.getToken().getRegion();
+            final Region region = token.getRegion();
             if(offset >= region.getStartOffset()) {
-                logger.warn("Invalid {}, starting offset is greater than offset in previous regions, "
-                    + "token style will be skipped", tokenStyle);
+                logger.warn("Invalid {} with {}, starting offset is greater than offset in previous regions, "
+                    + "token style will be skipped", token, style);
             } else if(offset >= region.getEndOffsetInclusive()) {
-                logger.warn("Invalid {}, ending offset is greater than offset in previous regions, "
-                    + "token style will be skipped", tokenStyle);
+                logger.warn("Invalid {} with {}, ending offset is greater than offset in previous regions, "
+                    + "token style will be skipped", token, style);
             } else if(region.getStartOffset() > region.getEndOffsetInclusive()) {
-                logger.warn("Invalid {}, starting offset is greater than ending offset, "
-                    + "token style will be skipped", tokenStyle);
+                logger.warn("Invalid {} with {}, starting offset is greater than ending offset, "
+                    + "token style will be skipped", token, style);
             } else {
-                validated.add(tokenStyle);
+                builder.add(token, style);
                 offset = region.getEndOffsetInclusive();
             }
         }
-        return new StylingImpl(validated);
+        return builder.build();
     }
 
 
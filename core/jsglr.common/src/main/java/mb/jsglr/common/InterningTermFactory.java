@@ -0,0 +1,47 @@
+package mb.jsglr.common;
+
+import mb.common.util.WeakInterner;
+import org.spoofax.interpreter.terms.IStrategoConstructor;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.terms.TermFactory;
+
+/**
+ * Term factory that interns the values of string terms and the constructors of application terms, such that terms
+ * with equal strings or constructors share them, across all files parsed and analyzed with this factory. Interning is
+ * weak: interned values are garbage collected when no term refers to them any more.
+ *
+ * Term nodes themselves are not shared (hash-consed), since parsers and origin tracking term factories such as {@link
+ * org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory} attach origins to the terms they create, and sharing a
+ * term between multiple origins would lose all but one of them. Wrap this factory in an origin tracking factory to use
+ * it for parsing or Stratego runtimes, e.g.: {@code new ImploderOriginTermFactory(new InterningTermFactory())}.
+ *
+ * This factory is thread-safe, and may be shared between parsers and Stratego runtimes.
+ */
+public class InterningTermFactory extends TermFactory {
+    private final WeakInterner<String> strings = new WeakInterner<>();
+    private final WeakInterner<IStrategoConstructor> constructors = new WeakInterner<>();
+
+
+    @Override public IStrategoString makeString(String s) {
+        return super.makeString(internString(s));
+    }
+
+    @Override public IStrategoConstructor makeConstructor(String name, int arity) {
+        return constructors.intern(super.makeConstructor(internString(name), arity));
+    }
+
+
+    /**
+     * Gets the interned string equal to {@code s}, interning {@code s} if no equal string has been interned yet.
+     */
+    public String internString(String s) {
+        return strings.intern(s);
+    }
+
+    /**
+     * Gets the number of interned strings and constructors that have not been garbage collected yet.
+     */
+    public int getInternedCount() {
+        return strings.size() + constructors.size();
+    }
+}
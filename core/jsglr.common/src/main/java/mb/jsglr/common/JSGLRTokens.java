@@ -0,0 +1,169 @@
+package mb.jsglr.common;
+
+import mb.common.token.PackedTokens;
+import mb.common.token.Token;
+import mb.common.token.TokenType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.jsglr.client.imploder.IToken;
+import org.spoofax.jsglr.client.imploder.ITokens;
+import org.spoofax.jsglr.client.imploder.ImploderAttachment;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * Lazily extracted token stream of a parsed AST.
+ *
+ * Tokens are not extracted from the JSGLR tokenizer of the AST until they are first needed (or when this object is
+ * serialized), and are then stored as {@link PackedTokens}, along with the AST fragment of each token. {@link Token}
+ * objects are only created when iterating over the tokens, or when converting them into a list with {@link #toList()}.
+ *
+ * Token streams are compared without extracting their tokens when they were parsed from the same text by parsers with
+ * equal {@code parser} identities (e.g. the same parse table and options), as the tokens are then equal. Otherwise, for
+ * example for deserialized token streams, their tokens are extracted and compared.
+ */
+public class JSGLRTokens implements Iterable<Token<IStrategoTerm>>, Serializable {
+    private transient @Nullable IStrategoTerm ast;
+    private transient @Nullable Object parser;
+
+    private final String text;
+    private @Nullable PackedTokens<IStrategoTerm> tokens;
+
+
+    /**
+     * Creates a token stream for given {@code ast}, which must be the root of a tree created by the JSGLR imploder from
+     * {@code text} by a parser identified by {@code parser}. Tokens are extracted from the tokenizer of the AST when
+     * they are first needed.
+     */
+    public JSGLRTokens(IStrategoTerm ast, String text, @Nullable Object parser) {
+        this.ast = ast;
+        this.parser = parser;
+        this.text = text;
+    }
+
+    /**
+     * Creates a token stream for given {@code ast}, which must be the root of a tree created by the JSGLR imploder.
+     * Tokens are extracted from the tokenizer of the AST when they are first needed, or when they are compared.
+     */
+    public JSGLRTokens(IStrategoTerm ast) {
+        this(ast, ImploderAttachment.get(ast).getLeftToken().getTokenizer().getInput(), null);
+    }
+
+
+    /**
+     * Gets the extracted tokens, which can be passed on as-is to consumers of {@link PackedTokens}.
+     */
+    public PackedTokens<IStrategoTerm> getPackedTokens() {
+        return extract();
+    }
+
+    public int size() {
+        return extract().size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets the start offset (inclusive) of the token at {@code index}.
+     */
+    public int getStartOffset(int index) {
+        return extract().getStartOffset(index);
+    }
+
+    /**
+     * Gets the end offset (exclusive) of the token at {@code index}.
+     */
+    public int getEndOffset(int index) {
+        return extract().getEndOffset(index);
+    }
+
+    public TokenType getType(int index) {
+        return extract().getType(index);
+    }
+
+    public @Nullable IStrategoTerm getFragment(int index) {
+        return extract().getFragment(index);
+    }
+
+    /**
+     * Creates a token object for the token at {@code index}.
+     */
+    public Token<IStrategoTerm> get(int index) {
+        return extract().get(index);
+    }
+
+    /**
+     * Creates a list with a token object for every token.
+     */
+    public ArrayList<Token<IStrategoTerm>> toList() {
+        return extract().toList();
+    }
+
+    @Override public Iterator<Token<IStrategoTerm>> iterator() {
+        return extract().iterator();
+    }
+
+
+    private synchronized PackedTokens<IStrategoTerm> extract() {
+        if(tokens != null) return tokens;
+        if(ast == null) {
+            throw new RuntimeException("BUG: tokens have not been extracted, but there is no AST to extract them from");
+        }
+        final ImploderAttachment rootImploderAttachment = ImploderAttachment.get(ast);
+        final ITokens jsglrTokens = rootImploderAttachment.getLeftToken().getTokenizer();
+        final int tokenCount = jsglrTokens.getTokenCount();
+        final PackedTokens.Builder<IStrategoTerm> builder = new PackedTokens.Builder<>(true, tokenCount);
+        int offset = -1;
+        for(int i = 0; i < tokenCount; ++i) {
+            final IToken jsglrToken = jsglrTokens.getTokenAt(i);
+            if(jsglrTokens.isAmbiguous() && jsglrToken.getStartOffset() < offset) {
+                // In case of ambiguities, tokens inside the ambiguity are duplicated, ignore.
+                continue;
+            }
+            if(jsglrToken.getStartOffset() > jsglrToken.getEndOffset()) {
+                // Indicates an invalid region. Empty lists have regions like this.
+                continue;
+            }
+            if(offset >= jsglrToken.getStartOffset()) {
+                // Duplicate region, skip.
+                continue;
+            }
+            offset = jsglrToken.getEndOffset();
+            builder.add(jsglrToken.getStartOffset(), jsglrToken.getEndOffset() + 1, TokenUtil.convertTokenKind(jsglrToken.getKind()), (IStrategoTerm)jsglrToken.getAstNode());
+        }
+        final PackedTokens<IStrategoTerm> tokens = builder.build();
+        this.tokens = tokens;
+        this.ast = null; // Tokenizer is not needed any more, allow it to be garbage collected.
+        return tokens;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        extract(); // Force extraction, as the AST (and its tokenizer) is not serialized.
+        out.defaultWriteObject();
+    }
+
+
+    @Override public boolean equals(@Nullable Object obj) {
+        if(this == obj) return true;
+        if(obj == null || getClass() != obj.getClass()) return false;
+        final JSGLRTokens other = (JSGLRTokens)obj;
+        if(!text.equals(other.text)) return false;
+        // Same text parsed by the same parser results in the same tokens, which then do not need to be extracted.
+        if(parser != null && parser.equals(other.parser)) return true;
+        return extract().equals(other.extract());
+    }
+
+    @Override public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override public String toString() {
+        return "JSGLRTokens(" + size() + " tokens)";
+    }
+}
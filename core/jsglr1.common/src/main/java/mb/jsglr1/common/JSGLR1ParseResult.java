@@ -3,6 +3,7 @@ package mb.jsglr1.common;
 import mb.common.message.Messages;
 import mb.common.token.Token;
 import mb.common.util.ADT;
+import mb.jsglr.common.JSGLRTokens;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
@@ -13,18 +14,18 @@ import java.util.Optional;
 @ADT
 public abstract class JSGLR1ParseResult implements Serializable {
     public interface Cases<R> {
-        R success(IStrategoTerm ast, ArrayList<? extends Token<IStrategoTerm>> tokens, Messages messages);
+        R success(IStrategoTerm ast, JSGLRTokens tokens, Messages messages);
 
-        R recovered(IStrategoTerm ast, ArrayList<? extends Token<IStrategoTerm>> tokens, Messages messages);
+        R recovered(IStrategoTerm ast, JSGLRTokens tokens, Messages messages);
 
         R failed(Messages messages);
     }
 
-    public static JSGLR1ParseResult success(IStrategoTerm ast, ArrayList<? extends Token<IStrategoTerm>> tokens, Messages messages) {
+    public static JSGLR1ParseResult success(IStrategoTerm ast, JSGLRTokens tokens, Messages messages) {
         return JSGLR1ParseResults.success(ast, tokens, messages);
     }
 
-    public static JSGLR1ParseResult recovered(IStrategoTerm ast, ArrayList<? extends Token<IStrategoTerm>> tokens, Messages messages) {
+    public static JSGLR1ParseResult recovered(IStrategoTerm ast, JSGLRTokens tokens, Messages messages) {
         return JSGLR1ParseResults.recovered(ast, tokens, messages);
     }
 
@@ -43,7 +44,17 @@ public abstract class JSGLR1ParseResult implements Serializable {
         return JSGLR1ParseResults.getAst(this);
     }
 
+    /**
+     * Gets a list of token objects, created from the compact token stream of this result.
+     */
     public Optional<ArrayList<? extends Token<IStrategoTerm>>> getTokens() {
+        return JSGLR1ParseResults.getTokens(this).<ArrayList<? extends Token<IStrategoTerm>>>map(JSGLRTokens::toList);
+    }
+
+    /**
+     * Gets the compact token stream of this result, which does not create token objects until they are needed.
+     */
+    public Optional<JSGLRTokens> getTokenStream() {
         return JSGLR1ParseResults.getTokens(this);
     }
 
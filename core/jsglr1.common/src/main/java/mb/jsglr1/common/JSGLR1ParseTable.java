@@ -6,11 +6,20 @@ import org.spoofax.jsglr.client.InvalidParseTableException;
 import org.spoofax.jsglr.client.ParseTable;
 import org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory;
 import org.spoofax.terms.TermFactory;
+import org.spoofax.terms.io.binary.SAFWriter;
 import org.spoofax.terms.io.binary.TermReader;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class JSGLR1ParseTable implements Serializable {
     final ParseTable internalParseTable;
@@ -19,6 +28,7 @@ public class JSGLR1ParseTable implements Serializable {
         this.internalParseTable = parseTable;
     }
 
+
     public static JSGLR1ParseTable fromStream(InputStream parseTableStream) throws JSGLR1ParseTableException {
         final ITermFactory termFactory = new ImploderOriginTermFactory(new TermFactory());
         final TermReader reader = new TermReader(termFactory);
@@ -34,4 +44,99 @@ public class JSGLR1ParseTable implements Serializable {
     public static JSGLR1ParseTable fromParseTable(ParseTable parseTable) {
         return new JSGLR1ParseTable(parseTable);
     }
+
+
+    /**
+     * Loads a parse table from a binary parse table file, as written by {@link #writeBinary}. The file is memory mapped
+     * and decoded directly from the mapping, instead of being read into a buffer first.
+     *
+     * A binary parse table is the parse table term in the binary streaming ATerm (SAF) encoding, not a precompiled parse
+     * table: it is cheaper to decode than the textual format, but the parse table is still constructed from the decoded
+     * term. Loading is not deferred, such that an invalid parse table fails here instead of at the first parse.
+     */
+    public static JSGLR1ParseTable fromBinaryFile(Path file) throws JSGLR1ParseTableException {
+        final ByteBuffer buffer;
+        try(final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch(IOException e) {
+            throw new JSGLR1ParseTableException("Mapping binary parse table file '" + file + "' failed unexpectedly", e);
+        }
+        return fromBinaryStream(new ByteBufferInputStream(buffer));
+    }
+
+    /**
+     * Loads a parse table from a binary parse table stream, as written by {@link #writeBinary}. See {@link
+     * #fromBinaryFile} for what the binary format is.
+     */
+    public static JSGLR1ParseTable fromBinaryStream(InputStream binaryParseTableStream) throws JSGLR1ParseTableException {
+        final ITermFactory termFactory = new ImploderOriginTermFactory(new TermFactory());
+        final TermReader reader = new TermReader(termFactory);
+        try {
+            final IStrategoTerm parseTableTerm = reader.parseFromStream(binaryParseTableStream);
+            final ParseTable parseTable = new ParseTable(parseTableTerm, termFactory);
+            return new JSGLR1ParseTable(parseTable);
+        } catch(IOException | InvalidParseTableException e) {
+            throw new JSGLR1ParseTableException("Loading binary parse table failed unexpectedly", e);
+        }
+    }
+
+    /**
+     * Loads a parse table from a binary parse table at given URL, as written by {@link #writeBinary}. When the URL
+     * points to a local file, it is memory mapped with {@link #fromBinaryFile}, otherwise it is read with {@link
+     * #fromBinaryStream}.
+     */
+    public static JSGLR1ParseTable fromBinaryUrl(URL url) throws JSGLR1ParseTableException {
+        if("file".equals(url.getProtocol())) {
+            try {
+                return fromBinaryFile(Paths.get(url.toURI()));
+            } catch(URISyntaxException e) {
+                throw new JSGLR1ParseTableException("Converting binary parse table URL '" + url + "' to a file path failed unexpectedly", e);
+            }
+        }
+        try(final InputStream inputStream = url.openStream()) {
+            return fromBinaryStream(inputStream);
+        } catch(IOException e) {
+            throw new JSGLR1ParseTableException("Reading binary parse table from URL '" + url + "' failed unexpectedly", e);
+        }
+    }
+
+    /**
+     * Converts a parse table in the textual ATerm format (i.e., an {@code sdf.tbl} file) from given stream into the
+     * binary streaming ATerm (SAF) format, and writes it to given output stream.
+     */
+    public static void writeBinary(InputStream parseTableStream, OutputStream binaryParseTableStream) throws JSGLR1ParseTableException {
+        final TermReader reader = new TermReader(new TermFactory());
+        try {
+            final IStrategoTerm parseTableTerm = reader.parseFromStream(parseTableStream);
+            SAFWriter.writeTermToSAFStream(parseTableTerm, binaryParseTableStream);
+        } catch(IOException e) {
+            throw new JSGLR1ParseTableException("Writing binary parse table failed unexpectedly", e);
+        }
+    }
+
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override public int read() {
+            if(!buffer.hasRemaining()) return -1;
+            return buffer.get() & 0xFF;
+        }
+
+        @Override public int read(byte[] bytes, int offset, int length) {
+            if(length == 0) return 0;
+            if(!buffer.hasRemaining()) return -1;
+            final int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override public int available() {
+            return buffer.remaining();
+        }
+    }
 }
@@ -1,7 +1,7 @@
 package mb.jsglr1.common;
 
 import mb.common.message.Messages;
-import mb.common.token.Token;
+import mb.jsglr.common.JSGLRTokens;
 import mb.jsglr.common.ResourceKeyAttachment;
 import mb.jsglr.common.TokenUtil;
 import mb.resource.ResourceKey;
@@ -9,6 +9,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.interpreter.terms.ITermFactory;
 import org.spoofax.jsglr.client.Disambiguator;
+import org.spoofax.jsglr.client.ParseTimeoutException;
 import org.spoofax.jsglr.client.SGLRParseResult;
 import org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory;
 import org.spoofax.jsglr.client.imploder.NullTokenizer;
@@ -19,30 +20,53 @@ import org.spoofax.jsglr.shared.SGLRException;
 import org.spoofax.terms.TermFactory;
 import org.spoofax.terms.attachments.ParentTermFactory;
 
-import java.util.ArrayList;
-
 public class JSGLR1Parser {
     private final SGLR parser;
+    private final JSGLR1ParserOptions options;
+    private final JSGLR1ParserMetrics metrics;
+    private final Identity identity;
 
     public JSGLR1Parser(JSGLR1ParseTable parseTable) {
-        this(parseTable, new ImploderOriginTermFactory(new TermFactory()));
+        this(parseTable, JSGLR1ParserOptions.defaults(), new JSGLR1ParserMetrics());
+    }
+
+    public JSGLR1Parser(JSGLR1ParseTable parseTable, JSGLR1ParserOptions options, JSGLR1ParserMetrics metrics) {
+        this(parseTable, new ImploderOriginTermFactory(new TermFactory()), options, metrics);
     }
 
     public JSGLR1Parser(JSGLR1ParseTable parseTable, ITermFactory termFactory) {
+        this(parseTable, termFactory, JSGLR1ParserOptions.defaults(), new JSGLR1ParserMetrics());
+    }
+
+    public JSGLR1Parser(JSGLR1ParseTable parseTable, ITermFactory termFactory, JSGLR1ParserOptions options, JSGLR1ParserMetrics metrics) {
         final TermTreeFactory treeFactory = new TermTreeFactory(new ParentTermFactory(termFactory));
         final TreeBuilder treeBuilder = new TreeBuilder(treeFactory);
 
         this.parser = new SGLR(treeBuilder, parseTable.internalParseTable);
-        this.parser.setUseStructureRecovery(true);
-        this.parser.setTimeout(5000);
-        this.parser.setDisambiguatorTimeout(5000);
+        this.parser.setUseStructureRecovery(options.recovery);
+        this.parser.setTimeout(options.timeout);
+        this.parser.setDisambiguatorTimeout(options.disambiguatorTimeout);
         this.parser.setApplyCompletionProd(false);
         this.parser.setNewCompletionMode(false);
 
         final Disambiguator disambiguator = parser.getDisambiguator();
-        disambiguator.setHeuristicFilters(false);
+        disambiguator.setHeuristicFilters(options.heuristicFilters);
+
+        this.options = options;
+        this.metrics = metrics;
+        this.identity = new Identity(parseTable, options);
+    }
+
+
+    public JSGLR1ParserOptions getOptions() {
+        return options;
+    }
+
+    public JSGLR1ParserMetrics getMetrics() {
+        return metrics;
     }
 
+
     public JSGLR1ParseResult parse(String text, String startSymbol) throws InterruptedException {
         return parse(text, startSymbol, null);
     }
@@ -60,21 +84,50 @@ public class JSGLR1Parser {
             if(resource != null) {
                 ResourceKeyAttachment.setResourceKey(ast, resource);
             }
-            final ArrayList<Token<IStrategoTerm>> tokenStream = TokenUtil.extract(ast);
+            final JSGLRTokens tokenStream = TokenUtil.extractLazily(ast, text, identity);
             final MessagesUtil messagesUtil = new MessagesUtil(true, false, parser.getCollectedErrors());
             messagesUtil.gatherNonFatalErrors(ast);
             final Messages messages = messagesUtil.getMessages();
             final boolean recovered = messages.containsError();
             if(recovered) {
+                metrics.recordRecovered();
                 return JSGLR1ParseResults.recovered(ast, tokenStream, messages);
             } else {
+                metrics.recordSuccess();
                 return JSGLR1ParseResults.success(ast, tokenStream, messages);
             }
         } catch(SGLRException e) {
+            metrics.recordFailed(e instanceof ParseTimeoutException);
             final MessagesUtil messagesUtil = new MessagesUtil(true, true, parser.getCollectedErrors());
             messagesUtil.processFatalException(new NullTokenizer(text, null), e);
             final Messages messages = messagesUtil.getMessages();
             return JSGLR1ParseResults.failed(messages);
         }
     }
+
+
+    /**
+     * Identifies the tokens that a parser produces: parsers with the same parse table and options produce the same
+     * tokens for the same text, such that their token streams can be compared without extracting them.
+     */
+    private static final class Identity {
+        private final JSGLR1ParseTable parseTable;
+        private final JSGLR1ParserOptions options;
+
+        Identity(JSGLR1ParseTable parseTable, JSGLR1ParserOptions options) {
+            this.parseTable = parseTable;
+            this.options = options;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final Identity other = (Identity)o;
+            return parseTable == other.parseTable && options.equals(other.options);
+        }
+
+        @Override public int hashCode() {
+            return 31 * System.identityHashCode(parseTable) + options.hashCode();
+        }
+    }
 }
@@ -0,0 +1,63 @@
+package mb.jsglr1.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe counters of parse outcomes, shared by the parsers of a {@link JSGLR1ParserPool}. Used to determine how
+ * often error recovery and timeouts fire under given {@link JSGLR1ParserOptions}.
+ */
+public class JSGLR1ParserMetrics {
+    private final AtomicLong parses = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+
+    /** Gets the number of parses. */
+    public long getParses() {
+        return parses.get();
+    }
+
+    /** Gets the number of parses that succeeded only by recovering from parse errors. */
+    public long getRecovered() {
+        return recovered.get();
+    }
+
+    /** Gets the number of parses that failed, including parses that timed out. */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /** Gets the number of parses that failed because parsing or disambiguation timed out. */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+
+    void recordSuccess() {
+        parses.incrementAndGet();
+    }
+
+    void recordRecovered() {
+        parses.incrementAndGet();
+        recovered.incrementAndGet();
+    }
+
+    void recordFailed(boolean timeout) {
+        parses.incrementAndGet();
+        failed.incrementAndGet();
+        if(timeout) {
+            timeouts.incrementAndGet();
+        }
+    }
+
+
+    @Override public String toString() {
+        return "JSGLR1ParserMetrics{" +
+            "parses=" + parses +
+            ", recovered=" + recovered +
+            ", failed=" + failed +
+            ", timeouts=" + timeouts +
+            '}';
+    }
+}
@@ -0,0 +1,103 @@
+package mb.jsglr1.common;
+
+import java.io.Serializable;
+
+/**
+ * Options for {@link JSGLR1Parser}, trading off parse result quality against latency and throughput.
+ */
+public class JSGLR1ParserOptions implements Serializable {
+    private static final JSGLR1ParserOptions defaults = new JSGLR1ParserOptions(true, 5000, 5000, false);
+    private static final JSGLR1ParserOptions editor = new JSGLR1ParserOptions(true, 1000, 1000, false);
+    private static final JSGLR1ParserOptions batch = new JSGLR1ParserOptions(false, 2000, 2000, false);
+
+    /** Whether to recover from parse errors, producing a (partial) AST for texts with syntax errors. */
+    public final boolean recovery;
+    /** Timeout of parsing in milliseconds, or 0 for no timeout. */
+    public final int timeout;
+    /** Timeout of disambiguation in milliseconds, or 0 for no timeout. */
+    public final int disambiguatorTimeout;
+    /** Whether to apply heuristic disambiguation filters. */
+    public final boolean heuristicFilters;
+
+
+    public JSGLR1ParserOptions(boolean recovery, int timeout, int disambiguatorTimeout, boolean heuristicFilters) {
+        if(timeout < 0) {
+            throw new IllegalArgumentException("Parse timeout must be 0 or larger, got " + timeout);
+        }
+        if(disambiguatorTimeout < 0) {
+            throw new IllegalArgumentException("Disambiguator timeout must be 0 or larger, got " + disambiguatorTimeout);
+        }
+        this.recovery = recovery;
+        this.timeout = timeout;
+        this.disambiguatorTimeout = disambiguatorTimeout;
+        this.heuristicFilters = heuristicFilters;
+    }
+
+    /**
+     * Default options: recovery enabled, 5 second parse and disambiguation timeouts, and heuristic filters disabled.
+     */
+    public static JSGLR1ParserOptions defaults() {
+        return defaults;
+    }
+
+    /**
+     * Options for interactive use in editors: recovery enabled, such that editor services keep working in the presence
+     * of syntax errors, but with 1 second timeouts to bound latency.
+     */
+    public static JSGLR1ParserOptions editor() {
+        return editor;
+    }
+
+    /**
+     * Options for batch use (e.g., in command-line interfaces and builds): recovery disabled and 2 second timeouts, for
+     * throughput.
+     */
+    public static JSGLR1ParserOptions batch() {
+        return batch;
+    }
+
+
+    public JSGLR1ParserOptions withRecovery(boolean recovery) {
+        return new JSGLR1ParserOptions(recovery, timeout, disambiguatorTimeout, heuristicFilters);
+    }
+
+    public JSGLR1ParserOptions withTimeout(int timeout) {
+        return new JSGLR1ParserOptions(recovery, timeout, disambiguatorTimeout, heuristicFilters);
+    }
+
+    public JSGLR1ParserOptions withDisambiguatorTimeout(int disambiguatorTimeout) {
+        return new JSGLR1ParserOptions(recovery, timeout, disambiguatorTimeout, heuristicFilters);
+    }
+
+    public JSGLR1ParserOptions withHeuristicFilters(boolean heuristicFilters) {
+        return new JSGLR1ParserOptions(recovery, timeout, disambiguatorTimeout, heuristicFilters);
+    }
+
+
+    @Override public boolean equals(Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        final JSGLR1ParserOptions that = (JSGLR1ParserOptions)o;
+        return recovery == that.recovery &&
+            timeout == that.timeout &&
+            disambiguatorTimeout == that.disambiguatorTimeout &&
+            heuristicFilters == that.heuristicFilters;
+    }
+
+    @Override public int hashCode() {
+        int result = (recovery ? 1 : 0);
+        result = 31 * result + timeout;
+        result = 31 * result + disambiguatorTimeout;
+        result = 31 * result + (heuristicFilters ? 1 : 0);
+        return result;
+    }
+
+    @Override public String toString() {
+        return "JSGLR1ParserOptions{" +
+            "recovery=" + recovery +
+            ", timeout=" + timeout +
+            ", disambiguatorTimeout=" + disambiguatorTimeout +
+            ", heuristicFilters=" + heuristicFilters +
+            '}';
+    }
+}
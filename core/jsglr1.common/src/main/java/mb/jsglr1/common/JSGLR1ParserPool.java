@@ -0,0 +1,199 @@
+package mb.jsglr1.common;
+
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.ITermFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of {@link JSGLR1Parser} instances for a single parse table. A {@link JSGLR1Parser} has state and may
+ * only be used by one thread at a time, but is expensive to construct. This pool hands out parsers for exclusive use
+ * and takes them back afterwards, such that parsers (and their internal state) are reused across parses and threads.
+ *
+ * At most {@code maxSize} idle parsers are kept in the pool; when the pool is empty, a new parser is created, and when
+ * the pool is full, returned parsers are discarded. When thread affinity is enabled, each thread additionally keeps
+ * hold of the last parser it returned, and gets that parser back on its next checkout without synchronization.
+ */
+public class JSGLR1ParserPool {
+    private final JSGLR1ParseTable parseTable;
+    private final JSGLR1ParserOptions options;
+    private final JSGLR1ParserMetrics metrics;
+    private final @Nullable ITermFactory termFactory;
+    private final int maxSize;
+    private final @Nullable ThreadLocal<@Nullable JSGLR1Parser> threadParser;
+
+    private final ArrayDeque<JSGLR1Parser> idleParsers;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong checkedOut = new AtomicLong();
+
+
+    /**
+     * @param termFactory Term factory that all parsers of this pool create terms with, which must be thread-safe, or
+     *                    {@code null} to create a default term factory per parser.
+     */
+    public JSGLR1ParserPool(JSGLR1ParseTable parseTable, JSGLR1ParserOptions options, int maxSize, boolean threadAffinity, @Nullable ITermFactory termFactory) {
+        if(maxSize < 0) {
+            throw new IllegalArgumentException("Maximum size of parser pool must be 0 or larger, got " + maxSize);
+        }
+        this.parseTable = parseTable;
+        this.options = options;
+        this.metrics = new JSGLR1ParserMetrics();
+        this.termFactory = termFactory;
+        this.maxSize = maxSize;
+        this.threadParser = threadAffinity ? new ThreadLocal<>() : null;
+        this.idleParsers = new ArrayDeque<>(maxSize);
+    }
+
+    public JSGLR1ParserPool(JSGLR1ParseTable parseTable, JSGLR1ParserOptions options, int maxSize, boolean threadAffinity) {
+        this(parseTable, options, maxSize, threadAffinity, null);
+    }
+
+    public JSGLR1ParserPool(JSGLR1ParseTable parseTable, JSGLR1ParserOptions options, int maxSize) {
+        this(parseTable, options, maxSize, false);
+    }
+
+    public JSGLR1ParserPool(JSGLR1ParseTable parseTable, JSGLR1ParserOptions options) {
+        this(parseTable, options, Runtime.getRuntime().availableProcessors());
+    }
+
+    public JSGLR1ParserPool(JSGLR1ParseTable parseTable, int maxSize, boolean threadAffinity) {
+        this(parseTable, JSGLR1ParserOptions.defaults(), maxSize, threadAffinity);
+    }
+
+    public JSGLR1ParserPool(JSGLR1ParseTable parseTable, int maxSize) {
+        this(parseTable, maxSize, false);
+    }
+
+    public JSGLR1ParserPool(JSGLR1ParseTable parseTable) {
+        this(parseTable, Runtime.getRuntime().availableProcessors());
+    }
+
+
+    /**
+     * Checks out a parser from the pool, creating a new one if the pool is empty. The caller has exclusive use of the
+     * returned parser, and must return it with {@link #checkin(JSGLR1Parser)} when done.
+     */
+    public JSGLR1Parser checkout() {
+        checkedOut.incrementAndGet();
+        if(threadParser != null) {
+            final @Nullable JSGLR1Parser parser = threadParser.get();
+            if(parser != null) {
+                threadParser.set(null);
+                reused.incrementAndGet();
+                return parser;
+            }
+        }
+        final @Nullable JSGLR1Parser parser;
+        synchronized(idleParsers) {
+            parser = idleParsers.pollFirst();
+        }
+        if(parser != null) {
+            reused.incrementAndGet();
+            return parser;
+        }
+        created.incrementAndGet();
+        return createParser();
+    }
+
+    /**
+     * Returns a parser that was checked out with {@link #checkout()} to the pool. The parser may not be used by the
+     * caller after returning it.
+     */
+    public void checkin(JSGLR1Parser parser) {
+        checkedOut.decrementAndGet();
+        if(threadParser != null && threadParser.get() == null) {
+            threadParser.set(parser);
+            return;
+        }
+        synchronized(idleParsers) {
+            if(idleParsers.size() < maxSize) {
+                idleParsers.addFirst(parser);
+                return;
+            }
+        }
+        discarded.incrementAndGet();
+    }
+
+
+    public JSGLR1ParseResult parse(String text, String startSymbol) throws InterruptedException {
+        return parse(text, startSymbol, null);
+    }
+
+    public JSGLR1ParseResult parse(String text, String startSymbol, @Nullable ResourceKey resource) throws InterruptedException {
+        final JSGLR1Parser parser = checkout();
+        try {
+            return parser.parse(text, startSymbol, resource);
+        } finally {
+            checkin(parser);
+        }
+    }
+
+
+    public JSGLR1ParserOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Gets the metrics of parses performed by parsers of this pool.
+     */
+    public JSGLR1ParserMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Stats getStats() {
+        final int idle;
+        synchronized(idleParsers) {
+            idle = idleParsers.size();
+        }
+        return new Stats(created.get(), reused.get(), discarded.get(), checkedOut.get(), idle);
+    }
+
+
+    protected JSGLR1Parser createParser() {
+        if(termFactory != null) {
+            return new JSGLR1Parser(parseTable, termFactory, options, metrics);
+        }
+        return new JSGLR1Parser(parseTable, options, metrics);
+    }
+
+
+    public static class Stats {
+        /** Number of parsers created because no idle parser was available. */
+        public final long created;
+        /** Number of checkouts that were served by an idle parser. */
+        public final long reused;
+        /** Number of returned parsers that were discarded because the pool was full. */
+        public final long discarded;
+        /** Number of parsers currently checked out. */
+        public final long checkedOut;
+        /** Number of idle parsers in the shared pool, excluding parsers held by threads. */
+        public final int idle;
+
+        public Stats(long created, long reused, long discarded, long checkedOut, int idle) {
+            this.created = created;
+            this.reused = reused;
+            this.discarded = discarded;
+            this.checkedOut = checkedOut;
+            this.idle = idle;
+        }
+
+        @Override public String toString() {
+            return "Stats{" +
+                "created=" + created +
+                ", reused=" + reused +
+                ", discarded=" + discarded +
+                ", checkedOut=" + checkedOut +
+                ", idle=" + idle +
+                '}';
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package mb.jsglr1.common;
 
 import mb.common.message.Message;
+import mb.common.message.MessageTextPool;
 import mb.common.message.Messages;
 import mb.common.message.MessagesBuilder;
 import mb.common.message.Severity;
@@ -35,7 +36,7 @@ class MessagesUtil {
     private final boolean recoveryFailed;
     private final Set<BadTokenException> parseErrors;
 
-    private final MessagesBuilder messagesBuilder = new MessagesBuilder();
+    private final MessagesBuilder messagesBuilder = new MessagesBuilder(MessageTextPool.shared(), false);
 
 
     MessagesUtil(boolean recoveryEnabled, boolean recoveryFailed, Set<BadTokenException> parseErrors) {
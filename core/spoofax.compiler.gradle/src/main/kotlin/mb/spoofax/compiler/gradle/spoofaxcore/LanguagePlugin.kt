@@ -4,6 +4,7 @@ package mb.spoofax.compiler.gradle.spoofaxcore
 
 import mb.resource.ResourceRuntimeException
 import mb.resource.ResourceService
+import mb.resource.fs.FSPath
 import mb.spoofax.compiler.spoofaxcore.*
 import mb.spoofax.compiler.util.GradleProject
 import org.gradle.api.GradleException
@@ -112,6 +113,9 @@ open class LanguagePlugin : Plugin<Project> {
     }
     configureCompilerTask(project, input, compiler, resourceService)
     configureCopySpoofaxLanguageTasks(project, input, compiler)
+    if(input.parser().binaryTable()) {
+      configureBinaryParseTableTasks(project, input, compilerExtension.parserCompiler, resourceService)
+    }
   }
 
   private fun configureCompilerTask(
@@ -207,6 +211,38 @@ open class LanguagePlugin : Plugin<Project> {
     project.tasks.getByName(JavaPlugin.TEST_CLASSES_TASK_NAME).dependsOn(copyTestTask)
   }
 
+  private fun configureBinaryParseTableTasks(
+    project: Project,
+    input: LanguageProjectCompiler.Input,
+    parserCompiler: ParserCompiler,
+    resourceService: ResourceService
+  ) {
+    val parserInput = input.parser()
+    // Convert the parse table from the unpacked language into a separate directory, which is copied along with the other resources.
+    val unpackSpoofaxLanguageDir = "${project.buildDir}/unpackedSpoofaxLanguage/"
+    val binaryParseTableDir = "${project.buildDir}/binaryParseTable/"
+    val tableSourceFile = project.file("$unpackSpoofaxLanguageDir/${parserInput.tableSourceRelPath()}")
+    val binaryTableTargetFile = project.file("$binaryParseTableDir/${parserInput.binaryTableTargetRelPath()}")
+    val compileBinaryParseTableTask = project.tasks.register("spoofaxCompileBinaryParseTable") {
+      group = "spoofax compiler"
+      dependsOn("unpackSpoofaxLanguage")
+      inputs.file(tableSourceFile)
+      outputs.file(binaryTableTargetFile)
+      doLast {
+        val tableSource = resourceService.getHierarchicalResource(FSPath(tableSourceFile.toPath()))
+        val binaryTableTarget = resourceService.getHierarchicalResource(FSPath(binaryTableTargetFile.toPath()))
+        binaryTableTarget.createParents()
+        parserCompiler.compileBinaryParseTable(tableSource, binaryTableTarget)
+      }
+    }
+    val binaryParseTableFiles = project.files(binaryParseTableDir).builtBy(compileBinaryParseTableTask)
+    for(taskName in listOf("copyMainResources", "copyTestResources")) {
+      project.tasks.named<Copy>(taskName) {
+        into(".") { from(binaryParseTableFiles) }
+      }
+    }
+  }
+
   private fun configureSpoofaxLanguageDependency(dependency: ModuleDependency): Dependency {
     dependency.targetConfiguration = Dependency.DEFAULT_CONFIGURATION
     dependency.isTransitive = false // Don't care about transitive dependencies, just want the '.spoofax-language' artifact.
@@ -1,6 +1,8 @@
 package mb.spoofax.compiler.interfaces.spoofaxcore;
 
 import mb.jsglr1.common.JSGLR1ParseResult;
+import mb.jsglr1.common.JSGLR1ParserMetrics;
+import mb.jsglr1.common.JSGLR1ParserOptions;
 import mb.resource.ResourceKey;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -10,4 +12,8 @@ public interface Parser {
     }
 
     JSGLR1ParseResult parse(String text, String startSymbol, @Nullable ResourceKey resource) throws InterruptedException;
+
+    JSGLR1ParserOptions getOptions();
+
+    JSGLR1ParserMetrics getMetrics();
 }
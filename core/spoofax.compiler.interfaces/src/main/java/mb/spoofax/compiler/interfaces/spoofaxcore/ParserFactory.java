@@ -1,5 +1,15 @@
 package mb.spoofax.compiler.interfaces.spoofaxcore;
 
+import mb.jsglr1.common.JSGLR1ParserOptions;
+
 public interface ParserFactory {
+    /**
+     * Creates a parser with the default options of the language.
+     */
     Parser create();
+
+    /**
+     * Creates a parser with given {@code options}, for example {@link JSGLR1ParserOptions#batch()} for batch use.
+     */
+    Parser create(JSGLR1ParserOptions options);
 }
@@ -18,6 +18,7 @@ dependencies {
 
   api(project(":common"))
   api(project(":spoofax.core"))
+  implementation(project(":jsglr1.common"))
 
   api("com.samskivert:jmustache:1.15")
 
@@ -1,6 +1,11 @@
 package mb.spoofax.compiler.spoofaxcore;
 
 import mb.common.util.ListView;
+import mb.jsglr1.common.JSGLR1ParseTable;
+import mb.jsglr1.common.JSGLR1ParseTableException;
+import mb.jsglr1.common.JSGLR1ParserOptions;
+import mb.resource.ReadableResource;
+import mb.resource.WritableResource;
 import mb.resource.hierarchical.HierarchicalResource;
 import mb.resource.hierarchical.ResourcePath;
 import mb.spoofax.compiler.util.ClassKind;
@@ -11,6 +16,8 @@ import mb.spoofax.compiler.util.TypeInfo;
 import org.immutables.value.Value;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
@@ -56,6 +63,19 @@ public class ParserCompiler {
         return outputBuilder.build();
     }
 
+    /**
+     * Converts the textual parse table {@code tableSource} (located at {@link LanguageProjectInput#tableSourceRelPath()}
+     * in the language specification) into the binary parse table format, writing it to {@code binaryTableTarget} (which
+     * should end up at {@link LanguageProjectInput#binaryTableTargetRelPath()} in the classpath).
+     */
+    public void compileBinaryParseTable(ReadableResource tableSource, WritableResource binaryTableTarget) throws IOException {
+        try(final InputStream inputStream = tableSource.openRead(); final OutputStream outputStream = binaryTableTarget.openWrite()) {
+            JSGLR1ParseTable.writeBinary(inputStream, outputStream);
+        } catch(JSGLR1ParseTableException e) {
+            throw new IOException("Converting parse table '" + tableSource + "' into binary parse table '" + binaryTableTarget + "' failed", e);
+        }
+    }
+
     // Adapter project
 
     public Output compileAdapterProject(AdapterProjectInput input) throws IOException {
@@ -82,6 +102,12 @@ public class ParserCompiler {
 
         String startSymbol();
 
+        /// Options of parsers created by the parser factory when no options are given
+
+        @Value.Default default JSGLR1ParserOptions parserOptions() {
+            return JSGLR1ParserOptions.defaults();
+        }
+
 
         /// Parse table source file (to copy from), and destination file
 
@@ -93,6 +119,16 @@ public class ParserCompiler {
             return languageProject().packagePath() + "/" + tableSourceRelPath();
         }
 
+        /// Whether to additionally produce a binary parse table at language build time, and load that instead
+
+        @Value.Default default boolean binaryTable() {
+            return false;
+        }
+
+        @Value.Default default String binaryTableTargetRelPath() {
+            return tableTargetRelPath() + ".bin";
+        }
+
 
         /// Kinds of classes (generated/extended/manual)
 
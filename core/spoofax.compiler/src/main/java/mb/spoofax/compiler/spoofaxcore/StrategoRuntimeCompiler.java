@@ -96,6 +96,14 @@ public class StrategoRuntimeCompiler {
 
         boolean enableStatix();
 
+        /**
+         * Whether the Spoofax 2 resource primitives, which are added when Statix is enabled, load imported resources
+         * concurrently on the common fork-join pool, instead of one at a time.
+         */
+        @Value.Default default boolean loadResourcesConcurrently() {
+            return false;
+        }
+
 
         /// Whether to copy certain files from the Spoofax 2.x project.
 
@@ -177,9 +185,36 @@ public class StrategoRuntimeCompiler {
         }
 
 
+        /// Configuration
+
+        /**
+         * Maximum number of Stratego runtimes in the runtime pool, or 0 to use the number of available processors.
+         */
+        @Value.Default default int poolMaxSize() {
+            return 0;
+        }
+
+        /**
+         * Maximum time in milliseconds to wait for a runtime from the runtime pool, or 0 to wait indefinitely.
+         */
+        @Value.Default default long poolLeaseTimeoutMillis() {
+            return 0;
+        }
+
+
         /// Automatically provided sub-inputs
 
         LanguageProjectInput languageProjectInput();
+
+
+        @Value.Check default void check() {
+            if(poolMaxSize() < 0) {
+                throw new IllegalArgumentException("Stratego runtime pool maximum size must be 0 or larger, got " + poolMaxSize());
+            }
+            if(poolLeaseTimeoutMillis() < 0) {
+                throw new IllegalArgumentException("Stratego runtime pool lease timeout must be 0 or larger, got " + poolLeaseTimeoutMillis());
+            }
+        }
     }
 
     @Value.Immutable
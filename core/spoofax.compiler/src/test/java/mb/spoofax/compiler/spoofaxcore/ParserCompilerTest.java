@@ -1,14 +1,23 @@
 package mb.spoofax.compiler.spoofaxcore;
 
 import mb.resource.fs.FSPath;
+import mb.resource.hierarchical.HierarchicalResource;
+import mb.resource.hierarchical.ResourcePath;
 import mb.spoofax.compiler.spoofaxcore.tiger.TigerInputs;
+import mb.spoofax.compiler.spoofaxcore.util.FileAssertion;
 import mb.spoofax.compiler.util.ClassKind;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.TermFactory;
+import org.spoofax.terms.io.binary.TermReader;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class ParserCompilerTest extends TestBase {
@@ -34,6 +43,34 @@ class ParserCompilerTest extends TestBase {
         });
     }
 
+    @Test void testCompilerBinaryTable() throws IOException {
+        final FSPath baseDirectory = new FSPath(fileSystem.getPath("repo"));
+        final Shared shared = TigerInputs.shared(baseDirectory).build();
+        final LanguageProject languageProject = TigerInputs.languageProject(shared).build();
+
+        final ParserCompiler.LanguageProjectInput languageProjectInput = TigerInputs.parserLanguageProjectInput(shared, languageProject)
+            .binaryTable(true)
+            .build();
+        parserCompiler.compileLanguageProject(languageProjectInput);
+        fileAssertions.scopedExists(languageProjectInput.classesGenDirectory(), (s) -> {
+            s.assertPublicJavaClass(languageProjectInput.genTable(), "TigerParseTable");
+            s.asserts(languageProjectInput.genTable(), (a) -> a.assertContains(languageProjectInput.binaryTableTargetRelPath()));
+        });
+
+        // Binary table is produced from the textual table, and decodes back into the same parse table term.
+        final String table = "parse-table(6, 0, [], states([state(0, [], [action([256], [accept])])]), priorities([]))";
+        final HierarchicalResource tableSource = resourceService.getHierarchicalResource(languageProject.project().baseDirectory().appendRelativePath(languageProjectInput.tableSourceRelPath())).createParents();
+        tableSource.writeBytes(table.getBytes(StandardCharsets.UTF_8));
+        final ResourcePath binaryTableTargetPath = languageProject.project().genSourceSpoofaxResourcesDirectory().appendRelativePath(languageProjectInput.binaryTableTargetRelPath());
+        final HierarchicalResource binaryTableTarget = resourceService.getHierarchicalResource(binaryTableTargetPath).createParents();
+        parserCompiler.compileBinaryParseTable(tableSource, binaryTableTarget);
+        fileAssertions.asserts(binaryTableTargetPath, FileAssertion::assertExists);
+        final ITermFactory termFactory = new TermFactory();
+        try(final InputStream inputStream = binaryTableTarget.openRead()) {
+            assertEquals(termFactory.parseFromString(table), new TermReader(termFactory).parseFromStream(inputStream));
+        }
+    }
+
     @Test void testCompilerManual() throws IOException {
         final FSPath baseDirectory = new FSPath(fileSystem.getPath("repo"));
         final Shared shared = TigerInputs.shared(baseDirectory).build();
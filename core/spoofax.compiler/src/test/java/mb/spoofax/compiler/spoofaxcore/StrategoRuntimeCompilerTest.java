@@ -3,6 +3,8 @@ package mb.spoofax.compiler.spoofaxcore;
 import mb.resource.fs.FSPath;
 import mb.spoofax.compiler.spoofaxcore.tiger.TigerInputs;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.IOException;
 
@@ -18,4 +20,25 @@ class StrategoRuntimeCompilerTest extends TestBase {
             s.assertPublicJavaClass(input.genFactory(), "TigerStrategoRuntimeBuilderFactory");
         });
     }
+
+    @ParameterizedTest @ValueSource(booleans = {true, false})
+    void testCompilerLoadResourcesConcurrently(boolean loadResourcesConcurrently) throws IOException {
+        final FSPath baseDirectory = new FSPath(fileSystem.getPath("repo"));
+        final Shared shared = TigerInputs.shared(baseDirectory).build();
+        final LanguageProject languageProject = TigerInputs.languageProject(shared).build();
+        final StrategoRuntimeCompiler.LanguageProjectInput input = TigerInputs.strategoRuntimeLanguageProjectInput(shared, languageProject)
+            .enableStatix(true)
+            .loadResourcesConcurrently(loadResourcesConcurrently)
+            .build();
+
+        strategoRuntimeCompiler.compileLanguageProject(input);
+        fileAssertions.scopedExists(input.classesGenDirectory(), (s) -> {
+            s.assertPublicJavaClass(input.genFactory(), "TigerStrategoRuntimeBuilderFactory");
+            s.asserts(input.genFactory(), (a) -> {
+                // Default constructor passes the common pool as executor only when loading resources concurrently.
+                a.assertContains(loadResourcesConcurrently ? "this(ForkJoinPool.commonPool());" : "this(null);");
+                a.assertContains("new mb.spoofax2.common.primitive.Spoofax2PrimitiveLibrary(loggerFactory, resourceService, resourceLoadExecutor)");
+            });
+        });
+    }
 }
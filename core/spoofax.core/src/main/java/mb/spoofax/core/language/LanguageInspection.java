@@ -1,6 +1,7 @@
 package mb.spoofax.core.language;
 
 import mb.common.message.KeyedMessages;
+import mb.common.message.KeyedMessagesSinks;
 import mb.common.message.Messages;
 import mb.common.util.ADT;
 import mb.pie.api.Task;
@@ -26,13 +27,25 @@ public abstract class LanguageInspection {
     }
 
     interface Cases<R> {
-        R multiFile(Function<MultiFileInput, Task<KeyedMessages>> multiFileFunc);
+        R multiFile(Function<MultiFileInput, Task<KeyedMessages>> multiFileFunc, KeyedMessagesSinks messageSinks);
 
         R singleFile(Function<ResourceKey, Task<Messages>> singleFileFunc);
     }
 
+    /**
+     * Creates a multi-file inspection with tasks created by {@code multiFileFunc}, which push the messages of each file
+     * into the sinks registered in {@code messageSinks} for the root of their input while they are executing.
+     */
+    public static LanguageInspection multiFile(Function<MultiFileInput, Task<KeyedMessages>> multiFileFunc, KeyedMessagesSinks messageSinks) {
+        return LanguageInspections.multiFile(multiFileFunc, messageSinks);
+    }
+
+    /**
+     * Creates a multi-file inspection with tasks created by {@code multiFileFunc}, which do not push messages while
+     * they are executing.
+     */
     public static LanguageInspection multiFile(Function<MultiFileInput, Task<KeyedMessages>> multiFileFunc) {
-        return LanguageInspections.multiFile(multiFileFunc);
+        return LanguageInspections.multiFile(multiFileFunc, new KeyedMessagesSinks());
     }
 
     public static LanguageInspection singleFile(Function<ResourceKey, Task<Messages>> singleFileFunc) {
@@ -2,7 +2,7 @@ package mb.spoofax.core.language;
 
 import mb.common.region.Region;
 import mb.common.style.Styling;
-import mb.common.token.Token;
+import mb.common.token.PackedTokens;
 import mb.common.util.CollectionView;
 import mb.common.util.ListView;
 import mb.common.util.SetView;
@@ -15,15 +15,13 @@ import mb.spoofax.core.language.command.CommandDef;
 import mb.spoofax.core.language.menu.MenuItem;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.util.ArrayList;
-
 public interface LanguageInstance {
     String getDisplayName();
 
     SetView<String> getFileExtensions();
 
 
-    Task<@Nullable ArrayList<? extends Token<?>>> createTokenizeTask(ResourceKey resourceKey);
+    Task<@Nullable PackedTokens<?>> createTokenizeTask(ResourceKey resourceKey);
 
     Task<@Nullable Styling> createStyleTask(ResourceKey resourceKey);
 
@@ -1,6 +1,7 @@
 package mb.spoofax.eclipse.pie;
 
 import mb.common.message.KeyedMessages;
+import mb.common.message.KeyedMessagesSinks;
 import mb.common.message.Messages;
 import mb.common.style.Styling;
 import mb.common.util.CollectionView;
@@ -144,15 +145,18 @@ public class PieRunner {
 
             try {
                 languageInstance.getInspection().caseOf()
-                    .multiFile(f -> {
+                    .multiFile((f, messageSinks) -> {
                         if(project == null) {
                             logger.warn("Cannot run inspections for resource '" + file + "' of language '" + languageInstance.getDisplayName() + "', because it requires multi-file analysis but no project was given");
                             return Optional.empty();
                         }
-                        final LanguageInspection.MultiFileInput input = multiFileInspectionInput(languageInstance, new EclipseResourcePath(project));
+                        final EclipseResourcePath projectPath = new EclipseResourcePath(project);
+                        final LanguageInspection.MultiFileInput input = multiFileInspectionInput(languageInstance, projectPath);
                         final Task<KeyedMessages> task = f.apply(input);
-                        try {
+                        final WorkspaceUpdate.MessagesSink messagesSink = workspaceUpdate.createMessagesSink(monitor);
+                        try(final KeyedMessagesSinks.Registration ignored = messageSinks.register(projectPath, messagesSink)) {
                             final KeyedMessages messages = requireWithoutObserving(task, postSession, monitor);
+                            messagesSink.flush();
                             workspaceUpdate.replaceMessages(messages);
                         } catch(ExecException | InterruptedException e) {
                             throw new UncheckedException(e);
@@ -265,7 +269,7 @@ public class PieRunner {
             final LanguageInstance languageInstance = languageComponent.getLanguageInstance();
             final WorkspaceUpdate workspaceUpdate = workspaceUpdateFactory.create(languageComponent);
             languageInstance.getInspection().caseOf()
-                .multiFile(f -> {
+                .multiFile((f, messageSinks) -> {
                     final LanguageInspection.MultiFileInput input = multiFileInspectionInput(languageInstance, project);
                     final Task<KeyedMessages> task = f.apply(input);
                     unobserve(task, pie, session, monitor);
@@ -637,7 +641,7 @@ public class PieRunner {
         final WorkspaceUpdate workspaceUpdate = workspaceUpdateFactory.create(languageComponent);
         try {
             languageInstance.getInspection().caseOf()
-                .multiFile(f -> {
+                .multiFile((f, messageSinks) -> {
                     for(ResourcePath newProject : resourceChanges.newProjects) {
                         final LanguageInspection.MultiFileInput input = multiFileInspectionInput(languageInstance, newProject);
                         final Task<KeyedMessages> task = f.apply(input);
@@ -647,8 +651,11 @@ public class PieRunner {
                             }
                         });
                         if(!pie.isObserved(task)) {
-                            try {
+                            // Show messages of each file while the project is being checked, which may take long.
+                            final WorkspaceUpdate.MessagesSink messagesSink = workspaceUpdate.createMessagesSink(monitor);
+                            try(final KeyedMessagesSinks.Registration ignored = messageSinks.register(newProject, messagesSink)) {
                                 final KeyedMessages messages = require(task, session, monitor);
+                                messagesSink.flush();
                                 workspaceUpdate.replaceMessages(messages);
                             } catch(InterruptedException | ExecException e) {
                                 throw new UncheckedException(e);
@@ -2,8 +2,10 @@ package mb.spoofax.eclipse.pie;
 
 import mb.common.message.KeyedMessages;
 import mb.common.message.KeyedMessagesBuilder;
+import mb.common.message.KeyedMessagesSink;
 import mb.common.message.Message;
 import mb.common.style.Styling;
+import mb.common.util.ListView;
 import mb.log.api.Logger;
 import mb.log.api.LoggerFactory;
 import mb.resource.ResourceKey;
@@ -14,6 +16,7 @@ import mb.spoofax.eclipse.util.ResourceUtil;
 import mb.spoofax.eclipse.util.StyleUtil;
 import mb.spoofax.eclipse.util.UncheckedCoreException;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRunnable;
@@ -26,7 +29,11 @@ import org.eclipse.jface.text.TextPresentation;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class WorkspaceUpdate {
     @Singleton
@@ -48,6 +55,9 @@ public class WorkspaceUpdate {
     }
 
 
+    private static final int streamBatchSize = 1000;
+    private static final long streamBatchIntervalMillis = 250;
+
     private final Logger logger;
     private final ResourceUtil resourceUtil;
     private final StyleUtil styleUtil;
@@ -58,6 +68,9 @@ public class WorkspaceUpdate {
     private final ArrayList<ResourceKey> clearRecursively = new ArrayList<>();
     private final KeyedMessagesBuilder messagesBuilder = new KeyedMessagesBuilder();
     private final ArrayList<StyleUpdate> styleUpdates = new ArrayList<>();
+    private final LinkedHashMap<ResourceKey, ListView<Message>> reconcile = new LinkedHashMap<>();
+    // Markers that existed before streaming started, per streamed resource, which no streamed message has matched yet.
+    private final HashMap<ResourceKey, HashMap<Message, ArrayDeque<IMarker>>> streamedResources = new HashMap<>();
 
 
     public WorkspaceUpdate(LoggerFactory loggerFactory, ResourceUtil resourceService, StyleUtil styleUtil, EclipseLanguageComponent languageComponent) {
@@ -73,6 +86,10 @@ public class WorkspaceUpdate {
         clearRecursively.clear();
         messagesBuilder.clearAll();
         styleUpdates.clear();
+        reconcile.clear();
+        synchronized(streamedResources) {
+            streamedResources.clear();
+        }
     }
 
 
@@ -99,13 +116,134 @@ public class WorkspaceUpdate {
         messagesBuilder.addMessages(messages);
     }
 
+    /**
+     * Replaces the messages of all resources in {@code messages}. For resources that a {@link #createMessagesSink
+     * streaming sink} created markers for, markers equal to a message are kept, and only the other markers are deleted
+     * or created.
+     */
     public void replaceMessages(KeyedMessages messages) {
-        for(@Nullable ResourceKey resource : messages.getResources()) {
-            if(resource != null) {
+        final KeyedMessagesBuilder changedMessages = new KeyedMessagesBuilder();
+        synchronized(streamedResources) {
+            for(@Nullable ResourceKey resource : messages.getResources()) {
+                if(resource == null) {
+                    changedMessages.addMessages(messages.getMessagesWithoutOrigin());
+                    continue;
+                }
+                final ListView<Message> resourceMessages = messages.getMessages(resource);
+                if(streamedResources.remove(resource) != null) {
+                    messagesBuilder.clear(resource);
+                    reconcile.put(resource, resourceMessages);
+                    continue;
+                }
                 clearMessages(resource);
+                changedMessages.replaceMessages(resource, resourceMessages);
             }
+            // Resources that messages were streamed for but that are not in the final messages have no messages.
+            for(ResourceKey resource : streamedResources.keySet()) {
+                clearMessages(resource);
+                messagesBuilder.clear(resource);
+            }
+            streamedResources.clear();
         }
-        messagesBuilder.replaceMessages(messages);
+        messagesBuilder.replaceMessages(changedMessages.build());
+    }
+
+
+    /**
+     * Creates a sink that creates markers for messages while they are being produced, such that they are shown before
+     * all messages have been produced. Messages are applied in batches: when {@link #streamBatchSize} messages have
+     * arrived, when {@link #streamBatchIntervalMillis} milliseconds have passed since the previous batch, or when {@link
+     * MessagesSink#flush} is called. Streamed messages only add markers: markers that already exist for an equal message
+     * (e.g., parse messages from the previous check) are kept instead of duplicated, and no markers are deleted, such
+     * that markers for messages that are not streamed (e.g., analysis messages) do not disappear while their producer
+     * is running. Afterwards, pass the final messages to {@link #replaceMessages(KeyedMessages)}, which deletes markers
+     * that are not in the final messages.
+     */
+    public MessagesSink createMessagesSink(@Nullable IProgressMonitor monitor) {
+        return new MessagesSink(monitor);
+    }
+
+    public class MessagesSink implements KeyedMessagesSink {
+        private final @Nullable IProgressMonitor monitor;
+        private LinkedHashMap<ResourceKey, ArrayList<Message>> pending = new LinkedHashMap<>();
+        private int pendingCount = 0;
+        private long lastFlushTime = System.currentTimeMillis();
+
+        private MessagesSink(@Nullable IProgressMonitor monitor) {
+            this.monitor = monitor;
+        }
+
+        @Override public synchronized void messages(@Nullable ResourceKey resource, Iterable<? extends Message> messages) {
+            if(resource == null) return; // Messages without a resource have no marker; they are logged by update.
+            final ArrayList<Message> resourceMessages = pending.computeIfAbsent(resource, k -> new ArrayList<>());
+            for(Message message : messages) {
+                resourceMessages.add(message);
+                ++pendingCount;
+            }
+            if(pendingCount >= streamBatchSize || System.currentTimeMillis() - lastFlushTime >= streamBatchIntervalMillis) {
+                flush();
+            }
+        }
+
+        /**
+         * Creates markers for all messages that arrived since the previous batch.
+         */
+        public synchronized void flush() {
+            lastFlushTime = System.currentTimeMillis();
+            if(pending.isEmpty()) return;
+            if(monitor != null && monitor.isCanceled()) return;
+            final LinkedHashMap<ResourceKey, ArrayList<Message>> batch = pending;
+            pending = new LinkedHashMap<>();
+            pendingCount = 0;
+            final ICoreRunnable markerUpdate = (IWorkspaceRunnable)workspaceMonitor -> {
+                for(Map.Entry<ResourceKey, ArrayList<Message>> entry : batch.entrySet()) {
+                    if(workspaceMonitor != null && workspaceMonitor.isCanceled()) return;
+                    final ResourceKey resourceKey = entry.getKey();
+                    final IResource resource = resourceUtil.getEclipseResource(resourceKey);
+                    synchronized(streamedResources) {
+                        @Nullable HashMap<Message, ArrayDeque<IMarker>> existingMarkers = streamedResources.get(resourceKey);
+                        if(existingMarkers == null) {
+                            existingMarkers = getMarkers(resource);
+                            streamedResources.put(resourceKey, existingMarkers);
+                        }
+                        for(Message message : entry.getValue()) {
+                            keepOrCreateMarker(resource, message, existingMarkers);
+                        }
+                    }
+                }
+            };
+            try {
+                ResourcesPlugin.getWorkspace().run(markerUpdate, null, IWorkspace.AVOID_UPDATE, monitor);
+            } catch(CoreException e) {
+                logger.error("Running streamed marker update failed unexpectedly", e);
+            }
+        }
+    }
+
+
+    private HashMap<Message, ArrayDeque<IMarker>> getMarkers(IResource resource) throws CoreException {
+        final HashMap<Message, ArrayDeque<IMarker>> markers = new HashMap<>();
+        for(IMarker marker : MarkerUtil.getAll(languageComponent.getEclipseIdentifiers(), resource)) {
+            final @Nullable Message message = MarkerUtil.getMessage(marker);
+            if(message == null) continue;
+            markers.computeIfAbsent(message, m -> new ArrayDeque<>()).add(marker);
+        }
+        return markers;
+    }
+
+    /**
+     * Keeps an unmatched marker in {@code existingMarkers} that is equal to {@code message}, removing it from {@code
+     * existingMarkers}, or creates a marker for {@code message} if there is none.
+     */
+    private void keepOrCreateMarker(IResource resource, Message message, HashMap<Message, ArrayDeque<IMarker>> existingMarkers) throws CoreException {
+        // Markers do not store exceptions nor all severities, so compare messages as they are stored in markers.
+        final Message key = MarkerUtil.toMarkerMessage(message);
+        final @Nullable ArrayDeque<IMarker> markers = existingMarkers.get(key);
+        if(markers != null && !markers.isEmpty()) {
+            markers.remove();
+            return;
+        }
+        MarkerUtil.createMarker(languageComponent.getEclipseIdentifiers(), message.text, message.severity, resource, message.region);
     }
 
 
@@ -150,6 +288,19 @@ public class WorkspaceUpdate {
                 final IResource resource = resourceUtil.getEclipseResource(resourceKey);
                 MarkerUtil.clearAll(languageComponent.getEclipseIdentifiers(), resource);
             }
+            for(Map.Entry<ResourceKey, ListView<Message>> entry : reconcile.entrySet()) {
+                if(workspaceMonitor != null && workspaceMonitor.isCanceled()) return;
+                final IResource resource = resourceUtil.getEclipseResource(entry.getKey());
+                final HashMap<Message, ArrayDeque<IMarker>> existingMarkers = getMarkers(resource);
+                for(Message message : entry.getValue()) {
+                    keepOrCreateMarker(resource, message, existingMarkers);
+                }
+                for(ArrayDeque<IMarker> outdatedMarkers : existingMarkers.values()) {
+                    for(IMarker marker : outdatedMarkers) {
+                        marker.delete();
+                    }
+                }
+            }
             try {
                 messages.accept((text, exception, severity, resourceKey, region) -> {
                     if(workspaceMonitor != null && workspaceMonitor.isCanceled()) return false;
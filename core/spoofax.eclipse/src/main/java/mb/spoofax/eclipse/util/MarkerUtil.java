@@ -1,5 +1,6 @@
 package mb.spoofax.eclipse.util;
 
+import mb.common.message.Message;
 import mb.common.message.Severity;
 import mb.common.region.Region;
 import mb.spoofax.eclipse.EclipseIdentifiers;
@@ -34,6 +35,32 @@ public final class MarkerUtil {
         return marker;
     }
 
+    public static IMarker[] getAll(EclipseIdentifiers eclipseIdentifiers, IResource resource) throws CoreException {
+        return resource.findMarkers(eclipseIdentifiers.getBaseMarker(), true, IResource.DEPTH_ZERO);
+    }
+
+    /**
+     * Gets the message that {@code marker} was created for with {@link #createMarker}, without its exception, or {@code
+     * null} if the marker has no message.
+     */
+    public static @Nullable Message getMessage(IMarker marker) {
+        final @Nullable String text = marker.getAttribute(IMarker.MESSAGE, null);
+        if(text == null) return null;
+        final int startOffset = marker.getAttribute(IMarker.CHAR_START, -1);
+        final int endOffset = marker.getAttribute(IMarker.CHAR_END, -1);
+        final @Nullable Region region = startOffset != -1 && endOffset != -1 ? Region.fromOffsets(startOffset, endOffset) : null;
+        return new Message(text, severity(marker.getAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO)), region);
+    }
+
+    /**
+     * Gets the message that {@link #getMessage} returns for a marker created for {@code message}: without its exception,
+     * and with its severity mapped to a marker severity, such that severities without a marker severity become {@link
+     * Severity#Info}.
+     */
+    public static Message toMarkerMessage(Message message) {
+        return new Message(message.text, severity(severity(message.severity)), message.region);
+    }
+
     public static void clearAll(EclipseIdentifiers eclipseIdentifiers, IResource resource) throws CoreException {
         resource.deleteMarkers(eclipseIdentifiers.getBaseMarker(), true, IResource.DEPTH_ZERO);
     }
@@ -56,6 +83,17 @@ public final class MarkerUtil {
         }
     }
 
+    private static Severity severity(int eclipseSeverity) {
+        switch(eclipseSeverity) {
+            case IMarker.SEVERITY_WARNING:
+                return Severity.Warning;
+            case IMarker.SEVERITY_ERROR:
+                return Severity.Error;
+            default:
+                return Severity.Info;
+        }
+    }
+
     private static String id(EclipseIdentifiers eclipseIdentifiers, int severity) {
         switch(severity) {
             case IMarker.SEVERITY_INFO:
@@ -1,5 +1,7 @@
 package mb.spoofax.eclipse.util;
 
+import mb.common.style.PackedStyling;
+import mb.common.style.Style;
 import mb.common.style.Styling;
 import mb.common.style.TokenStyle;
 import mb.common.token.Token;
@@ -69,6 +71,9 @@ public final class StyleUtil {
     }
 
     public TextPresentation createTextPresentation(Styling styling, int length) {
+        if(styling instanceof PackedStyling) {
+            return createTextPresentation((PackedStyling)styling, length);
+        }
         final ArrayList<TokenStyle> validated = validateStyling(styling, length);
         return createTextPresentation(validated);
     }
@@ -80,13 +85,61 @@ public final class StyleUtil {
             final StyleRange styleRange = createStyleRange(attr, tokenStyle.getToken());
             presentation.addStyleRange(styleRange);
         }
+        setDefaultStyleRange(presentation);
+        return presentation;
+    }
+
+    /**
+     * Creates a text presentation directly from packed styling, skipping invalid token styles like {@link
+     * #validateStyling}, without creating token style objects. Each distinct style is converted into a text attribute
+     * only once.
+     *
+     * @param styling the packed styling
+     * @param length the length of the text
+     * @return the {@link TextPresentation} for the styling
+     */
+    public TextPresentation createTextPresentation(PackedStyling styling, int length) {
+        final Style[] palette = styling.getPalette();
+        final TextAttribute[] attributes = new TextAttribute[palette.length];
+        for(int i = 0; i < palette.length; ++i) {
+            attributes[i] = scopeManager.getTokenHighlight("", palette[i]);
+        }
+        final TextPresentation presentation = new TextPresentation();
+        int offset = -1;
+        for(int i = 0; i < styling.size(); ++i) {
+            final int startOffset = styling.getStartOffset(i);
+            final int endOffsetInclusive = styling.getEndOffset(i) - 1;
+            if(offset >= startOffset) {
+                logger.warn("Skipping invalid token style {}-{}, starting offset is greater than offset in previous regions",
+                    startOffset, endOffsetInclusive);
+            } else if(offset >= endOffsetInclusive) {
+                logger.warn("Skipping invalid token style {}-{}, ending offset is greater than offset in previous regions",
+                    startOffset, endOffsetInclusive);
+            } else if(startOffset > endOffsetInclusive) {
+                logger.warn("Skipping invalid token style {}-{}, starting offset is greater than ending offset",
+                    startOffset, endOffsetInclusive);
+            } else if(startOffset > length) {
+                logger.warn("Skipping invalid token style {}-{}, starting offset is greater than text length",
+                    startOffset, endOffsetInclusive);
+            } else if(endOffsetInclusive >= length) {
+                logger.warn("Skipping invalid token style {}-{}, ending offset is greater than text length",
+                    startOffset, endOffsetInclusive);
+            } else {
+                final TextAttribute attr = attributes[styling.getStyleIndex(i)];
+                presentation.addStyleRange(createStyleRange(attr, startOffset, endOffsetInclusive - startOffset + 1));
+                offset = endOffsetInclusive;
+            }
+        }
+        setDefaultStyleRange(presentation);
+        return presentation;
+    }
+
+    private void setDefaultStyleRange(TextPresentation presentation) {
         @Nullable IRegion extent = presentation.getExtent();
         if(extent == null) { extent = new Region(0, 0); }
         TextAttribute defaultAttr = scopeManager.getTokenHighlight(ScopeManager.DEFAULT_SCOPE, null);
         final StyleRange defaultStyleRange = createStyleRange(defaultAttr, extent.getOffset(), extent.getLength());
         presentation.setDefaultStyleRange(defaultStyleRange);
-
-        return presentation;
     }
 
     /**
@@ -1,10 +1,8 @@
 package mb.spoofax.intellij.editor;
 
-import com.google.common.collect.Lists;
 import com.intellij.lexer.LexerBase;
 import com.intellij.psi.tree.IElementType;
-import mb.common.region.Region;
-import mb.common.token.TokenImpl;
+import mb.common.token.PackedTokens;
 import mb.common.token.TokenType;
 import mb.common.token.TokenTypes;
 import mb.common.util.IntUtil;
@@ -24,9 +22,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 
 
 /**
@@ -46,8 +42,15 @@ public final class SpoofaxLexer extends LexerBase {
     @Nullable private CharSequence buffer = null;
     private int startOffset = 0;
     private int endOffset = 0;
-    private List<SpoofaxIntellijToken> tokens = Collections.emptyList();
+    // Tokens for IntelliJ, stored as struct-of-arrays.
+    private int tokenCount = 0;
+    private int[] tokenStarts = new int[0];
+    private int[] tokenEnds = new int[0];
+    private IElementType[] tokenTypes = new IElementType[0];
     private int tokenIndex = 0;
+    // Element type per token type code, computed when first needed.
+    private final @Nullable IElementType[] elementTypePerTypeCode = new IElementType[PackedTokens.typeCodeCount];
+    private @Nullable IElementType defaultElementType = null;
 
 
     /**
@@ -136,25 +139,25 @@ public final class SpoofaxLexer extends LexerBase {
 
         if (buffer.length() == 0) {
             logger.debug("Buffer is empty");
-            this.tokens = Collections.emptyList();
+            this.tokenCount = 0;
         } else {
             // GK: what is syntax coloring information doing here?
             try (final MixedSession session = this.pieSessionProvider.get()) {
-                final Task<@Nullable ArrayList<? extends mb.common.token.Token<?>>> tokenizerTask =
+                final Task<@Nullable PackedTokens<?>> tokenizerTask =
                         this.languageInstance.createTokenizeTask(this.resourceKey);
-                @Nullable List<? extends mb.common.token.Token> resourceTokens = session.require(tokenizerTask);
-                if (resourceTokens == null) {
+                @Nullable PackedTokens<?> packedTokens = session.require(tokenizerTask);
+                if (packedTokens == null) {
                     logger.debug("Tokenizer task returned no tokens");
-                    resourceTokens = getDefaultTokens(this.resourceKey);
+                    packedTokens = getDefaultTokens(this.resourceKey);
                 } else {
-                    logger.debug("Tokenizer task returned {} tokens", resourceTokens.size());
+                    logger.debug("Tokenizer task returned {} tokens", packedTokens.size());
                 }
-                this.tokens = tokenize(resourceTokens);
+                tokenize(packedTokens);
             } catch (ExecException e) {
                 throw new RuntimeException("Styling resource '" + this.resourceKey + "' failed unexpectedly", e);
             }
         }
-        logger.debug("Tokenizer produced {} tokens", this.tokens.size());
+        logger.debug("Tokenizer produced {} tokens", this.tokenCount);
     }
 
     /**
@@ -163,31 +166,30 @@ public final class SpoofaxLexer extends LexerBase {
      * @param resourceKey The resource key.
      * @return The default tokens for the resource.
      */
-    private List<mb.common.token.Token> getDefaultTokens(ResourceKey resourceKey) {
+    private PackedTokens<?> getDefaultTokens(ResourceKey resourceKey) {
         final ReadableResource resource = this.resourceService.getReadableResource(resourceKey);
         try {
             int length = (int)resource.getSize();
-            return Lists.newArrayList(
-                    new TokenImpl<>(TokenTypes.unknown(), Region.fromOffsetLength(0, length), null)
-            );
+            return new PackedTokens.Builder<>(false, 1)
+                    .add(0, length, TokenTypes.unknown(), null)
+                    .build();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     /**
-     * Tokenizes a list of Spoofax tokens into IntelliJ tokens.
+     * Tokenizes packed Spoofax tokens into IntelliJ tokens, stored in the token arrays of this lexer.
      *
-     * @param tokens The list of tokens to tokenize.
-     * @return The list of IntelliJ tokens that represents the input tokens for IntelliJ.
+     * @param tokens The tokens to tokenize.
      */
-    private List<SpoofaxIntellijToken> tokenize(List<? extends mb.common.token.Token> tokens) {
-        List<SpoofaxIntellijToken> newTokens = new ArrayList<>();
+    private void tokenize(PackedTokens<?> tokens) {
+        this.tokenCount = 0;
         int offset = 0;
 
-        for (mb.common.token.Token<?> token : tokens) {
-            int tokenStart = token.getRegion().getStartOffset();
-            int tokenEnd = token.getRegion().getEndOffset();
+        for (int i = 0; i < tokens.size(); ++i) {
+            int tokenStart = tokens.getStartOffset(i);
+            int tokenEnd = tokens.getEndOffset(i);
 
             // We assume that tokens are non-empty. When we encounter
             // a token with an end at or before its start,
@@ -207,13 +209,13 @@ public final class SpoofaxLexer extends LexerBase {
             // token, we assign it our own dummy token/element.
             if (offset < tokenStart) {
                 // Add dummy element.
-                offset = addTokenElement(newTokens, null, offset, tokenStart);
+                offset = addTokenElement(getDefaultElementType(), offset, tokenStart);
             }
 
             assert offset == tokenStart;
 
             // Add element.
-            offset = addTokenElement(newTokens, token, offset, tokenEnd);
+            offset = addTokenElement(getElementType(tokens.getTypeCode(i)), offset, tokenEnd);
 
             // When we've seen tokens up to the end of the highlighted range
             // we bail out.
@@ -224,45 +226,61 @@ public final class SpoofaxLexer extends LexerBase {
         // When there is a gap between the last token and the end of the highlighted range
         // we insert our own dummy token/element.
         if (offset < this.endOffset) {
-            offset = addTokenElement(newTokens, null, offset, this.endOffset);
+            offset = addTokenElement(getDefaultElementType(), offset, this.endOffset);
         }
 
         assert offset >= this.endOffset;
-
-        return newTokens;
     }
 
     /**
-     * Adds a token to the list of IntelliJ tokens.
+     * Adds a token to the IntelliJ tokens, growing the token arrays when needed.
      *
-     * @param tokenList   The list of IntelliJ tokens to modify.
-     * @param token       The token to transform and add.
+     * @param tokenType   The element type of the token.
      * @param startOffset The inclusive zero-based start offset of the token.
      * @param endOffset   The exclusive zero-based end offset of the token.
      * @return The new end offset.
      */
-    // Apparently this means @Nullable mb.common.token.Token in Java :/
-    private int addTokenElement(List<SpoofaxIntellijToken> tokenList, mb.common.token.@Nullable Token<?> token, int startOffset, int endOffset) {
-        IElementType tokenType = getTokenType(token);
-        tokenList.add(new SpoofaxIntellijToken(startOffset, endOffset, tokenType));
+    private int addTokenElement(IElementType tokenType, int startOffset, int endOffset) {
+        if (this.tokenCount == this.tokenStarts.length) {
+            final int capacity = Math.max(16, this.tokenCount * 2);
+            this.tokenStarts = Arrays.copyOf(this.tokenStarts, capacity);
+            this.tokenEnds = Arrays.copyOf(this.tokenEnds, capacity);
+            this.tokenTypes = Arrays.copyOf(this.tokenTypes, capacity);
+        }
+        this.tokenStarts[this.tokenCount] = startOffset;
+        this.tokenEnds[this.tokenCount] = endOffset;
+        this.tokenTypes[this.tokenCount] = tokenType;
+        this.tokenCount++;
         return endOffset;
     }
 
     /**
-     * Gets the token type for the specified Spoofax token.
+     * Gets the element type for the specified Spoofax token type code.
      *
-     * @param token The Spoofax token.
-     * @return The corresponding token type.
+     * @param typeCode The token type code, as encoded by {@link PackedTokens#encodeType}.
+     * @return The corresponding element type.
      */
-    private IElementType getTokenType(mb.common.token.@Nullable Token<?> token) {
-        final String simplfiedScopeName;
-        if (token != null) {
-            final ScopeNames scopeNames = getScopeNamesFromType(token.getType());
-            simplfiedScopeName = this.scopeManager.getSimplifiedScope(scopeNames);
-        } else {
-            simplfiedScopeName = this.scopeManager.DEFAULT_SCOPE;
+    private IElementType getElementType(byte typeCode) {
+        @Nullable IElementType elementType = this.elementTypePerTypeCode[typeCode];
+        if (elementType == null) {
+            final ScopeNames scopeNames = getScopeNamesFromType(PackedTokens.decodeType(typeCode));
+            final String simplfiedScopeName = this.scopeManager.getSimplifiedScope(scopeNames);
+            elementType = this.tokenTypeManager.getTokenType(simplfiedScopeName);
+            this.elementTypePerTypeCode[typeCode] = elementType;
         }
-        return this.tokenTypeManager.getTokenType(simplfiedScopeName);
+        return elementType;
+    }
+
+    /**
+     * Gets the element type for characters that are not covered by a Spoofax token.
+     *
+     * @return The default element type.
+     */
+    private IElementType getDefaultElementType() {
+        if (this.defaultElementType == null) {
+            this.defaultElementType = this.tokenTypeManager.getTokenType(this.scopeManager.DEFAULT_SCOPE);
+        }
+        return this.defaultElementType;
     }
 
     /**
@@ -298,22 +316,22 @@ public final class SpoofaxLexer extends LexerBase {
 
     @Override
     public @Nullable IElementType getTokenType() {
-        if (0 <= this.tokenIndex && this.tokenIndex < this.tokens.size())
-            return this.tokens.get(tokenIndex).getTokenType();
+        if (0 <= this.tokenIndex && this.tokenIndex < this.tokenCount)
+            return this.tokenTypes[this.tokenIndex];
         else
             return null;
     }
 
     @Override
     public int getTokenStart() {
-        assert 0 <= this.tokenIndex && this.tokenIndex < this.tokens.size() : "Expected index 0 <= " + tokenIndex + " < " + tokens.size();
-        return this.tokens.get(this.tokenIndex).getStartOffset();
+        assert 0 <= this.tokenIndex && this.tokenIndex < this.tokenCount : "Expected index 0 <= " + tokenIndex + " < " + tokenCount;
+        return this.tokenStarts[this.tokenIndex];
     }
 
     @Override
     public int getTokenEnd() {
-        assert 0 <= this.tokenIndex && this.tokenIndex < this.tokens.size() : "Expected index 0 <= " + tokenIndex + " < " + tokens.size();
-        return this.tokens.get(this.tokenIndex).getEndOffset();
+        assert 0 <= this.tokenIndex && this.tokenIndex < this.tokenCount : "Expected index 0 <= " + tokenIndex + " < " + tokenCount;
+        return this.tokenEnds[this.tokenIndex];
     }
 
     @Override
@@ -340,52 +358,4 @@ public final class SpoofaxLexer extends LexerBase {
         return this.endOffset;
     }
 
-    /**
-     * Represents a Spoofax token for IntelliJ.
-     */
-    private static final class SpoofaxIntellijToken {
-
-        private final int startOffset;
-        private final int endOffset;
-        private final IElementType tokenType;
-
-        /**
-         * Initializes a new instance of the {@link SpoofaxIntellijToken} class.
-         *
-         * @param startOffset The zero-based start offset of the token.
-         * @param endOffset The zero-based end offset of the token.
-         * @param tokenType The element type of the token.
-         */
-        /* package private */ SpoofaxIntellijToken(int startOffset, int endOffset, IElementType tokenType) {
-            this.startOffset = startOffset;
-            this.endOffset = endOffset;
-            this.tokenType = tokenType;
-        }
-
-        /**
-         * Gets the start offset of the token.
-         * @return The zero-based start offset of the token.
-         */
-        /* package private */ int getStartOffset() {
-            return startOffset;
-        }
-
-        /**
-         * Gets the end offset of the token.
-         * @return The zero-based end offset of the token.
-         */
-        /* package private */ int getEndOffset() {
-            return endOffset;
-        }
-
-        /**
-         * Gets the element type of the token.
-         * @return The token's element type.
-         */
-        /* package private */ IElementType getTokenType() {
-            return tokenType;
-        }
-
-    }
-
 }
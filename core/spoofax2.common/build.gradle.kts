@@ -1,9 +1,11 @@
 plugins {
   id("org.metaborg.gradle.config.java-library")
+  id("org.metaborg.gradle.config.junit-testing")
 }
 
 dependencies {
   api(platform(project(":spoofax.depconstraints")))
+  testImplementation(platform(project(":spoofax.depconstraints")))
 
   implementation(project(":common"))
   implementation(project(":stratego.common"))
@@ -14,4 +16,6 @@ dependencies {
   implementation("org.metaborg:org.spoofax.interpreter.core")
 
   compileOnly("org.checkerframework:checker-qual-android")
+
+  testCompileOnly("org.checkerframework:checker-qual-android")
 }
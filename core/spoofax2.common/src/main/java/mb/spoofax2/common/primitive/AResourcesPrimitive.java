@@ -1,7 +1,5 @@
 package mb.spoofax2.common.primitive;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import mb.log.api.Logger;
@@ -9,7 +7,6 @@ import mb.log.api.LoggerFactory;
 import mb.resource.ResourceRuntimeException;
 import mb.resource.ResourceService;
 import mb.resource.hierarchical.HierarchicalResource;
-import mb.resource.hierarchical.ResourcePath;
 import mb.spoofax2.common.primitive.generic.ASpoofaxContextPrimitive;
 import mb.spoofax2.common.primitive.generic.Spoofax2Context;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -19,63 +16,56 @@ import org.spoofax.interpreter.core.Tools;
 import org.spoofax.interpreter.stratego.Strategy;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.interpreter.terms.ITermFactory;
-import org.spoofax.terms.io.binary.TermReader;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.time.Instant;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public abstract class AResourcesPrimitive extends ASpoofaxContextPrimitive implements AutoCloseable {
-    private static class CacheEntry {
-        public final Instant timestamp;
-        public final IStrategoTerm term;
-
-        private CacheEntry(Instant timestamp, IStrategoTerm term) {
-            this.timestamp = timestamp;
-            this.term = term;
-        }
-
-        @Override public boolean equals(Object o) {
-            if(this == o) return true;
-            if(o == null || getClass() != o.getClass()) return false;
-            final CacheEntry that = (CacheEntry)o;
-            return timestamp == that.timestamp &&
-                term.equals(that.term);
-        }
-
-        @Override public int hashCode() {
-            return Objects.hash(timestamp, term);
-        }
-
-        @Override public String toString() {
-            return "CacheEntry{" +
-                "timestamp=" + timestamp +
-                ", ast=" + term +
-                '}';
-        }
-    }
-
     protected final Logger log;
     protected final ResourceService resourceService;
-    private final Cache<ResourcePath, CacheEntry> fileCache;
+    private final ResourceTermCache fileCache;
+    private final @Nullable Executor loadExecutor;
 
-    public AResourcesPrimitive(String name, LoggerFactory loggerFactory, ResourceService resourceService) {
+    /**
+     * @param fileCache    Cache of parsed files.
+     * @param loadExecutor Executor to read and parse imported files on concurrently, while the Stratego strategies that
+     *                     resolve names and extract imports still run on the calling thread, or {@code null} to load
+     *                     files one at a time on the calling thread. Both produce the same result.
+     */
+    public AResourcesPrimitive(String name, LoggerFactory loggerFactory, ResourceService resourceService, ResourceTermCache fileCache, @Nullable Executor loadExecutor) {
         super(name, 2, 0);
         this.log = loggerFactory.create(AResourcesPrimitive.class);
         this.resourceService = resourceService;
-        this.fileCache = CacheBuilder.newBuilder().maximumSize(32).build();
+        this.fileCache = fileCache;
+        this.loadExecutor = loadExecutor;
+    }
+
+    public AResourcesPrimitive(String name, LoggerFactory loggerFactory, ResourceService resourceService, @Nullable Executor loadExecutor) {
+        this(name, loggerFactory, resourceService, ResourceTermCache.shared(), loadExecutor);
+    }
+
+    public AResourcesPrimitive(String name, LoggerFactory loggerFactory, ResourceService resourceService) {
+        this(name, loggerFactory, resourceService, null);
     }
 
     @Override public void close() {
-        fileCache.invalidateAll();
-        fileCache.cleanUp();
+        // Only clear caches owned by this primitive; the shared cache is validated against modification stamps.
+        if(fileCache != ResourceTermCache.shared()) {
+            fileCache.clear();
+        }
+    }
+
+    public ResourceTermCache getFileCache() {
+        return fileCache;
     }
 
     @Override protected IStrategoTerm call(
@@ -88,31 +78,124 @@ public abstract class AResourcesPrimitive extends ASpoofaxContextPrimitive imple
     ) throws InterpreterException {
         final Strategy nameToPathStr = svars[0];
         final Strategy importStr = svars[1];
-        final TermReader termReader = new TermReader(termFactory);
+        final List<IStrategoTerm> names = parseNames(current);
+        final PathResolver pathResolver = name -> resourcePath(strategoContext, nameToPathStr, name);
+        final ImportExtractor importExtractor = resource -> resourceImports(strategoContext, importStr, resource);
+        final List<HierarchicalResource> locations = locations(context);
+        final Function<String, Optional<IStrategoTerm>> loader = path -> loadResource(locations, path, termFactory);
+        final @Nullable Executor loadExecutor = this.loadExecutor;
+        final @Nullable Map<IStrategoTerm, IStrategoTerm> resources = loadExecutor != null
+            ? loadConcurrently(names, pathResolver, importExtractor, loader, loadExecutor)
+            : loadSequentially(names, pathResolver, importExtractor, loader);
+        if(resources == null) {
+            return null;
+        }
 
-        final Deque<IStrategoTerm> names = Lists.newLinkedList(parseNames(current));
+        return termFactory.makeList(resources.entrySet().stream()
+            .map(e -> termFactory.makeTuple(e.getKey(), e.getValue()))
+            .collect(Collectors.toList()));
+    }
+
+
+    @FunctionalInterface interface PathResolver {
+        String resolve(IStrategoTerm name) throws InterpreterException;
+    }
+
+    @FunctionalInterface interface ImportExtractor {
+        List<IStrategoTerm> imports(IStrategoTerm resource) throws InterpreterException;
+    }
+
+    /**
+     * Loads the import closure of {@code initialNames} one resource at a time, returning the resources by name, or
+     * {@code null} if a resource could not be loaded.
+     */
+    static @Nullable Map<IStrategoTerm, IStrategoTerm> loadSequentially(
+        List<IStrategoTerm> initialNames,
+        PathResolver pathResolver,
+        ImportExtractor importExtractor,
+        Function<String, Optional<IStrategoTerm>> loader
+    ) throws InterpreterException {
+        final Deque<IStrategoTerm> names = Lists.newLinkedList(initialNames);
         final Map<IStrategoTerm, IStrategoTerm> resources = Maps.newHashMap();
         while(!names.isEmpty()) {
             final IStrategoTerm name = names.pop();
             if(!resources.containsKey(name)) {
-                final String path = resourcePath(strategoContext, nameToPathStr, name);
-                final @Nullable IStrategoTerm resource = loadResource(locations(context), path, termReader).orElse(null);
+                final String path = pathResolver.resolve(name);
+                final @Nullable IStrategoTerm resource = loader.apply(path).orElse(null);
                 if(resource == null) {
                     return null;
                 }
                 resources.put(name, resource);
-                names.addAll(resourceImports(strategoContext, importStr, resource));
+                names.addAll(importExtractor.imports(resource));
             }
         }
+        return resources;
+    }
 
-        return termFactory.makeList(resources.entrySet().stream()
-            .map(e -> termFactory.makeTuple(e.getKey(), e.getValue()))
-            .collect(Collectors.toList()));
+    /**
+     * Loads the same import closure as {@link #loadSequentially}, in the same order, but starts loading each resource on
+     * {@code loadExecutor} as soon as its name is discovered. Names are resolved to paths, and imports are extracted, on
+     * the calling thread, since the Stratego context may only be used by one thread.
+     */
+    static @Nullable Map<IStrategoTerm, IStrategoTerm> loadConcurrently(
+        List<IStrategoTerm> initialNames,
+        PathResolver pathResolver,
+        ImportExtractor importExtractor,
+        Function<String, Optional<IStrategoTerm>> loader,
+        Executor loadExecutor
+    ) throws InterpreterException {
+        final Deque<IStrategoTerm> names = Lists.newLinkedList();
+        final Map<IStrategoTerm, PendingResource> pending = Maps.newHashMap();
+        final Map<IStrategoTerm, IStrategoTerm> resources = Maps.newHashMap();
+        try {
+            for(IStrategoTerm name : initialNames) {
+                names.add(name);
+                startLoading(name, pending, pathResolver, loader, loadExecutor);
+            }
+            while(!names.isEmpty()) {
+                final IStrategoTerm name = names.pop();
+                if(!resources.containsKey(name)) {
+                    final @Nullable IStrategoTerm resource = pending.get(name).get();
+                    if(resource == null) {
+                        return null;
+                    }
+                    resources.put(name, resource);
+                    for(IStrategoTerm importedName : importExtractor.imports(resource)) {
+                        names.add(importedName);
+                        startLoading(importedName, pending, pathResolver, loader, loadExecutor);
+                    }
+                }
+            }
+        } finally {
+            for(PendingResource pendingResource : pending.values()) {
+                pendingResource.cancel();
+            }
+        }
+        return resources;
+    }
+
+    private static void startLoading(
+        IStrategoTerm name,
+        Map<IStrategoTerm, PendingResource> pending,
+        PathResolver pathResolver,
+        Function<String, Optional<IStrategoTerm>> loader,
+        Executor loadExecutor
+    ) {
+        if(pending.containsKey(name)) return;
+        final String path;
+        try {
+            path = pathResolver.resolve(name);
+        } catch(InterpreterException e) {
+            // Defer the exception until the resource is needed, as in the sequential loop.
+            pending.put(name, new PendingResource(e));
+            return;
+        }
+        pending.put(name, new PendingResource(CompletableFuture.supplyAsync(() -> loader.apply(path), loadExecutor)));
     }
 
     protected abstract List<HierarchicalResource> locations(Spoofax2Context context);
 
-    private Optional<IStrategoTerm> loadResource(List<HierarchicalResource> locations, String path, TermReader termReader) {
+    private Optional<IStrategoTerm> loadResource(List<HierarchicalResource> locations, String path, ITermFactory termFactory) {
         for(HierarchicalResource location : locations) {
             final HierarchicalResource file;
             try {
@@ -122,19 +205,11 @@ public abstract class AResourcesPrimitive extends ASpoofaxContextPrimitive imple
                 continue;
             }
             final IStrategoTerm term;
-            final @Nullable CacheEntry cacheEntry = fileCache.getIfPresent(file.getPath());
             try {
-                if(cacheEntry != null && !(cacheEntry.timestamp.isBefore(file.getLastModifiedTime()))) {
-                    term = cacheEntry.term;
-                } else {
-                    try(final InputStream inputStream = file.openRead()) {
-                        term = termReader.parseFromStream(inputStream);
-                        fileCache.put(file.getPath(), new CacheEntry(file.getLastModifiedTime(), term));
-                    }
-                }
+                term = fileCache.get(file, termFactory);
             } catch(IOException e) {
                 log.error("Reading file '{}' failed unexpectedly; skipping file", e, path);
-                fileCache.invalidate(file.getPath());
+                fileCache.invalidate(file.getKey());
                 continue;
             }
             return Optional.of(term);
@@ -143,6 +218,38 @@ public abstract class AResourcesPrimitive extends ASpoofaxContextPrimitive imple
         return Optional.empty();
     }
 
+    private static class PendingResource {
+        private final @Nullable CompletableFuture<Optional<IStrategoTerm>> future;
+        private final @Nullable InterpreterException exception;
+
+        PendingResource(CompletableFuture<Optional<IStrategoTerm>> future) {
+            this.future = future;
+            this.exception = null;
+        }
+
+        PendingResource(InterpreterException exception) {
+            this.future = null;
+            this.exception = exception;
+        }
+
+        @Nullable IStrategoTerm get() throws InterpreterException {
+            if(exception != null) throw exception;
+            if(future == null) return null;
+            try {
+                return future.join().orElse(null);
+            } catch(CompletionException e) {
+                final Throwable cause = e.getCause();
+                if(cause instanceof RuntimeException) throw (RuntimeException)cause;
+                if(cause instanceof Error) throw (Error)cause;
+                throw e;
+            }
+        }
+
+        void cancel() {
+            if(future != null) future.cancel(false);
+        }
+    }
+
     private String resourcePath(IContext strategoContext, Strategy s, IStrategoTerm name) throws InterpreterException {
         strategoContext.setCurrent(name);
         if(!s.evaluate(strategoContext)) {
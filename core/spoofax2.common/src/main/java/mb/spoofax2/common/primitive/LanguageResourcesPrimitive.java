@@ -5,12 +5,18 @@ import mb.resource.ResourceRuntimeException;
 import mb.resource.ResourceService;
 import mb.resource.hierarchical.HierarchicalResource;
 import mb.spoofax2.common.primitive.generic.Spoofax2Context;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
+import java.util.concurrent.Executor;
 
 public class LanguageResourcesPrimitive extends AResourcesPrimitive {
+    public LanguageResourcesPrimitive(LoggerFactory loggerFactory, ResourceService resourceService, @Nullable Executor loadExecutor) {
+        super("language_resources", loggerFactory, resourceService, loadExecutor);
+    }
+
     public LanguageResourcesPrimitive(LoggerFactory loggerFactory, ResourceService resourceService) {
-        super("language_resources", loggerFactory, resourceService);
+        this(loggerFactory, resourceService, null);
     }
 
     @Override protected ArrayList<HierarchicalResource> locations(Spoofax2Context context) {
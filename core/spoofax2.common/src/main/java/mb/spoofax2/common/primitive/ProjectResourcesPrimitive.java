@@ -4,12 +4,18 @@ import mb.log.api.LoggerFactory;
 import mb.resource.ResourceService;
 import mb.resource.hierarchical.HierarchicalResource;
 import mb.spoofax2.common.primitive.generic.Spoofax2Context;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class ProjectResourcesPrimitive extends AResourcesPrimitive {
+    public ProjectResourcesPrimitive(LoggerFactory loggerFactory, ResourceService resourceService, @Nullable Executor loadExecutor) {
+        super("project_resources", loggerFactory, resourceService, loadExecutor);
+    }
+
     public ProjectResourcesPrimitive(LoggerFactory loggerFactory, ResourceService resourceService) {
-        super("project_resources", loggerFactory, resourceService);
+        this(loggerFactory, resourceService, null);
     }
 
     @Override protected List<HierarchicalResource> locations(Spoofax2Context context) {
@@ -0,0 +1,240 @@
+package mb.spoofax2.common.primitive;
+
+import mb.resource.ReadableResource;
+import mb.resource.ResourceKey;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.io.binary.TermReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of ATerm files read by {@link AResourcesPrimitive resource primitives}, shared between primitive instances
+ * (and thus between Stratego runtimes), such that resolving import closures does not parse the same files again.
+ *
+ * Terms are cached per term factory: a cached term is only returned for the term factory it was created with, such that
+ * languages with different term factories (e.g., with origin tracking) do not get terms of each other. Entries are
+ * validated against the modification stamp of their file: a cached term is only returned when the stamp of the file
+ * equals the stamp it had when it was read. Files without a known stamp are not cached. The cache is bounded by
+ * the total size in bytes of the cached files, and evicts least recently used entries first.
+ */
+public class ResourceTermCache {
+    private static final ResourceTermCache shared = new ResourceTermCache(64 * 1024 * 1024);
+
+    private final long maxWeight;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+
+    /**
+     * @param maxWeight Maximum total size in bytes of cached files.
+     */
+    public ResourceTermCache(long maxWeight) {
+        if(maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight of resource term cache must be larger than 0, got " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Gets the process-wide cache, which is used by resource primitives by default.
+     */
+    public static ResourceTermCache shared() {
+        return shared;
+    }
+
+
+    /**
+     * Gets the term parsed from {@code resource}, parsing it with {@code termFactory} if it is not in the cache or if
+     * the cached term is stale.
+     *
+     * @throws IOException When reading the modification stamp or contents of {@code resource} fails.
+     */
+    public IStrategoTerm get(ReadableResource resource, ITermFactory termFactory) throws IOException {
+        final Key key = new Key(resource.getKey(), termFactory);
+        final Instant stamp = resource.getLastModifiedTime();
+        final @Nullable Entry cached;
+        synchronized(entries) {
+            cached = entries.get(key);
+        }
+        if(cached != null) {
+            if(cached.stamp.equals(stamp)) {
+                hits.incrementAndGet();
+                return cached.term;
+            }
+            stale.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+
+        // Read and parse outside the lock; reading the same file concurrently is harmless.
+        final byte[] bytes = resource.readBytes();
+        final IStrategoTerm term = new TermReader(termFactory).parseFromStream(new ByteArrayInputStream(bytes));
+        if(isKnownStamp(stamp) && bytes.length <= maxWeight) {
+            put(key, new Entry(stamp, term, bytes.length));
+        } else {
+            remove(key);
+        }
+        return term;
+    }
+
+    /**
+     * Removes the cached terms of the resource with given {@code key}, for all term factories.
+     */
+    public void invalidate(ResourceKey key) {
+        synchronized(entries) {
+            final Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            while(iterator.hasNext()) {
+                final Map.Entry<Key, Entry> entry = iterator.next();
+                if(entry.getKey().resource.equals(key)) {
+                    iterator.remove();
+                    weight -= entry.getValue().weight;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all cached terms.
+     */
+    public void clear() {
+        synchronized(entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public Stats getStats() {
+        synchronized(entries) {
+            return new Stats(hits.get(), misses.get(), stale.get(), evictions.get(), entries.size(), weight);
+        }
+    }
+
+
+    private void remove(Key key) {
+        synchronized(entries) {
+            final @Nullable Entry removed = entries.remove(key);
+            if(removed != null) {
+                weight -= removed.weight;
+            }
+        }
+    }
+
+    private void put(Key key, Entry entry) {
+        synchronized(entries) {
+            final @Nullable Entry previous = entries.put(key, entry);
+            if(previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entry.weight;
+            final Iterator<Entry> iterator = entries.values().iterator();
+            while(weight > maxWeight && iterator.hasNext()) {
+                final Entry eldest = iterator.next();
+                iterator.remove();
+                weight -= eldest.weight;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static boolean isKnownStamp(Instant stamp) {
+        // Resources use Instant.MIN and Instant.MAX for unknown modification stamps.
+        return !stamp.equals(Instant.MIN) && !stamp.equals(Instant.MAX);
+    }
+
+
+    private static class Key {
+        final ResourceKey resource;
+        final ITermFactory termFactory; // Compared by identity.
+        final int hashCode;
+
+        Key(ResourceKey resource, ITermFactory termFactory) {
+            this.resource = resource;
+            this.termFactory = termFactory;
+            this.hashCode = 31 * resource.hashCode() + System.identityHashCode(termFactory);
+        }
+
+        @Override public boolean equals(@Nullable Object obj) {
+            if(this == obj) return true;
+            if(obj == null || getClass() != obj.getClass()) return false;
+            final Key other = (Key)obj;
+            return termFactory == other.termFactory && resource.equals(other.resource);
+        }
+
+        @Override public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class Entry {
+        final Instant stamp;
+        final IStrategoTerm term;
+        final long weight;
+
+        Entry(Instant stamp, IStrategoTerm term, long weight) {
+            this.stamp = stamp;
+            this.term = term;
+            this.weight = weight;
+        }
+    }
+
+    public static class Stats {
+        /** Number of terms that were taken from the cache. */
+        public final long hits;
+        /** Number of terms that were not in the cache. */
+        public final long misses;
+        /** Number of cached terms that were parsed again because their file changed. */
+        public final long stale;
+        /** Number of cached terms that were evicted to stay within the maximum weight. */
+        public final long evictions;
+        /** Number of cached terms. */
+        public final int size;
+        /** Total size in bytes of the files of cached terms. */
+        public final long weight;
+
+        public Stats(long hits, long misses, long stale, long evictions, int size, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.stale = stale;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        /**
+         * Gets the fraction of lookups that were taken from the cache, or 0 if there were no lookups.
+         */
+        public double getHitRate() {
+            final long lookups = hits + misses + stale;
+            return lookups == 0 ? 0 : (double)hits / lookups;
+        }
+
+        @Override public String toString() {
+            return "Stats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", stale=" + stale +
+                ", evictions=" + evictions +
+                ", size=" + size +
+                ", weight=" + weight +
+                '}';
+        }
+    }
+}
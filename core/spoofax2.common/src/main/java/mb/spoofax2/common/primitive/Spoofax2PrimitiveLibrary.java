@@ -2,14 +2,25 @@ package mb.spoofax2.common.primitive;
 
 import mb.log.api.LoggerFactory;
 import mb.resource.ResourceService;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.library.AbstractStrategoOperatorRegistry;
 
+import java.util.concurrent.Executor;
+
 public class Spoofax2PrimitiveLibrary extends AbstractStrategoOperatorRegistry {
-    public Spoofax2PrimitiveLibrary(LoggerFactory loggerFactory, ResourceService resourceService) {
+    /**
+     * @param resourceLoadExecutor Executor to load imported resources on concurrently in the resource primitives, or
+     *                             {@code null} to load them sequentially.
+     */
+    public Spoofax2PrimitiveLibrary(LoggerFactory loggerFactory, ResourceService resourceService, @Nullable Executor resourceLoadExecutor) {
         add(new LanguageComponentPrimitive());
 
-        add(new LanguageResourcesPrimitive(loggerFactory, resourceService));
-        add(new ProjectResourcesPrimitive(loggerFactory, resourceService));
+        add(new LanguageResourcesPrimitive(loggerFactory, resourceService, resourceLoadExecutor));
+        add(new ProjectResourcesPrimitive(loggerFactory, resourceService, resourceLoadExecutor));
+    }
+
+    public Spoofax2PrimitiveLibrary(LoggerFactory loggerFactory, ResourceService resourceService) {
+        this(loggerFactory, resourceService, null);
     }
 
     @Override public String getOperatorRegistryName() {
@@ -0,0 +1,144 @@
+package mb.spoofax2.common.primitive;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.spoofax.interpreter.core.InterpreterException;
+import org.spoofax.interpreter.core.Tools;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.TermFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AResourcesPrimitiveTest {
+    private final ITermFactory termFactory = new TermFactory();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final HashMap<String, IStrategoTerm> files = new HashMap<>();
+
+    @AfterEach void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    private void addModule(String name, String... imports) {
+        final ArrayList<IStrategoTerm> importNames = new ArrayList<>();
+        for(String importName : imports) {
+            importNames.add(termFactory.makeString(importName));
+        }
+        files.put(name + ".aterm", termFactory.makeTuple(termFactory.makeString(name), termFactory.makeList(importNames)));
+    }
+
+    private void addMultiLevelClosure() {
+        addModule("main", "a", "b");
+        addModule("a", "c", "d");
+        addModule("b", "d", "e", "a");
+        addModule("c", "f");
+        addModule("d", "f", "g");
+        addModule("e", "g", "main");
+        addModule("f");
+        addModule("g", "c");
+    }
+
+    private List<IStrategoTerm> names(String... names) {
+        final ArrayList<IStrategoTerm> terms = new ArrayList<>();
+        for(String name : names) {
+            terms.add(termFactory.makeString(name));
+        }
+        return terms;
+    }
+
+    private String resolve(IStrategoTerm name) throws InterpreterException {
+        if(!Tools.isTermString(name)) {
+            throw new InterpreterException("Expected name string, got " + name);
+        }
+        return Tools.asJavaString(name) + ".aterm";
+    }
+
+    private List<IStrategoTerm> imports(IStrategoTerm resource) {
+        return Arrays.asList(resource.getSubterm(1).getAllSubterms());
+    }
+
+    private Function<String, Optional<IStrategoTerm>> loader(boolean randomDelays) {
+        final Random random = new Random(0);
+        final int[] delays = new int[64];
+        for(int i = 0; i < delays.length; ++i) {
+            delays[i] = random.nextInt(5);
+        }
+        return path -> {
+            if(randomDelays) {
+                // Let loads complete in a different order than they were started in.
+                try {
+                    Thread.sleep(delays[Math.floorMod(path.hashCode(), delays.length)]);
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Optional.ofNullable(files.get(path));
+        };
+    }
+
+    private @Nullable Map<IStrategoTerm, IStrategoTerm> loadSequentially(List<IStrategoTerm> names) throws InterpreterException {
+        return AResourcesPrimitive.loadSequentially(names, this::resolve, this::imports, loader(false));
+    }
+
+    private @Nullable Map<IStrategoTerm, IStrategoTerm> loadConcurrently(List<IStrategoTerm> names) throws InterpreterException {
+        return AResourcesPrimitive.loadConcurrently(names, this::resolve, this::imports, loader(true), executor);
+    }
+
+
+    @Test void concurrentLoadingEqualsSequentialLoading() throws InterpreterException {
+        addMultiLevelClosure();
+        final List<IStrategoTerm> names = names("main");
+
+        final @Nullable Map<IStrategoTerm, IStrategoTerm> sequential = loadSequentially(names);
+        assertNotNull(sequential);
+        assertEquals(8, sequential.size());
+        for(int i = 0; i < 10; ++i) {
+            final @Nullable Map<IStrategoTerm, IStrategoTerm> concurrent = loadConcurrently(names);
+            assertNotNull(concurrent);
+            // Same tuples, in the same order.
+            assertEquals(new ArrayList<>(sequential.entrySet()), new ArrayList<>(concurrent.entrySet()));
+        }
+    }
+
+    @Test void concurrentLoadingEqualsSequentialLoadingForMultipleInitialNames() throws InterpreterException {
+        addMultiLevelClosure();
+        final List<IStrategoTerm> names = names("e", "c", "e");
+
+        final @Nullable Map<IStrategoTerm, IStrategoTerm> sequential = loadSequentially(names);
+        final @Nullable Map<IStrategoTerm, IStrategoTerm> concurrent = loadConcurrently(names);
+
+        assertNotNull(sequential);
+        assertNotNull(concurrent);
+        assertEquals(new ArrayList<>(sequential.entrySet()), new ArrayList<>(concurrent.entrySet()));
+    }
+
+    @Test void missingResourceFailsBothLoads() throws InterpreterException {
+        addMultiLevelClosure();
+        addModule("f", "missing");
+        final List<IStrategoTerm> names = names("main");
+
+        assertNull(loadSequentially(names));
+        assertNull(loadConcurrently(names));
+    }
+
+    @Test void pathResolutionFailureThrowsInBothLoads() {
+        addMultiLevelClosure();
+        files.put("g.aterm", termFactory.makeTuple(termFactory.makeString("g"), termFactory.makeList(termFactory.makeInt(1))));
+        final List<IStrategoTerm> names = names("main");
+
+        assertThrows(InterpreterException.class, () -> loadSequentially(names));
+        assertThrows(InterpreterException.class, () -> loadConcurrently(names));
+    }
+}
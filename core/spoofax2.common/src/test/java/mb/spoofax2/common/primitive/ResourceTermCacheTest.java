@@ -0,0 +1,120 @@
+package mb.spoofax2.common.primitive;
+
+import mb.resource.fs.FSResource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.TermFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceTermCacheTest {
+    private final ITermFactory termFactory = new TermFactory();
+    private Path directory;
+
+    @BeforeEach void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("resource-term-cache");
+    }
+
+    private FSResource write(String name, String text, Instant modifiedTime) throws IOException {
+        final Path file = Files.write(directory.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.from(modifiedTime));
+        return new FSResource(file);
+    }
+
+
+    @Test void returnsCachedTermWhenStampIsUnchanged() throws IOException {
+        final ResourceTermCache cache = new ResourceTermCache(1024);
+        final FSResource resource = write("a.aterm", "Module(\"a\")", Instant.ofEpochSecond(1000));
+
+        final IStrategoTerm first = cache.get(resource, termFactory);
+        final IStrategoTerm second = cache.get(resource, termFactory);
+
+        assertEquals(termFactory.parseFromString("Module(\"a\")"), first);
+        assertSame(first, second);
+        final ResourceTermCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+        assertEquals(0, stats.stale);
+        assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test void parsesAgainWhenStampChanged() throws IOException {
+        final ResourceTermCache cache = new ResourceTermCache(1024);
+        final FSResource resource = write("a.aterm", "Module(\"a\")", Instant.ofEpochSecond(1000));
+        final IStrategoTerm first = cache.get(resource, termFactory);
+
+        write("a.aterm", "Module(\"b\")", Instant.ofEpochSecond(2000));
+        final IStrategoTerm second = cache.get(resource, termFactory);
+
+        assertNotEquals(first, second);
+        assertEquals(termFactory.parseFromString("Module(\"b\")"), second);
+        final ResourceTermCache.Stats stats = cache.getStats();
+        assertEquals(0, stats.hits);
+        assertEquals(1, stats.stale);
+        assertEquals(1, stats.size);
+        assertSame(second, cache.get(resource, termFactory));
+    }
+
+    @Test void separatesTermFactories() throws IOException {
+        final ResourceTermCache cache = new ResourceTermCache(1024);
+        final FSResource resource = write("a.aterm", "Module(\"a\")", Instant.ofEpochSecond(1000));
+        final ITermFactory otherTermFactory = new TermFactory();
+
+        final IStrategoTerm term = cache.get(resource, termFactory);
+        final IStrategoTerm otherTerm = cache.get(resource, otherTermFactory);
+
+        assertNotSame(term, otherTerm);
+        assertSame(term, cache.get(resource, termFactory));
+        assertSame(otherTerm, cache.get(resource, otherTermFactory));
+        final ResourceTermCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.misses);
+        assertEquals(2, stats.hits);
+        assertEquals(2, stats.size);
+
+        cache.invalidate(resource.getKey());
+        assertEquals(0, cache.getStats().size);
+        assertEquals(0, cache.getStats().weight);
+    }
+
+    @Test void evictsLeastRecentlyUsedTerms() throws IOException {
+        final String text = "Module(\"a\")";
+        final ResourceTermCache cache = new ResourceTermCache(2 * text.length());
+        final FSResource a = write("a.aterm", text, Instant.ofEpochSecond(1000));
+        final FSResource b = write("b.aterm", text, Instant.ofEpochSecond(1000));
+        final FSResource c = write("c.aterm", text, Instant.ofEpochSecond(1000));
+
+        final IStrategoTerm aTerm = cache.get(a, termFactory);
+        final IStrategoTerm bTerm = cache.get(b, termFactory);
+        assertSame(aTerm, cache.get(a, termFactory)); // Makes b the least recently used term.
+        cache.get(c, termFactory);
+
+        final ResourceTermCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.evictions);
+        assertEquals(2, stats.size);
+        assertEquals(2 * text.length(), stats.weight);
+        assertSame(aTerm, cache.get(a, termFactory));
+        assertNotSame(bTerm, cache.get(b, termFactory));
+        assertEquals(2, cache.getStats().evictions);
+    }
+
+    @Test void doesNotCacheFilesLargerThanMaxWeight() throws IOException {
+        final ResourceTermCache cache = new ResourceTermCache(4);
+        final FSResource resource = write("a.aterm", "Module(\"a\")", Instant.ofEpochSecond(1000));
+
+        final IStrategoTerm first = cache.get(resource, termFactory);
+        final IStrategoTerm second = cache.get(resource, termFactory);
+
+        assertNotSame(first, second);
+        assertEquals(0, cache.getStats().size);
+        assertEquals(0, cache.getStats().hits);
+    }
+}
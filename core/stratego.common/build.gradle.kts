@@ -1,9 +1,11 @@
 plugins {
   id("org.metaborg.gradle.config.java-library")
+  id("org.metaborg.gradle.config.junit-testing")
 }
 
 dependencies {
   api(platform(project(":spoofax.depconstraints")))
+  testImplementation(platform(project(":spoofax.depconstraints")))
 
   api(project(":common"))
 
@@ -15,4 +17,7 @@ dependencies {
   api("org.metaborg:org.strategoxt.strj")
 
   compileOnly("org.checkerframework:checker-qual-android")
+
+  testImplementation("org.metaborg:log.backend.noop")
+  testCompileOnly("org.checkerframework:checker-qual-android")
 }
@@ -1,6 +1,5 @@
 package mb.stratego.common;
 
-import com.google.common.collect.Maps;
 import mb.log.api.Level;
 import mb.log.api.Logger;
 import mb.log.api.LoggerFactory;
@@ -16,6 +15,8 @@ import org.spoofax.interpreter.core.InterpreterException;
 import org.spoofax.interpreter.library.IOAgent;
 import org.spoofax.interpreter.library.PrintStreamWriter;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.Closeable;
@@ -27,24 +28,80 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintStream;
 import java.io.Reader;
-import java.io.UnsupportedEncodingException;
 import java.io.Writer;
-import java.util.Map;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StrategoIOAgent extends IOAgent {
+    /**
+     * Size of the buffers of file readers and writers, large enough to write generated files, which Stratego writes
+     * character by character, in few system calls.
+     */
+    private static final int bufferSize = 64 * 1024;
+
     private static class ResourceHandle implements Closeable {
         final WritableResource resource;
+        /** Path of the resource if it is a local file, which is then read and written through file channels. */
+        final @Nullable Path path;
+        final boolean append;
 
         @Nullable Reader reader = null;
         @Nullable Writer writer = null;
         @Nullable InputStream inputStream = null;
         @Nullable OutputStream outputStream = null;
 
-        ResourceHandle(WritableResource resource) {
+        ResourceHandle(WritableResource resource, boolean append) {
             this.resource = resource;
+            this.path = resource instanceof FSResource ? ((FSResource)resource).getJavaPath() : null;
+            this.append = append;
+        }
+
+        synchronized InputStream getInputStream() throws IOException {
+            if(inputStream == null) {
+                if(path != null) {
+                    inputStream = new BufferedInputStream(Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ)), bufferSize);
+                } else {
+                    inputStream = resource.openRead();
+                }
+            }
+            return inputStream;
+        }
+
+        synchronized OutputStream getOutputStream() throws IOException {
+            if(outputStream == null) {
+                assert writer == null;
+                if(path != null) {
+                    final FileChannel channel = append
+                        ? FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                        : FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+                    outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), bufferSize);
+                } else {
+                    outputStream = resource.openWrite();
+                }
+            }
+            return outputStream;
         }
 
-        @Override public void close() throws IOException {
+        synchronized Reader getReader() throws IOException {
+            if(reader == null) {
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), FILE_ENCODING), bufferSize);
+            }
+            return reader;
+        }
+
+        synchronized Writer getWriter() throws IOException {
+            if(writer == null) {
+                final OutputStream outputStream = getOutputStream();
+                // Buffer characters, such that character encoding happens in bulk instead of per character.
+                writer = new BufferedWriter(new OutputStreamWriter(outputStream, FILE_ENCODING), bufferSize);
+            }
+            return writer;
+        }
+
+        @Override public synchronized void close() throws IOException {
             if(reader != null)
                 reader.close();
             if(writer != null)
@@ -60,7 +117,8 @@ public class StrategoIOAgent extends IOAgent {
     private final ResourceService resourceService;
     private final HierarchicalResource tempDir;
 
-    private final Map<Integer, ResourceHandle> openFiles = Maps.newHashMap();
+    // Concurrent map, as runtimes on different threads may share this IO agent, and open and close files concurrently.
+    private final ConcurrentHashMap<Integer, ResourceHandle> openFiles = new ConcurrentHashMap<>();
 
     private final OutputStream stdout;
     private final Writer stdoutWriter;
@@ -195,17 +253,12 @@ public class StrategoIOAgent extends IOAgent {
         } else if(fd == CONST_STDERR) {
             return stderrWriter;
         } else {
-            final ResourceHandle handle = openFiles.get(fd);
-            if(handle.writer == null) {
-                assert handle.outputStream == null;
-                try {
-                    handle.writer =
-                        new BufferedWriter(new OutputStreamWriter(internalGetOutputStream(fd), FILE_ENCODING));
-                } catch(UnsupportedEncodingException e) {
-                    throw new RuntimeException(e);
-                }
+            final ResourceHandle handle = getHandle(fd);
+            try {
+                return handle.getWriter();
+            } catch(IOException e) {
+                throw new RuntimeException("Could not get writer for resource " + handle.resource, e);
             }
-            return handle.writer;
         }
     }
 
@@ -216,25 +269,17 @@ public class StrategoIOAgent extends IOAgent {
         } else if(fd == CONST_STDERR) {
             return stderr;
         } else {
-            final ResourceHandle handle = openFiles.get(fd);
-            if(handle.outputStream == null) {
-                assert handle.writer == null;
-                try {
-                    handle.outputStream = handle.resource.openWrite();
-                } catch(IOException e) {
-                    throw new RuntimeException("Could not get output stream for resource " + handle.resource, e);
-                }
+            final ResourceHandle handle = getHandle(fd);
+            try {
+                return handle.getOutputStream();
+            } catch(IOException e) {
+                throw new RuntimeException("Could not get output stream for resource " + handle.resource, e);
             }
-            return handle.outputStream;
         }
     }
 
     @Override public void writeChar(int fd, int c) throws IOException {
-        if(fd == CONST_STDOUT || fd == CONST_STDERR) {
-            getWriter(fd).append((char)c);
-        } else {
-            getWriter(fd).append((char)c);
-        }
+        getWriter(fd).write(c);
     }
 
     @Override public boolean closeRandomAccessFile(int fd) throws InterpreterException {
@@ -286,43 +331,46 @@ public class StrategoIOAgent extends IOAgent {
             resource.createFile();
         }
 
-        openFiles.put(fileCounter, new ResourceHandle(resource));
-
-        return fileCounter++;
+        final int fd;
+        synchronized(openFiles) {
+            fd = fileCounter++;
+        }
+        openFiles.put(fd, new ResourceHandle(resource, appendMode));
+        return fd;
     }
 
     @Override public InputStream internalGetInputStream(int fd) {
         if(fd == CONST_STDIN) {
             return stdin;
         }
-        final ResourceHandle handle = openFiles.get(fd);
-        if(handle.inputStream == null) {
-            try {
-                handle.inputStream = handle.resource.openRead();
-            } catch(IOException e) {
-                throw new RuntimeException("Could not get input stream for resource " + handle.resource, e);
-            }
+        final ResourceHandle handle = getHandle(fd);
+        try {
+            return handle.getInputStream();
+        } catch(IOException e) {
+            throw new RuntimeException("Could not get input stream for resource " + handle.resource, e);
         }
-        return handle.inputStream;
     }
 
     @Override public Reader getReader(int fd) {
         if(fd == CONST_STDIN) {
             return stdinReader;
         }
-        final ResourceHandle handle = openFiles.get(fd);
+        final ResourceHandle handle = getHandle(fd);
         try {
-            if(handle.reader == null)
-                handle.reader = new BufferedReader(new InputStreamReader(internalGetInputStream(fd), FILE_ENCODING));
-        } catch(UnsupportedEncodingException e) {
-            throw new RuntimeException("Could not get reader for resource", e);
+            return handle.getReader();
+        } catch(IOException e) {
+            throw new RuntimeException("Could not get reader for resource " + handle.resource, e);
         }
-        return handle.reader;
     }
 
     @Override public String readString(int fd) throws IOException {
-        char[] buffer = new char[2048];
-        final StringBuilder result = new StringBuilder();
+        final char[] buffer = new char[8192];
+        final @Nullable ResourceHandle handle = fd != CONST_STDIN ? openFiles.get(fd) : null;
+        // Size the builder to the file size for local files, to prevent growing it while reading large files.
+        final int initialCapacity = handle != null && handle.path != null
+            ? (int)Math.min(Integer.MAX_VALUE - 8, Math.max(16, handle.path.toFile().length()))
+            : 16;
+        final StringBuilder result = new StringBuilder(initialCapacity);
         final Reader reader = getReader(fd);
         for(int read = 0; read != -1; read = reader.read(buffer)) {
             result.append(buffer, 0, read);
@@ -330,6 +378,14 @@ public class StrategoIOAgent extends IOAgent {
         return result.toString();
     }
 
+    private ResourceHandle getHandle(int fd) {
+        final @Nullable ResourceHandle handle = openFiles.get(fd);
+        if(handle == null) {
+            throw new IllegalArgumentException("File descriptor " + fd + " does not refer to an open file");
+        }
+        return handle;
+    }
+
     @Override public String[] readdir(@NonNull String dn) {
         final HierarchicalResource resource = resourceService.appendOrReplaceWithHierarchical(workingDir, dn);
         try {
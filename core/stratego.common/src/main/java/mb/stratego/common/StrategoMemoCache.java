@@ -0,0 +1,206 @@
+package mb.stratego.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded memoization cache for invocations of pure Stratego strategies, keyed by strategy name and input term. Enable
+ * it on a runtime with {@link StrategoRuntime#withMemoCache} or on a builder with {@link
+ * StrategoRuntimeBuilder#withMemoCache}, and share it between runtimes to share memoized results.
+ *
+ * Only invocations of strategies that are declared pure are memoized. A strategy is pure when its output only depends
+ * on the structure of its input term: it may not read or write files, use context objects, depend on dynamic rules or
+ * other state, nor depend on the origins (attachments) of its input, since input terms are compared structurally, and
+ * a memoized output may have been produced from an equal input term with different origins. For the same reason, do
+ * not declare strategies pure whose output carries origins that callers use, such as desugarings that keep the origins
+ * of their input. Failures are memoized as well, exceptions are not.
+ *
+ * The cache is bounded by the total weight of its entries, where the weight of an entry is the number of nodes of its
+ * input and output terms, and evicts least recently used entries first.
+ */
+public class StrategoMemoCache {
+    private final Set<String> pureStrategies;
+    private final long maxWeight;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+
+    /**
+     * @param maxWeight      Maximum total number of term nodes of memoized inputs and outputs.
+     * @param pureStrategies Names of the strategies to memoize.
+     */
+    public StrategoMemoCache(long maxWeight, Collection<String> pureStrategies) {
+        if(maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight of Stratego memo cache must be larger than 0, got " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.pureStrategies = Collections.unmodifiableSet(new HashSet<>(pureStrategies));
+    }
+
+    public StrategoMemoCache(long maxWeight, String... pureStrategies) {
+        this(maxWeight, Arrays.asList(pureStrategies));
+    }
+
+
+    /**
+     * Checks whether invocations of {@code strategy} are memoized.
+     */
+    public boolean isPure(String strategy) {
+        return pureStrategies.contains(strategy);
+    }
+
+    public Set<String> getPureStrategies() {
+        return pureStrategies;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public Stats getStats() {
+        synchronized(entries) {
+            return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), weight);
+        }
+    }
+
+    /**
+     * Removes all memoized results.
+     */
+    public void clear() {
+        synchronized(entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+
+    /**
+     * Gets the memoized result of invoking {@code strategy} on {@code input}, or {@code null} if there is none.
+     */
+    @Nullable Result get(String strategy, IStrategoTerm input) {
+        final @Nullable Entry entry;
+        synchronized(entries) {
+            entry = entries.get(new Key(strategy, input));
+        }
+        if(entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.result;
+    }
+
+    /**
+     * Memoizes {@code output} (or failure when it is {@code null}) as the result of invoking {@code strategy} on {@code
+     * input}.
+     */
+    void put(String strategy, IStrategoTerm input, @Nullable IStrategoTerm output) {
+        final long entryWeight = StrategoProfiler.termSize(input) + (output != null ? StrategoProfiler.termSize(output) : 0);
+        if(entryWeight > maxWeight) return; // Would evict everything else; do not memoize.
+        final Entry entry = new Entry(new Result(output), entryWeight);
+        synchronized(entries) {
+            final @Nullable Entry previous = entries.put(new Key(strategy, input), entry);
+            if(previous != null) {
+                weight -= previous.weight;
+            }
+            weight += entryWeight;
+            final Iterator<Entry> iterator = entries.values().iterator();
+            while(weight > maxWeight && iterator.hasNext()) {
+                final Entry eldest = iterator.next();
+                iterator.remove();
+                weight -= eldest.weight;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+
+    /**
+     * Memoized result, which is a failure if {@link #output} is {@code null}.
+     */
+    static class Result {
+        final @Nullable IStrategoTerm output;
+
+        Result(@Nullable IStrategoTerm output) {
+            this.output = output;
+        }
+    }
+
+    private static class Entry {
+        final Result result;
+        final long weight;
+
+        Entry(Result result, long weight) {
+            this.result = result;
+            this.weight = weight;
+        }
+    }
+
+    private static class Key {
+        final String strategy;
+        final IStrategoTerm input;
+        final int hashCode;
+
+        Key(String strategy, IStrategoTerm input) {
+            this.strategy = strategy;
+            this.input = input;
+            this.hashCode = 31 * strategy.hashCode() + input.hashCode();
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final Key other = (Key)o;
+            return hashCode == other.hashCode && strategy.equals(other.strategy) && input.equals(other.input);
+        }
+
+        @Override public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    public static class Stats {
+        /** Number of invocations of pure strategies that were answered from the cache. */
+        public final long hits;
+        /** Number of invocations of pure strategies that were not in the cache. */
+        public final long misses;
+        /** Number of memoized results that were evicted to stay within the maximum weight. */
+        public final long evictions;
+        /** Number of memoized results. */
+        public final int size;
+        /** Total weight of memoized results. */
+        public final long weight;
+
+        public Stats(long hits, long misses, long evictions, int size, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        @Override public String toString() {
+            return "Stats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", size=" + size +
+                ", weight=" + weight +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package mb.stratego.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe per-strategy metrics of {@link StrategoRuntime#invoke} calls. Profiling is opt-in: set a profiler on a
+ * runtime with {@link StrategoRuntime#withProfiler} or on a builder with {@link StrategoRuntimeBuilder#withProfiler},
+ * and share it between runtimes to aggregate their metrics.
+ *
+ * Only invocations through {@link StrategoRuntime#invoke} are recorded, not the strategies they call. Measuring term
+ * sizes requires traversing input and output terms, and is therefore only done when enabled. Allocated bytes are
+ * estimated with the allocation counter of the invoking thread, when the JVM supports it, and include allocations of
+ * everything that the strategy calls, such as primitives.
+ */
+public class StrategoProfiler {
+    private final boolean measureTermSizes;
+    private final @Nullable ThreadMXBean allocationCounter;
+    private final ConcurrentHashMap<String, StrategyMetrics> metrics = new ConcurrentHashMap<>();
+
+
+    public StrategoProfiler(boolean measureTermSizes, boolean measureAllocations) {
+        this.measureTermSizes = measureTermSizes;
+        this.allocationCounter = measureAllocations ? allocationCounter() : null;
+    }
+
+    public StrategoProfiler() {
+        this(true, true);
+    }
+
+
+    /**
+     * Gets the metrics of {@code strategy}, or {@code null} if it has not been invoked since the last {@link #reset()}.
+     */
+    public @Nullable StrategyMetrics getMetrics(String strategy) {
+        return metrics.get(strategy);
+    }
+
+    /**
+     * Gets the metrics of all invoked strategies, keyed by strategy name.
+     */
+    public Map<String, StrategyMetrics> getMetrics() {
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Gets the metrics of all invoked strategies, ordered by total invocation time, from high to low.
+     */
+    public ArrayList<StrategyMetrics> getMetricsByTotalTime() {
+        final ArrayList<StrategyMetrics> list = new ArrayList<>(metrics.values());
+        list.sort(Comparator.comparingLong(StrategyMetrics::getTotalNanos).reversed());
+        return list;
+    }
+
+    public boolean isMeasuringTermSizes() {
+        return measureTermSizes;
+    }
+
+    public boolean isMeasuringAllocations() {
+        return allocationCounter != null;
+    }
+
+    /**
+     * Removes all metrics.
+     */
+    public void reset() {
+        metrics.clear();
+    }
+
+
+    /**
+     * Writes the metrics of all invoked strategies as JSON to {@code writer}, ordered by total invocation time.
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\"strategies\":[");
+        boolean first = true;
+        for(StrategyMetrics strategyMetrics : getMetricsByTotalTime()) {
+            if(!first) writer.write(',');
+            first = false;
+            strategyMetrics.writeJson(writer);
+        }
+        writer.write("]}");
+    }
+
+    /**
+     * Gets the metrics of all invoked strategies as a JSON string.
+     *
+     * @see #writeJson(Writer)
+     */
+    public String toJson() {
+        final StringWriter writer = new StringWriter();
+        try {
+            writeJson(writer);
+        } catch(IOException e) {
+            // StringWriter does not throw IOException.
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+
+    Invocation start(String strategy, IStrategoTerm input) {
+        final long inputSize = measureTermSizes ? termSize(input) : 0;
+        final long allocatedBytes = allocatedBytes();
+        return new Invocation(strategy, inputSize, allocatedBytes, System.nanoTime());
+    }
+
+    void end(Invocation invocation, @Nullable IStrategoTerm output, boolean exception) {
+        final long nanos = System.nanoTime() - invocation.startNanos;
+        final long allocatedBytes = allocationCounter != null ? allocatedBytes() - invocation.startAllocatedBytes : 0;
+        final long outputSize = measureTermSizes && output != null ? termSize(output) : 0;
+        metrics.computeIfAbsent(invocation.strategy, StrategyMetrics::new)
+            .record(nanos, invocation.inputSize, outputSize, allocatedBytes, output == null && !exception, exception);
+    }
+
+
+    private long allocatedBytes() {
+        if(allocationCounter == null) return 0;
+        return ((com.sun.management.ThreadMXBean)allocationCounter).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static @Nullable ThreadMXBean allocationCounter() {
+        try {
+            final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if(!(threadMXBean instanceof com.sun.management.ThreadMXBean)) return null;
+            final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean)threadMXBean;
+            if(!sunThreadMXBean.isThreadAllocatedMemorySupported()) return null;
+            if(!sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threadMXBean;
+        } catch(NoClassDefFoundError | UnsupportedOperationException | SecurityException e) {
+            // Allocation counters are not available on this JVM; do not measure allocations.
+            return null;
+        }
+    }
+
+    /**
+     * Counts the number of nodes in {@code term}, counting shared subterms once per occurrence.
+     */
+    static long termSize(IStrategoTerm term) {
+        long size = 0;
+        final ArrayDeque<IStrategoTerm> worklist = new ArrayDeque<>();
+        worklist.push(term);
+        while(!worklist.isEmpty()) {
+            final IStrategoTerm current = worklist.pop();
+            ++size;
+            final int subtermCount = current.getSubtermCount();
+            for(int i = 0; i < subtermCount; ++i) {
+                worklist.push(current.getSubterm(i));
+            }
+        }
+        return size;
+    }
+
+
+    static class Invocation {
+        final String strategy;
+        final long inputSize;
+        final long startAllocatedBytes;
+        final long startNanos;
+
+        Invocation(String strategy, long inputSize, long startAllocatedBytes, long startNanos) {
+            this.strategy = strategy;
+            this.inputSize = inputSize;
+            this.startAllocatedBytes = startAllocatedBytes;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * Metrics of invocations of a single strategy.
+     */
+    public static class StrategyMetrics {
+        private final String strategy;
+        private final AtomicLong invocations = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong exceptions = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong inputTermSize = new AtomicLong();
+        private final AtomicLong outputTermSize = new AtomicLong();
+        private final AtomicLong allocatedBytes = new AtomicLong();
+
+
+        StrategyMetrics(String strategy) {
+            this.strategy = strategy;
+        }
+
+
+        /** Gets the name of the strategy. */
+        public String getStrategy() {
+            return strategy;
+        }
+
+        /** Gets the number of invocations. */
+        public long getInvocations() {
+            return invocations.get();
+        }
+
+        /** Gets the number of invocations where the strategy failed. */
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /** Gets the number of invocations that threw an exception. */
+        public long getExceptions() {
+            return exceptions.get();
+        }
+
+        /** Gets the total wall time of all invocations, in nanoseconds. */
+        public long getTotalNanos() {
+            return totalNanos.get();
+        }
+
+        /** Gets the wall time of the slowest invocation, in nanoseconds. */
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /** Gets the summed number of nodes of input terms, or 0 if term sizes are not measured. */
+        public long getInputTermSize() {
+            return inputTermSize.get();
+        }
+
+        /** Gets the summed number of nodes of output terms, or 0 if term sizes are not measured. */
+        public long getOutputTermSize() {
+            return outputTermSize.get();
+        }
+
+        /** Gets the estimated number of bytes allocated by all invocations, or 0 if allocations are not measured. */
+        public long getAllocatedBytes() {
+            return allocatedBytes.get();
+        }
+
+
+        void record(long nanos, long inputSize, long outputSize, long allocated, boolean failure, boolean exception) {
+            invocations.incrementAndGet();
+            if(failure) failures.incrementAndGet();
+            if(exception) exceptions.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            inputTermSize.addAndGet(inputSize);
+            outputTermSize.addAndGet(outputSize);
+            allocatedBytes.addAndGet(allocated);
+        }
+
+        void writeJson(Writer writer) throws IOException {
+            writer.write("{\"strategy\":");
+            writeJsonString(writer, strategy);
+            writer.write(",\"invocations\":" + invocations);
+            writer.write(",\"failures\":" + failures);
+            writer.write(",\"exceptions\":" + exceptions);
+            writer.write(",\"totalNanos\":" + totalNanos);
+            writer.write(",\"maxNanos\":" + maxNanos);
+            writer.write(",\"inputTermSize\":" + inputTermSize);
+            writer.write(",\"outputTermSize\":" + outputTermSize);
+            writer.write(",\"allocatedBytes\":" + allocatedBytes);
+            writer.write('}');
+        }
+
+        private static void writeJsonString(Writer writer, String str) throws IOException {
+            writer.write('"');
+            for(int i = 0; i < str.length(); ++i) {
+                final char c = str.charAt(i);
+                if(c == '"' || c == '\\') {
+                    writer.write('\\');
+                    writer.write(c);
+                } else if(c < 0x20) {
+                    writer.write(String.format("\\u%04x", (int)c));
+                } else {
+                    writer.write(c);
+                }
+            }
+            writer.write('"');
+        }
+
+
+        @Override public String toString() {
+            return "StrategyMetrics{" +
+                "strategy='" + strategy + '\'' +
+                ", invocations=" + invocations +
+                ", failures=" + failures +
+                ", exceptions=" + exceptions +
+                ", totalNanos=" + totalNanos +
+                ", maxNanos=" + maxNanos +
+                ", inputTermSize=" + inputTermSize +
+                ", outputTermSize=" + outputTermSize +
+                ", allocatedBytes=" + allocatedBytes +
+                '}';
+        }
+    }
+}
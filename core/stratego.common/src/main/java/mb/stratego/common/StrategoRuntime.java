@@ -3,6 +3,7 @@ package mb.stratego.common;
 import mb.common.util.StringFormatter;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.core.InterpreterErrorExit;
+import org.spoofax.interpreter.core.Interpreter;
 import org.spoofax.interpreter.core.InterpreterException;
 import org.spoofax.interpreter.core.InterpreterExit;
 import org.spoofax.interpreter.core.Tools;
@@ -16,12 +17,24 @@ public class StrategoRuntime {
     private final HybridInterpreter hybridInterpreter;
     private final StrategoIOAgent ioAgent;
     private final AdaptableContext contextObject;
+    private final @Nullable StrategoProfiler profiler;
+    private final @Nullable StrategoMemoCache memoCache;
 
 
-    public StrategoRuntime(HybridInterpreter hybridInterpreter, StrategoIOAgent ioAgent, AdaptableContext contextObject) {
+    public StrategoRuntime(HybridInterpreter hybridInterpreter, StrategoIOAgent ioAgent, AdaptableContext contextObject, @Nullable StrategoProfiler profiler, @Nullable StrategoMemoCache memoCache) {
         this.hybridInterpreter = hybridInterpreter;
         this.ioAgent = ioAgent;
         this.contextObject = contextObject;
+        this.profiler = profiler;
+        this.memoCache = memoCache;
+    }
+
+    public StrategoRuntime(HybridInterpreter hybridInterpreter, StrategoIOAgent ioAgent, AdaptableContext contextObject, @Nullable StrategoProfiler profiler) {
+        this(hybridInterpreter, ioAgent, contextObject, profiler, null);
+    }
+
+    public StrategoRuntime(HybridInterpreter hybridInterpreter, StrategoIOAgent ioAgent, AdaptableContext contextObject) {
+        this(hybridInterpreter, ioAgent, contextObject, null);
     }
 
     public StrategoRuntime(HybridInterpreter hybridInterpreter, StrategoIOAgent ioAgent) {
@@ -29,25 +42,105 @@ public class StrategoRuntime {
     }
 
     @SuppressWarnings("CopyConstructorMissesField") public StrategoRuntime(StrategoRuntime other) {
-        this(other.hybridInterpreter, new StrategoIOAgent(other.ioAgent), new AdaptableContext(other.contextObject));
+        this(other.hybridInterpreter, new StrategoIOAgent(other.ioAgent), new AdaptableContext(other.contextObject), other.profiler, other.memoCache);
     }
 
     public StrategoRuntime(StrategoRuntime other, StrategoIOAgent ioAgent) {
-        this(other.hybridInterpreter, ioAgent, new AdaptableContext(other.contextObject));
+        this(other.hybridInterpreter, ioAgent, new AdaptableContext(other.contextObject), other.profiler, other.memoCache);
     }
 
     public StrategoRuntime(StrategoRuntime other, AdaptableContext contextObject) {
-        this(other.hybridInterpreter, new StrategoIOAgent(other.ioAgent), contextObject);
+        this(other.hybridInterpreter, new StrategoIOAgent(other.ioAgent), contextObject, other.profiler, other.memoCache);
     }
 
     public StrategoRuntime(StrategoRuntime other, StrategoIOAgent ioAgent, AdaptableContext contextObject) {
-        this(other.hybridInterpreter, ioAgent, contextObject);
+        this(other.hybridInterpreter, ioAgent, contextObject, other.profiler, other.memoCache);
+    }
+
+    public StrategoRuntime(StrategoRuntime other, @Nullable StrategoProfiler profiler) {
+        this(other.hybridInterpreter, new StrategoIOAgent(other.ioAgent), new AdaptableContext(other.contextObject), profiler, other.memoCache);
+    }
+
+
+    /**
+     * Looks up the strategy with given {@code name}, and returns a handle to it which can be used to invoke the
+     * strategy on this runtime and runtimes built from it. Look up strategies when loading a language, such that
+     * missing strategies are detected early, instead of on their first invocation.
+     *
+     * @throws IllegalArgumentException When no strategy with given name (and no strategy or term arguments) exists.
+     */
+    public StrategyHandle lookup(String name) {
+        final String definitionName = Interpreter.cify(name) + "_0_0";
+        final boolean defined;
+        try {
+            defined = lookupDefinition(definitionName) != null;
+        } catch(InterpreterException e) {
+            throw new IllegalArgumentException("Looking up Stratego strategy '" + name + "' failed unexpectedly", e);
+        }
+        if(!defined) {
+            throw new IllegalArgumentException("Stratego strategy '" + name + "' is undefined");
+        }
+        return new StrategyHandle(name);
+    }
+
+    private @Nullable Object lookupDefinition(String definitionName) throws InterpreterException {
+        return hybridInterpreter.getContext().lookupSVar(definitionName);
     }
 
+    /**
+     * Invokes the strategy of {@code strategy} on {@code input}.
+     *
+     * @return Output term, or {@code null} if the strategy failed.
+     * @throws StrategoException When invoking the strategy throws an exception.
+     */
+    public @Nullable IStrategoTerm invoke(StrategyHandle strategy, IStrategoTerm input) throws StrategoException {
+        return invoke(strategy.getName(), input);
+    }
 
+    /**
+     * Invokes {@code strategy} on {@code input}. If a memo cache is set and {@code strategy} is declared pure in it,
+     * returns the memoized result of a previous invocation on a structurally equal input term, if any.
+     *
+     * @return Output term, or {@code null} if the strategy failed.
+     * @throws StrategoException When invoking the strategy throws an exception.
+     */
     public @Nullable IStrategoTerm invoke(String strategy, IStrategoTerm input) throws StrategoException {
+        final @Nullable StrategoMemoCache memoCache = this.memoCache;
+        if(memoCache == null || !memoCache.isPure(strategy)) {
+            return profiledInvoke(strategy, input);
+        }
+        final StrategoMemoCache.@Nullable Result memoized = memoCache.get(strategy, input);
+        if(memoized != null) {
+            return memoized.output;
+        }
+        final @Nullable IStrategoTerm output = profiledInvoke(strategy, input);
+        memoCache.put(strategy, input, output);
+        return output;
+    }
+
+    private @Nullable IStrategoTerm profiledInvoke(String strategy, IStrategoTerm input) throws StrategoException {
+        final @Nullable StrategoProfiler profiler = this.profiler;
+        if(profiler == null) {
+            return doInvoke(strategy, input);
+        }
+        final StrategoProfiler.Invocation invocation = profiler.start(strategy, input);
+        @Nullable IStrategoTerm output = null;
+        boolean exception = true;
+        try {
+            output = doInvoke(strategy, input);
+            exception = false;
+            return output;
+        } finally {
+            profiler.end(invocation, output, exception);
+        }
+    }
+
+    private @Nullable IStrategoTerm doInvoke(String strategy, IStrategoTerm input) throws StrategoException {
         hybridInterpreter.setCurrent(input);
-        hybridInterpreter.setIOAgent(ioAgent);
+        if(hybridInterpreter.getIOAgent() != ioAgent) {
+            // Setting the IO agent updates the IO agents of all operator registries; only do so when it changed.
+            hybridInterpreter.setIOAgent(ioAgent);
+        }
         hybridInterpreter.getContext().setContextObject(contextObject);
         hybridInterpreter.getCompiledContext().setContextObject(contextObject);
         try {
@@ -69,6 +162,22 @@ public class StrategoRuntime {
         return new StrategoRuntime(this, contextObject);
     }
 
+    /**
+     * Creates a runtime that records metrics of its invocations into {@code profiler}, or that does not record metrics
+     * if {@code profiler} is {@code null}.
+     */
+    public StrategoRuntime withProfiler(@Nullable StrategoProfiler profiler) {
+        return new StrategoRuntime(this, profiler);
+    }
+
+    /**
+     * Creates a runtime that memoizes invocations of pure strategies in {@code memoCache}, or that does not memoize
+     * invocations if {@code memoCache} is {@code null}.
+     */
+    public StrategoRuntime withMemoCache(@Nullable StrategoMemoCache memoCache) {
+        return new StrategoRuntime(hybridInterpreter, new StrategoIOAgent(ioAgent), new AdaptableContext(contextObject), profiler, memoCache);
+    }
+
     public StrategoRuntime addContextObject(Object contextObject) {
         final AdaptableContext newContextObject = new AdaptableContext(this.contextObject);
         newContextObject.put(contextObject);
@@ -100,6 +209,14 @@ public class StrategoRuntime {
         return contextObject;
     }
 
+    public @Nullable StrategoProfiler getProfiler() {
+        return profiler;
+    }
+
+    public @Nullable StrategoMemoCache getMemoCache() {
+        return memoCache;
+    }
+
 
     private static class ExceptionData {
         final String message;
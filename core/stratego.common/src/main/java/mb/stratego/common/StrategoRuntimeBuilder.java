@@ -22,6 +22,9 @@ public class StrategoRuntimeBuilder {
     private StrategoIOAgent ioAgent;
     private @Nullable ClassLoader jarParentClassLoader;
     private AdaptableContext contextObject;
+    private @Nullable StrategoRuntimeCache cache;
+    private @Nullable StrategoProfiler profiler;
+    private @Nullable StrategoMemoCache memoCache;
 
     private final ArrayList<String> components;
     private final ArrayList<IOperatorRegistry> libraries;
@@ -36,6 +39,9 @@ public class StrategoRuntimeBuilder {
         this.ioAgent = defaultIoAgent(loggerFactory, resourceService);
         this.jarParentClassLoader = null;
         this.contextObject = new AdaptableContext();
+        this.cache = StrategoRuntimeCache.shared();
+        this.profiler = null;
+        this.memoCache = null;
 
         this.components = defaultComponents();
         this.libraries = new ArrayList<>();
@@ -50,6 +56,9 @@ public class StrategoRuntimeBuilder {
         this.ioAgent = new StrategoIOAgent(other.ioAgent);
         this.jarParentClassLoader = other.jarParentClassLoader;
         this.contextObject = new AdaptableContext(other.contextObject);
+        this.cache = other.cache;
+        this.profiler = other.profiler;
+        this.memoCache = other.memoCache;
 
         this.components = new ArrayList<>(other.components);
         this.libraries = new ArrayList<>(other.libraries);
@@ -148,6 +157,35 @@ public class StrategoRuntimeBuilder {
     }
 
 
+    /**
+     * Sets the cache of CTrees, JAR class loaders, and interop registerer classes that {@link #build} uses, or disables
+     * caching when {@code cache} is {@code null}. Defaults to {@link StrategoRuntimeCache#shared()}.
+     */
+    public StrategoRuntimeBuilder withCache(@Nullable StrategoRuntimeCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+
+    /**
+     * Sets the profiler that records metrics of invocations on built runtimes, or disables profiling when {@code
+     * profiler} is {@code null}. Disabled by default.
+     */
+    public StrategoRuntimeBuilder withProfiler(@Nullable StrategoProfiler profiler) {
+        this.profiler = profiler;
+        return this;
+    }
+
+    /**
+     * Sets the cache that memoizes invocations of pure strategies on built runtimes, or disables memoization when
+     * {@code memoCache} is {@code null}. Disabled by default.
+     */
+    public StrategoRuntimeBuilder withMemoCache(@Nullable StrategoMemoCache memoCache) {
+        this.memoCache = memoCache;
+        return this;
+    }
+
+
     public StrategoRuntimeBuilder copy() {
         return new StrategoRuntimeBuilder(this);
     }
@@ -157,6 +195,7 @@ public class StrategoRuntimeBuilder {
      * @throws RuntimeException When building the Stratego runtime fails unexpectedly.
      */
     public StrategoRuntime build() {
+        final @Nullable StrategoRuntimeCache cache = this.cache;
         final HybridInterpreter hybridInterpreter = new HybridInterpreter(termFactory);
         for(String component : components) {
             hybridInterpreter.getCompiledContext().registerComponent(component);
@@ -168,8 +207,12 @@ public class StrategoRuntimeBuilder {
 
         for(ReadableResource resource : ctrees) {
             try {
-                // Load buffers the input stream, and closes the buffered stream, which closes our stream.
-                hybridInterpreter.load(resource.openRead());
+                if(cache != null) {
+                    hybridInterpreter.load(cache.getCtree(resource, termFactory));
+                } else {
+                    // Load buffers the input stream, and closes the buffered stream, which closes our stream.
+                    hybridInterpreter.load(resource.openRead());
+                }
             } catch(IOException | InterpreterException e) {
                 throw new RuntimeException("Loading Stratego CTree from resource '" + resource + "' failed unexpectedly", e);
             }
@@ -178,7 +221,11 @@ public class StrategoRuntimeBuilder {
         final URL[] classpath = jars.toArray(new URL[0]);
         if(classpath.length > 0) {
             try {
-                hybridInterpreter.loadJars(jarParentClassLoader, classpath);
+                // Load JARs with a cached class loader as parent, such that their classes are defined only once, and
+                // the class loader that the interpreter creates delegates to those classes.
+                final @Nullable ClassLoader parentClassLoader =
+                    cache != null ? cache.getClassLoader(jarParentClassLoader, jars) : jarParentClassLoader;
+                hybridInterpreter.loadJars(parentClassLoader, classpath);
             } catch(IOException | IncompatibleJarException e) {
                 throw new RuntimeException("Loading Stratego JAR from resources '" + jars + "' failed unexpectedly", e);
             }
@@ -190,7 +237,14 @@ public class StrategoRuntimeBuilder {
 
         for(String interopRegistererClassName : interopRegisterersByReflection) {
             try {
-                final Class<?> interopRegistererClass = Class.forName(interopRegistererClassName);
+                final Class<?> interopRegistererClass;
+                if(cache != null) {
+                    interopRegistererClass = cache.loadClass(jarParentClassLoader, interopRegistererClassName);
+                } else if(jarParentClassLoader != null) {
+                    interopRegistererClass = Class.forName(interopRegistererClassName, true, jarParentClassLoader);
+                } else {
+                    interopRegistererClass = Class.forName(interopRegistererClassName);
+                }
                 final InteropRegisterer interopRegisterer = (InteropRegisterer)interopRegistererClass.newInstance();
                 hybridInterpreter.registerClass(interopRegisterer, jarParentClassLoader);
             } catch(IllegalAccessException | InstantiationException | ClassNotFoundException e) {
@@ -201,7 +255,7 @@ public class StrategoRuntimeBuilder {
         hybridInterpreter.getCompiledContext().getExceptionHandler().setEnabled(false);
         hybridInterpreter.init();
 
-        return new StrategoRuntime(hybridInterpreter, ioAgent, contextObject);
+        return new StrategoRuntime(hybridInterpreter, ioAgent, contextObject, profiler, memoCache);
     }
 
     public StrategoRuntime buildFromPrototype(StrategoRuntime prototype) {
@@ -219,6 +273,8 @@ public class StrategoRuntimeBuilder {
 
         hybridInterpreter.init();
 
-        return new StrategoRuntime(hybridInterpreter, new StrategoIOAgent(prototype.getIoAgent()), new AdaptableContext(prototype.getContextObject()));
+        final @Nullable StrategoProfiler profiler = this.profiler != null ? this.profiler : prototype.getProfiler();
+        final @Nullable StrategoMemoCache memoCache = this.memoCache != null ? this.memoCache : prototype.getMemoCache();
+        return new StrategoRuntime(hybridInterpreter, new StrategoIOAgent(prototype.getIoAgent()), new AdaptableContext(prototype.getContextObject()), profiler, memoCache);
     }
 }
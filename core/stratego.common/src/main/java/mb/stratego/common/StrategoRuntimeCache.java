@@ -0,0 +1,437 @@
+package mb.stratego.common;
+
+import mb.resource.ReadableResource;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.io.binary.TermReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the expensive-to-load parts of a {@link StrategoRuntime}, shared between {@link StrategoRuntimeBuilder#build}
+ * calls, such that building the same runtime repeatedly does not parse the same CTrees, define the same JAR classes,
+ * or look up the same interop registerer classes again.
+ *
+ * CTrees and JARs are keyed by the SHA-256 hash of their contents, such that changed CTrees and JARs are loaded again,
+ * and identical ones are shared even when they are loaded from different resources. Contents are only read and hashed
+ * when the stamp (location, modification time, and size) of a CTree or JAR changed since it was last hashed, or when
+ * it has no known stamp (e.g. JARs that are not local files). CTrees are additionally keyed by the term factory they
+ * are parsed with, and JAR class loaders and classes by the class loader they are loaded from, such that runtimes with
+ * different term factories or class loaders do not share them.
+ *
+ * Term factories and class loaders are held weakly, such that this cache does not keep them (e.g. the class loader of
+ * an unloaded plugin) alive. JAR class loaders are held weakly as well, as they refer to their parent class loader: a
+ * JAR class loader is shared while a runtime that uses it is alive, and its JAR files are closed when it is garbage
+ * collected. Loaders are not closed on eviction, as runtimes that still use an evicted loader load classes from it
+ * lazily. All caches are bounded and evict their least recently used entries.
+ */
+public class StrategoRuntimeCache {
+    private static final StrategoRuntimeCache shared = new StrategoRuntimeCache(64, 16, 256);
+
+    private final Map<Stamp, ContentHash> contentHashes;
+    private final Map<CtreeKey, IStrategoTerm> ctrees;
+    private final Map<ClassLoaderKey, WeakReference<ClassLoader>> classLoaders;
+    private final Map<ClassKey, WeakReference<Class<?>>> classes;
+
+    private final AtomicLong stampHits = new AtomicLong();
+    private final AtomicLong stampMisses = new AtomicLong();
+    private final AtomicLong ctreeHits = new AtomicLong();
+    private final AtomicLong ctreeMisses = new AtomicLong();
+    private final AtomicLong classLoaderHits = new AtomicLong();
+    private final AtomicLong classLoaderMisses = new AtomicLong();
+
+
+    public StrategoRuntimeCache(int maxCtrees, int maxClassLoaders, int maxClasses) {
+        this.contentHashes = lruMap(maxCtrees + 4 * maxClassLoaders);
+        this.ctrees = lruMap(maxCtrees);
+        this.classLoaders = lruMap(maxClassLoaders);
+        this.classes = lruMap(maxClasses);
+    }
+
+    public StrategoRuntimeCache(int maxCtrees, int maxClassLoaders) {
+        this(maxCtrees, maxClassLoaders, 256);
+    }
+
+    /**
+     * Gets the process-wide cache, which is used by {@link StrategoRuntimeBuilder} by default.
+     */
+    public static StrategoRuntimeCache shared() {
+        return shared;
+    }
+
+
+    /**
+     * Gets the CTree (compiled Stratego program) term parsed from {@code resource} with {@code termFactory}, parsing it
+     * if it is not in the cache. {@code resource} is only read when its stamp changed since it was last read, or when
+     * its CTree is not cached for {@code termFactory}.
+     */
+    public IStrategoTerm getCtree(ReadableResource resource, ITermFactory termFactory) throws IOException {
+        final @Nullable Stamp stamp = stamp(resource);
+        final @Nullable ContentHash stampedHash = getContentHash(stamp);
+        final byte @Nullable [] bytes = stampedHash == null ? resource.readBytes() : null;
+        final ContentHash hash = stampedHash != null ? stampedHash : putContentHash(stamp, bytes);
+        final @Nullable IStrategoTerm cached = ctrees.get(new CtreeKey(hash, termFactory));
+        if(cached != null) {
+            ctreeHits.incrementAndGet();
+            return cached;
+        }
+        return parseCtree(hash, bytes != null ? bytes : resource.readBytes(), termFactory);
+    }
+
+    /**
+     * Gets the CTree (compiled Stratego program) term parsed from {@code bytes} with {@code termFactory}, parsing it if
+     * it is not in the cache. Terms are immutable and can be shared between interpreters that use {@code termFactory}.
+     */
+    public IStrategoTerm getCtree(byte[] bytes, ITermFactory termFactory) throws IOException {
+        final ContentHash hash = new ContentHash(bytes);
+        final @Nullable IStrategoTerm cached = ctrees.get(new CtreeKey(hash, termFactory));
+        if(cached != null) {
+            ctreeHits.incrementAndGet();
+            return cached;
+        }
+        return parseCtree(hash, bytes, termFactory);
+    }
+
+    /**
+     * Gets a class loader for {@code jars} with {@code parent} as parent class loader, creating it if it is not in the
+     * cache. Classes that are loaded from the returned class loader are defined only once for the same contents of
+     * {@code jars}, instead of once per runtime. JARs are only read when their stamp changed since they were last read.
+     */
+    public ClassLoader getClassLoader(@Nullable ClassLoader parent, List<URL> jars) throws IOException {
+        final ContentHash[] hashes = new ContentHash[jars.size()];
+        for(int i = 0; i < hashes.length; ++i) {
+            final URL jar = jars.get(i);
+            final @Nullable Stamp stamp = stamp(jar);
+            final @Nullable ContentHash stampedHash = getContentHash(stamp);
+            if(stampedHash != null) {
+                hashes[i] = stampedHash;
+            } else {
+                try(final InputStream inputStream = jar.openStream()) {
+                    hashes[i] = putContentHash(stamp, readAll(inputStream));
+                }
+            }
+        }
+        final ClassLoaderKey key = new ClassLoaderKey(parent, hashes);
+        synchronized(classLoaders) {
+            final @Nullable WeakReference<ClassLoader> cachedReference = classLoaders.get(key);
+            final @Nullable ClassLoader cached = cachedReference != null ? cachedReference.get() : null;
+            if(cached != null) {
+                classLoaderHits.incrementAndGet();
+                return cached;
+            }
+            classLoaderMisses.incrementAndGet();
+            final ClassLoader classLoader = new URLClassLoader(jars.toArray(new URL[0]), parent);
+            removeCleared(classLoaders);
+            classLoaders.put(key, new WeakReference<>(classLoader));
+            return classLoader;
+        }
+    }
+
+    /**
+     * Gets the class with given {@code className} from {@code classLoader}, or from the class loader of this class if
+     * {@code classLoader} is {@code null}, caching the result.
+     */
+    public Class<?> loadClass(@Nullable ClassLoader classLoader, String className) throws ClassNotFoundException {
+        final ClassKey key = new ClassKey(classLoader, className);
+        final @Nullable WeakReference<Class<?>> cachedReference = classes.get(key);
+        final @Nullable Class<?> cached = cachedReference != null ? cachedReference.get() : null;
+        if(cached != null) return cached;
+        final Class<?> cls = Class.forName(className, true, classLoader != null ? classLoader : StrategoRuntimeCache.class.getClassLoader());
+        synchronized(classes) {
+            removeCleared(classes);
+            // Classes refer to their class loader, so hold them weakly to not keep their class loader alive.
+            classes.put(key, new WeakReference<>(cls));
+        }
+        return cls;
+    }
+
+    /**
+     * Clears this cache. Runtimes built from cached entries are not affected.
+     */
+    public void clear() {
+        contentHashes.clear();
+        ctrees.clear();
+        classLoaders.clear();
+        classes.clear();
+    }
+
+    public Stats getStats() {
+        return new Stats(stampHits.get(), stampMisses.get(), ctreeHits.get(), ctreeMisses.get(), classLoaderHits.get(), classLoaderMisses.get());
+    }
+
+
+    private @Nullable ContentHash getContentHash(@Nullable Stamp stamp) {
+        final @Nullable ContentHash hash = stamp != null ? contentHashes.get(stamp) : null;
+        if(hash != null) {
+            stampHits.incrementAndGet();
+        } else {
+            stampMisses.incrementAndGet();
+        }
+        return hash;
+    }
+
+    private ContentHash putContentHash(@Nullable Stamp stamp, byte[] bytes) {
+        final ContentHash hash = new ContentHash(bytes);
+        if(stamp != null) {
+            contentHashes.put(stamp, hash);
+        }
+        return hash;
+    }
+
+    private IStrategoTerm parseCtree(ContentHash hash, byte[] bytes, ITermFactory termFactory) throws IOException {
+        ctreeMisses.incrementAndGet();
+        // Parse outside the lock; parsing the same CTree concurrently is harmless.
+        final IStrategoTerm ctree = new TermReader(termFactory).parseFromStream(new ByteArrayInputStream(bytes));
+        synchronized(ctrees) {
+            removeCleared(ctrees);
+            ctrees.put(new CtreeKey(hash, termFactory), ctree);
+        }
+        return ctree;
+    }
+
+    private static @Nullable Stamp stamp(ReadableResource resource) throws IOException {
+        final Instant lastModified = resource.getLastModifiedTime();
+        // Resources use Instant.MIN and Instant.MAX for unknown modification stamps.
+        if(lastModified.equals(Instant.MIN) || lastModified.equals(Instant.MAX)) return null;
+        return new Stamp(resource.getKey(), lastModified, resource.getSize());
+    }
+
+    private static @Nullable Stamp stamp(URL jar) {
+        // Only local files can be stamped without reading them.
+        if(!"file".equals(jar.getProtocol())) return null;
+        try {
+            final Path path = Paths.get(jar.toURI());
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new Stamp(jar.toString(), attributes.lastModifiedTime().toInstant(), attributes.size());
+        } catch(URISyntaxException | IllegalArgumentException | FileSystemNotFoundException | IOException e) {
+            return null;
+        }
+    }
+
+    private static <K, V> Map<K, V> lruMap(int maxSize) {
+        return Collections.synchronizedMap(new LinkedHashMap<K, V>(maxSize, 0.75f, true) {
+            @Override protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    /**
+     * Removes entries of {@code map} that refer to a garbage collected term factory, class loader, or class. Must be
+     * called while holding the lock of {@code map}.
+     */
+    private static void removeCleared(Map<?, ?> map) {
+        map.entrySet().removeIf(entry -> isCleared(entry.getKey()) || isCleared(entry.getValue()));
+    }
+
+    private static boolean isCleared(Object object) {
+        if(object instanceof WeakReference<?>) return ((WeakReference<?>)object).get() == null;
+        if(object instanceof WeakKey) return ((WeakKey)object).isCleared();
+        return false;
+    }
+
+    private static byte[] readAll(InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return outputStream.toByteArray();
+    }
+
+
+    private static final class Stamp {
+        private final Object location;
+        private final Instant lastModified;
+        private final long size;
+
+        Stamp(Object location, Instant lastModified, long size) {
+            this.location = location;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final Stamp other = (Stamp)o;
+            return size == other.size && location.equals(other.location) && lastModified.equals(other.lastModified);
+        }
+
+        @Override public int hashCode() {
+            return Objects.hash(location, lastModified, size);
+        }
+    }
+
+    private static final class ContentHash {
+        private final byte[] hash;
+        private final int hashCode;
+
+        ContentHash(byte[] bytes) {
+            try {
+                this.hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            } catch(NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256.
+                throw new RuntimeException(e);
+            }
+            this.hashCode = Arrays.hashCode(hash);
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            return Arrays.equals(hash, ((ContentHash)o).hash);
+        }
+
+        @Override public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Key that refers weakly to an object (a term factory or class loader), which is compared by identity. Keys of
+     * garbage collected objects are only equal to themselves.
+     */
+    private static abstract class WeakKey {
+        private final @Nullable WeakReference<Object> reference; // Null for a null object.
+        private final int identityHashCode;
+
+        WeakKey(@Nullable Object object) {
+            this.reference = object != null ? new WeakReference<>(object) : null;
+            this.identityHashCode = System.identityHashCode(object);
+        }
+
+        boolean isCleared() {
+            return reference != null && reference.get() == null;
+        }
+
+        boolean sameObject(WeakKey other) {
+            if(reference == null || other.reference == null) return reference == other.reference;
+            final @Nullable Object object = reference.get();
+            return object != null && object == other.reference.get();
+        }
+
+        int objectHashCode() {
+            return identityHashCode;
+        }
+    }
+
+    private static final class CtreeKey extends WeakKey {
+        private final ContentHash hash;
+
+        CtreeKey(ContentHash hash, ITermFactory termFactory) {
+            super(termFactory);
+            this.hash = hash;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final CtreeKey other = (CtreeKey)o;
+            return hash.equals(other.hash) && sameObject(other);
+        }
+
+        @Override public int hashCode() {
+            return 31 * objectHashCode() + hash.hashCode();
+        }
+    }
+
+    private static final class ClassKey extends WeakKey {
+        private final String className;
+
+        ClassKey(@Nullable ClassLoader classLoader, String className) {
+            super(classLoader);
+            this.className = className;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final ClassKey other = (ClassKey)o;
+            return className.equals(other.className) && sameObject(other);
+        }
+
+        @Override public int hashCode() {
+            return 31 * objectHashCode() + className.hashCode();
+        }
+    }
+
+    private static final class ClassLoaderKey extends WeakKey {
+        private final ContentHash[] jars;
+
+        ClassLoaderKey(@Nullable ClassLoader parent, ContentHash[] jars) {
+            super(parent);
+            this.jars = jars;
+        }
+
+        @Override public boolean equals(@Nullable Object o) {
+            if(this == o) return true;
+            if(o == null || getClass() != o.getClass()) return false;
+            final ClassLoaderKey other = (ClassLoaderKey)o;
+            return Arrays.equals(jars, other.jars) && sameObject(other);
+        }
+
+        @Override public int hashCode() {
+            return 31 * objectHashCode() + Arrays.hashCode(jars);
+        }
+    }
+
+    public static class Stats {
+        /** Number of CTrees and JARs whose stamp was unchanged, such that they were not read and hashed. */
+        public final long stampHits;
+        /** Number of CTrees and JARs that were read and hashed, as their stamp changed or is unknown. */
+        public final long stampMisses;
+        /** Number of CTrees that were taken from the cache. */
+        public final long ctreeHits;
+        /** Number of CTrees that were parsed. */
+        public final long ctreeMisses;
+        /** Number of JAR class loaders that were taken from the cache. */
+        public final long classLoaderHits;
+        /** Number of JAR class loaders that were created. */
+        public final long classLoaderMisses;
+
+        public Stats(long stampHits, long stampMisses, long ctreeHits, long ctreeMisses, long classLoaderHits, long classLoaderMisses) {
+            this.stampHits = stampHits;
+            this.stampMisses = stampMisses;
+            this.ctreeHits = ctreeHits;
+            this.ctreeMisses = ctreeMisses;
+            this.classLoaderHits = classLoaderHits;
+            this.classLoaderMisses = classLoaderMisses;
+        }
+
+        @Override public String toString() {
+            return "Stats{" +
+                "stampHits=" + stampHits +
+                ", stampMisses=" + stampMisses +
+                ", ctreeHits=" + ctreeHits +
+                ", ctreeMisses=" + ctreeMisses +
+                ", classLoaderHits=" + classLoaderHits +
+                ", classLoaderMisses=" + classLoaderMisses +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package mb.stratego.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of {@link StrategoRuntime} instances with isolated interpreters. A {@link StrategoRuntime} mutates its
+ * interpreter when invoking a strategy, and may therefore only be used by one thread at a time. This pool hands out
+ * runtimes for exclusive use with {@link #lease()}, such that strategies can be invoked concurrently on different
+ * runtimes, and runtimes are reused across invocations and threads.
+ *
+ * At most {@code maxSize} runtimes are created, lazily or with {@link #warmUp(int)}. When all runtimes are leased,
+ * {@link #lease()} waits until a runtime is returned, or until the lease timeout passes.
+ */
+public class StrategoRuntimePool {
+    private final Supplier<StrategoRuntime> runtimeFactory;
+    private final StrategoRuntime prototype;
+    private final ITermFactory termFactory;
+    private final int maxSize;
+    private final long leaseTimeoutMillis;
+
+    private final Semaphore available;
+    private final ArrayDeque<StrategoRuntime> idleRuntimes;
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+
+    private StrategoRuntimePool(Supplier<StrategoRuntime> runtimeFactory, StrategoRuntime prototype, int maxSize, long leaseTimeoutMillis) {
+        if(maxSize < 0) {
+            throw new IllegalArgumentException("Maximum size of Stratego runtime pool must be 0 or larger, got " + maxSize);
+        }
+        if(leaseTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Lease timeout of Stratego runtime pool must be 0 or larger, got " + leaseTimeoutMillis);
+        }
+        this.runtimeFactory = runtimeFactory;
+        this.prototype = prototype;
+        this.termFactory = prototype.getTermFactory();
+        this.maxSize = maxSize == 0 ? Runtime.getRuntime().availableProcessors() : maxSize;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.available = new Semaphore(this.maxSize, true);
+        this.idleRuntimes = new ArrayDeque<>(this.maxSize);
+    }
+
+    /**
+     * Creates a pool that creates runtimes from {@code prototype} with {@link StrategoRuntimeBuilder#buildFromPrototype}.
+     *
+     * @param maxSize            Maximum number of runtimes, or 0 to use the number of available processors.
+     * @param leaseTimeoutMillis Maximum time in milliseconds to wait for a runtime in {@link #lease()}, or 0 to wait
+     *                           indefinitely.
+     */
+    public StrategoRuntimePool(StrategoRuntimeBuilder builder, StrategoRuntime prototype, int maxSize, long leaseTimeoutMillis) {
+        this(() -> builder.buildFromPrototype(prototype), prototype, maxSize, leaseTimeoutMillis);
+    }
+
+    public StrategoRuntimePool(StrategoRuntimeBuilder builder, StrategoRuntime prototype) {
+        this(builder, prototype, 0, 0);
+    }
+
+    /**
+     * Creates a pool of the single given {@code runtime}, which serializes all invocations on that runtime.
+     */
+    public static StrategoRuntimePool of(StrategoRuntime runtime) {
+        return new StrategoRuntimePool(() -> runtime, runtime, 1, 0);
+    }
+
+
+    /**
+     * Leases a runtime from the pool, creating a new one if no idle runtime is available and the pool is not at its
+     * maximum size. The caller has exclusive use of the runtime (and runtimes derived from it, e.g. with {@link
+     * StrategoRuntime#addContextObject}) until the lease is closed.
+     *
+     * @throws StrategoException   When no runtime became available within the lease timeout.
+     * @throws InterruptedException When interrupted while waiting for a runtime.
+     */
+    public Lease lease() throws StrategoException, InterruptedException {
+        if(!available.tryAcquire()) {
+            waited.incrementAndGet();
+            if(leaseTimeoutMillis == 0) {
+                available.acquire();
+            } else if(!available.tryAcquire(leaseTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new StrategoException("Leasing a Stratego runtime timed out after " + leaseTimeoutMillis + "ms; all " + maxSize + " runtimes are in use");
+            }
+        }
+        leases.incrementAndGet();
+        @Nullable StrategoRuntime runtime;
+        synchronized(idleRuntimes) {
+            runtime = idleRuntimes.pollFirst();
+        }
+        if(runtime == null) {
+            try {
+                runtime = createRuntime();
+            } catch(RuntimeException e) {
+                available.release();
+                throw e;
+            }
+        }
+        return new Lease(runtime);
+    }
+
+    /**
+     * Invokes {@code strategy} on {@code input} with a leased runtime.
+     *
+     * @see StrategoRuntime#invoke(String, IStrategoTerm)
+     */
+    public @Nullable IStrategoTerm invoke(String strategy, IStrategoTerm input) throws StrategoException, InterruptedException {
+        try(final Lease lease = lease()) {
+            return lease.getRuntime().invoke(strategy, input);
+        }
+    }
+
+    /**
+     * Invokes the strategy of {@code strategy} on {@code input} with a leased runtime.
+     *
+     * @see StrategoRuntime#invoke(StrategyHandle, IStrategoTerm)
+     */
+    public @Nullable IStrategoTerm invoke(StrategyHandle strategy, IStrategoTerm input) throws StrategoException, InterruptedException {
+        try(final Lease lease = lease()) {
+            return lease.getRuntime().invoke(strategy, input);
+        }
+    }
+
+    /**
+     * Looks up the strategy with given {@code name} in the runtime that runtimes of this pool are created from, without
+     * leasing a runtime.
+     *
+     * @see StrategoRuntime#lookup(String)
+     */
+    public StrategyHandle lookup(String name) {
+        return prototype.lookup(name);
+    }
+
+    /**
+     * Creates idle runtimes until there are at least {@code count} runtimes (bounded by the maximum size), such that
+     * the cost of creating runtimes is not paid by the first leases.
+     */
+    public void warmUp(int count) {
+        final int target = Math.min(count, maxSize);
+        while(created.get() < target) {
+            if(!available.tryAcquire()) return; // All runtimes are leased, no need to warm up.
+            try {
+                final StrategoRuntime runtime = createRuntime();
+                synchronized(idleRuntimes) {
+                    idleRuntimes.addFirst(runtime);
+                }
+            } finally {
+                available.release();
+            }
+        }
+    }
+
+
+    /**
+     * Gets the term factory of the runtimes in this pool.
+     */
+    public ITermFactory getTermFactory() {
+        return termFactory;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getLeaseTimeoutMillis() {
+        return leaseTimeoutMillis;
+    }
+
+    public Stats getStats() {
+        final int idle;
+        synchronized(idleRuntimes) {
+            idle = idleRuntimes.size();
+        }
+        return new Stats(created.get(), leases.get(), waited.get(), timeouts.get(), maxSize - available.availablePermits(), idle);
+    }
+
+
+    private StrategoRuntime createRuntime() {
+        final StrategoRuntime runtime = runtimeFactory.get();
+        created.incrementAndGet();
+        return runtime;
+    }
+
+    private void release(StrategoRuntime runtime) {
+        synchronized(idleRuntimes) {
+            idleRuntimes.addFirst(runtime);
+        }
+        available.release();
+    }
+
+
+    /**
+     * Exclusive use of a runtime of a {@link StrategoRuntimePool}. Closing the lease returns the runtime to the pool,
+     * after which the runtime may not be used any more.
+     */
+    public class Lease implements AutoCloseable {
+        private final StrategoRuntime runtime;
+        private boolean closed = false;
+
+        private Lease(StrategoRuntime runtime) {
+            this.runtime = runtime;
+        }
+
+        public StrategoRuntime getRuntime() {
+            if(closed) {
+                throw new IllegalStateException("Cannot get Stratego runtime, lease has been closed");
+            }
+            return runtime;
+        }
+
+        @Override public void close() {
+            if(closed) return;
+            closed = true;
+            release(runtime);
+        }
+    }
+
+    public static class Stats {
+        /** Number of runtimes created. */
+        public final long created;
+        /** Number of leases. */
+        public final long leases;
+        /** Number of leases that had to wait for a runtime to be returned. */
+        public final long waited;
+        /** Number of leases that timed out. */
+        public final long timeouts;
+        /** Number of runtimes currently leased. */
+        public final int leased;
+        /** Number of idle runtimes. */
+        public final int idle;
+
+        public Stats(long created, long leases, long waited, long timeouts, int leased, int idle) {
+            this.created = created;
+            this.leases = leases;
+            this.waited = waited;
+            this.timeouts = timeouts;
+            this.leased = leased;
+            this.idle = idle;
+        }
+
+        @Override public String toString() {
+            return "Stats{" +
+                "created=" + created +
+                ", leases=" + leases +
+                ", waited=" + waited +
+                ", timeouts=" + timeouts +
+                ", leased=" + leased +
+                ", idle=" + idle +
+                '}';
+        }
+    }
+}
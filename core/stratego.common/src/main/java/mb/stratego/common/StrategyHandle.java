@@ -0,0 +1,42 @@
+package mb.stratego.common;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Handle to a Stratego strategy that was validated to exist with {@link StrategoRuntime#lookup}. A handle can be
+ * created once, when a language is loaded, and then be used to invoke the strategy with {@link
+ * StrategoRuntime#invoke(StrategyHandle, org.spoofax.interpreter.terms.IStrategoTerm)} on the runtime it was looked up
+ * in, and on all runtimes built from that runtime with {@link StrategoRuntimeBuilder#buildFromPrototype}, as they share
+ * its strategy definitions.
+ */
+public final class StrategyHandle {
+    private final String name;
+
+
+    StrategyHandle(String name) {
+        this.name = name;
+    }
+
+
+    /**
+     * Gets the name of the strategy, as it is named in Stratego source code.
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    @Override public boolean equals(@Nullable Object o) {
+        if(this == o) return true;
+        if(o == null || getClass() != o.getClass()) return false;
+        return name.equals(((StrategyHandle)o).name);
+    }
+
+    @Override public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override public String toString() {
+        return name;
+    }
+}
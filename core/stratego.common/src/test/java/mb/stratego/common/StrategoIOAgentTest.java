@@ -0,0 +1,111 @@
+package mb.stratego.common;
+
+import mb.log.noop.NoopLoggerFactory;
+import mb.resource.DefaultResourceService;
+import mb.resource.ResourceService;
+import mb.resource.fs.FSResource;
+import mb.resource.fs.FSResourceRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrategoIOAgentTest {
+    private final ResourceService resourceService = new DefaultResourceService(new FSResourceRegistry());
+    private Path directory;
+    private StrategoIOAgent ioAgent;
+
+    @BeforeEach void createIOAgent() throws IOException {
+        directory = Files.createTempDirectory("stratego-io-agent");
+        ioAgent = new StrategoIOAgent(new NoopLoggerFactory(), resourceService, new FSResource(directory));
+    }
+
+    private static String text(int length) {
+        final StringBuilder stringBuilder = new StringBuilder(length);
+        for(int i = 0; i < length; ++i) {
+            stringBuilder.append((char)('a' + i % 26));
+        }
+        return stringBuilder.toString();
+    }
+
+
+    @Test void writeAndReadLocalFile() throws Exception {
+        // Larger than the buffer size, such that buffers are flushed while writing and refilled while reading.
+        final String text = text(200 * 1024) + "é世";
+        final int writeFd = ioAgent.openRandomAccessFile("file.txt", "w");
+        for(int i = 0; i < text.length(); ++i) {
+            ioAgent.writeChar(writeFd, text.charAt(i));
+        }
+        ioAgent.closeRandomAccessFile(writeFd);
+        assertEquals(text, new String(Files.readAllBytes(directory.resolve("file.txt")), StandardCharsets.UTF_8));
+
+        final int readFd = ioAgent.openRandomAccessFile("file.txt", "r");
+        assertEquals(text, ioAgent.readString(readFd));
+        ioAgent.closeRandomAccessFile(readFd);
+    }
+
+    @Test void writeTruncatesAndAppendAppends() throws Exception {
+        Files.write(directory.resolve("file.txt"), "old contents".getBytes(StandardCharsets.UTF_8));
+
+        final int writeFd = ioAgent.openRandomAccessFile("file.txt", "w");
+        ioAgent.getWriter(writeFd).write("new");
+        ioAgent.closeRandomAccessFile(writeFd);
+        final int appendFd = ioAgent.openRandomAccessFile("file.txt", "a");
+        ioAgent.getWriter(appendFd).write(" contents");
+        ioAgent.closeRandomAccessFile(appendFd);
+
+        assertEquals("new contents", new String(Files.readAllBytes(directory.resolve("file.txt")), StandardCharsets.UTF_8));
+    }
+
+    @Test void closedFileDescriptorIsRejected() throws Exception {
+        final int fd = ioAgent.openRandomAccessFile("file.txt", "w");
+        ioAgent.closeRandomAccessFile(fd);
+
+        assertThrows(IllegalArgumentException.class, () -> ioAgent.getWriter(fd));
+        assertTrue(ioAgent.closeRandomAccessFile(fd)); // Closing again is allowed.
+    }
+
+    @Test void openWriteAndCloseFilesConcurrently() throws InterruptedException, ExecutionException, IOException {
+        final int files = 64;
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final ArrayList<Future<Integer>> futures = new ArrayList<>();
+            for(int i = 0; i < files; ++i) {
+                final String name = "file" + i + ".txt";
+                final String text = name + text(1000);
+                futures.add(executor.submit(() -> {
+                    final int fd = ioAgent.openRandomAccessFile(name, "w");
+                    final Writer writer = ioAgent.getWriter(fd);
+                    for(int j = 0; j < text.length(); ++j) {
+                        writer.write(text.charAt(j));
+                    }
+                    ioAgent.closeRandomAccessFile(fd);
+                    return fd;
+                }));
+            }
+            final HashSet<Integer> fds = new HashSet<>();
+            for(Future<Integer> future : futures) {
+                fds.add(future.get());
+            }
+            assertEquals(files, fds.size());
+        } finally {
+            executor.shutdownNow();
+        }
+        for(int i = 0; i < files; ++i) {
+            final String name = "file" + i + ".txt";
+            assertEquals(name + text(1000), new String(Files.readAllBytes(directory.resolve(name)), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package mb.stratego.common;
+
+import mb.resource.fs.FSResource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.TermFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrategoRuntimeCacheTest {
+    private final ITermFactory termFactory = new TermFactory();
+    private Path directory;
+
+    @BeforeEach void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("stratego-runtime-cache");
+    }
+
+    private FSResource write(String name, String text, Instant modifiedTime) throws IOException {
+        final Path file = Files.write(directory.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.from(modifiedTime));
+        return new FSResource(file);
+    }
+
+
+    @Test void doesNotHashCtreeWhenStampIsUnchanged() throws IOException {
+        final StrategoRuntimeCache cache = new StrategoRuntimeCache(4, 4);
+        final FSResource resource = write("a.ctree", "Specification([])", Instant.ofEpochSecond(1000));
+
+        final IStrategoTerm first = cache.getCtree(resource, termFactory);
+        final IStrategoTerm second = cache.getCtree(resource, termFactory);
+
+        assertEquals(termFactory.parseFromString("Specification([])"), first);
+        assertSame(first, second);
+        final StrategoRuntimeCache.Stats stats = cache.getStats();
+        assertEquals(1, stats.stampHits);
+        assertEquals(1, stats.stampMisses);
+        assertEquals(1, stats.ctreeHits);
+        assertEquals(1, stats.ctreeMisses);
+    }
+
+    @Test void hashesAndParsesCtreeAgainWhenStampChanged() throws IOException {
+        final StrategoRuntimeCache cache = new StrategoRuntimeCache(4, 4);
+        final FSResource resource = write("a.ctree", "Specification([])", Instant.ofEpochSecond(1000));
+        final IStrategoTerm first = cache.getCtree(resource, termFactory);
+
+        write("a.ctree", "Specification([Signature([])])", Instant.ofEpochSecond(2000));
+        final IStrategoTerm second = cache.getCtree(resource, termFactory);
+
+        assertNotEquals(first, second);
+        assertEquals(termFactory.parseFromString("Specification([Signature([])])"), second);
+        final StrategoRuntimeCache.Stats stats = cache.getStats();
+        assertEquals(0, stats.stampHits);
+        assertEquals(2, stats.stampMisses);
+        assertEquals(2, stats.ctreeMisses);
+    }
+
+    @Test void sharesCtreeOfSameContentsFromDifferentResources() throws IOException {
+        final StrategoRuntimeCache cache = new StrategoRuntimeCache(4, 4);
+        final FSResource a = write("a.ctree", "Specification([])", Instant.ofEpochSecond(1000));
+        final FSResource b = write("b.ctree", "Specification([])", Instant.ofEpochSecond(2000));
+
+        final IStrategoTerm first = cache.getCtree(a, termFactory);
+        final IStrategoTerm second = cache.getCtree(b, termFactory);
+
+        assertSame(first, second);
+        final StrategoRuntimeCache.Stats stats = cache.getStats();
+        assertEquals(2, stats.stampMisses);
+        assertEquals(1, stats.ctreeHits);
+        assertEquals(1, stats.ctreeMisses);
+    }
+
+    @Test void keysCtreeByTermFactory() throws IOException {
+        final StrategoRuntimeCache cache = new StrategoRuntimeCache(4, 4);
+        final FSResource resource = write("a.ctree", "Specification([])", Instant.ofEpochSecond(1000));
+        final ITermFactory otherTermFactory = new TermFactory();
+
+        final IStrategoTerm first = cache.getCtree(resource, termFactory);
+        final IStrategoTerm second = cache.getCtree(resource, otherTermFactory);
+
+        assertNotSame(first, second);
+        final StrategoRuntimeCache.Stats stats = cache.getStats();
+        // The contents are hashed once, but parsed once per term factory.
+        assertEquals(1, stats.stampHits);
+        assertEquals(1, stats.stampMisses);
+        assertEquals(2, stats.ctreeMisses);
+    }
+}
@@ -28,6 +28,7 @@ languageProjectCompiler {
     strategoRuntime = StrategoRuntimeCompiler.LanguageProjectInput.builder()
       .enableNaBL2(false)
       .enableStatix(true)
+      .loadResourcesConcurrently(true)
       .copyCTree(true)
       .copyClasses(false)
       .copyJavaStrategyClasses(false),
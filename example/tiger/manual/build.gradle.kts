@@ -9,6 +9,7 @@ plugins {
   id("biz.aQute.bnd.builder") version "4.3.1" apply false
   id("com.palantir.graal") version "0.6.0" apply false
   id("org.jetbrains.intellij") version "0.4.15" apply false
+  id("me.champeau.gradle.jmh") version "0.5.0" apply false
 }
 
 subprojects {
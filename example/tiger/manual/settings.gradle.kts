@@ -16,6 +16,7 @@ if(gradle.parent == null) {
 include("tiger")
 include("tiger.spoofax")
 include("tiger.cli")
+include("tiger.bench")
 include("tiger.eclipse.externaldeps")
 include("tiger.eclipse")
 include("tiger.intellij")
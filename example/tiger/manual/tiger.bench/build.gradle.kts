@@ -0,0 +1,33 @@
+plugins {
+  id("org.metaborg.gradle.config.java-library")
+  id("me.champeau.gradle.jmh")
+}
+
+fun compositeBuild(name: String) = "$group:$name"
+
+dependencies {
+  jmh(platform(compositeBuild("spoofax.depconstraints")))
+  jmhAnnotationProcessor(platform(compositeBuild("spoofax.depconstraints")))
+
+  jmh(project(":tiger.spoofax"))
+  jmh("org.metaborg:log.backend.noop")
+  jmh("org.metaborg:pie.runtime")
+  jmh("org.metaborg:pie.dagger")
+
+  jmhCompileOnly("org.checkerframework:checker-qual-android")
+
+  jmhAnnotationProcessor("com.google.dagger:dagger-compiler")
+}
+
+jmh {
+  jmhVersion = "1.23"
+  // Results are written as JSON, such that they can be compared across runs, e.g. with https://jmh.morethan.net/.
+  resultFormat = "JSON"
+  resultsFile = file("$buildDir/reports/jmh/results.json")
+  // Run only benchmarks matching this regular expression, e.g.: `gradlew :tiger.bench:jmh -Pjmh.include=Parse`.
+  if(project.hasProperty("jmh.include")) {
+    include = listOf(project.property("jmh.include").toString())
+  }
+  // Forks, warmup iterations, and measurement iterations are configured per benchmark with annotations, as cold start
+  // benchmarks require different settings than steady state benchmarks.
+}
@@ -0,0 +1,88 @@
+package mb.tiger.bench;
+
+import mb.common.message.KeyedMessages;
+import mb.common.message.KeyedMessagesBuilder;
+import mb.common.message.Message;
+import mb.common.message.Severity;
+import mb.common.region.Region;
+import mb.resource.DefaultResourceKey;
+import mb.resource.ResourceKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building and reading {@link KeyedMessages} of a project with many files that each have many messages,
+ * such as the messages of a project check with many errors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class KeyedMessagesBenchmark {
+    @Param({"100", "1000"}) public int files;
+    @Param({"10", "100"}) public int messagesPerFile;
+
+    private ArrayList<ResourceKey> resources;
+    private ArrayList<ResourceKey> resourcesWithoutMessages;
+    private KeyedMessages messages;
+
+    @Setup public void setup() {
+        resources = new ArrayList<>(files);
+        resourcesWithoutMessages = new ArrayList<>(files);
+        for(int i = 0; i < files; ++i) {
+            resources.add(new DefaultResourceKey("bench", "file" + i + ".tig"));
+            resourcesWithoutMessages.add(new DefaultResourceKey("bench", "other" + i + ".tig"));
+        }
+        messages = build();
+    }
+
+
+    @Benchmark public KeyedMessages build() {
+        final KeyedMessagesBuilder builder = new KeyedMessagesBuilder();
+        for(ResourceKey resource : resources) {
+            for(int i = 0; i < messagesPerFile; ++i) {
+                final Severity severity = i % 10 == 0 ? Severity.Error : Severity.Warning;
+                builder.addMessage("Message " + (i % 10), severity, resource, Region.fromOffsets(i * 10, i * 10 + 5));
+            }
+        }
+        return builder.build();
+    }
+
+    @Benchmark public void readMessages(Blackhole blackhole) {
+        for(ResourceKey resource : resources) {
+            for(Message message : messages.getMessages(resource)) {
+                blackhole.consume(message);
+            }
+        }
+        for(ResourceKey resource : resourcesWithoutMessages) {
+            for(Message message : messages.getMessages(resource)) {
+                blackhole.consume(message);
+            }
+        }
+    }
+
+    @Benchmark public boolean containsError() {
+        return messages.containsError() && messages.containsWarningOrHigher() && !messages.containsDebug();
+    }
+
+    @Benchmark public KeyedMessages rebuild() {
+        final KeyedMessagesBuilder builder = new KeyedMessagesBuilder();
+        builder.addMessages(messages);
+        return builder.build();
+    }
+}
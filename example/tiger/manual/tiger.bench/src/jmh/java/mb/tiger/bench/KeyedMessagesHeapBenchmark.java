@@ -0,0 +1,97 @@
+package mb.tiger.bench;
+
+import mb.common.message.KeyedMessages;
+import mb.common.message.KeyedMessagesBuilder;
+import mb.common.message.MessageTextPool;
+import mb.common.message.Severity;
+import mb.common.region.Region;
+import mb.common.util.SerializationUtil;
+import mb.resource.DefaultResourceKey;
+import mb.resource.ResourceKey;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by, and the serialized (PIE store) size of, the messages of an error-heavy project, where
+ * most messages have one of a few texts, built with a default {@link KeyedMessagesBuilder} or with one that packs
+ * messages with a {@link MessageTextPool}. Texts are copied for each message, as texts created from analysis terms are
+ * distinct strings. The retained heap and serialized size are reported as the {@code retainedKilobytes} and {@code
+ * serializedKilobytes} secondary results. The measured time includes forced garbage collections, and is therefore not
+ * meaningful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class KeyedMessagesHeapBenchmark {
+    private static final String[] texts = {
+        "Unresolved reference",
+        "Type mismatch: expected int, got string",
+        "Syntax error, unexpected construct(s)",
+        "Analysis failed",
+    };
+
+    @Param({"1000"}) public int files;
+    @Param({"100"}) public int messagesPerFile;
+    @Param({"default", "packed"}) public String builder;
+
+    private ArrayList<ResourceKey> resources;
+
+    @Setup public void setup() {
+        resources = new ArrayList<>(files);
+        for(int i = 0; i < files; ++i) {
+            resources.add(new DefaultResourceKey("bench", "file" + i + ".tig"));
+        }
+    }
+
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Size {
+        public long retainedKilobytes;
+        public long serializedKilobytes;
+    }
+
+    @Benchmark public KeyedMessages buildProjectMessages(Size size) throws InterruptedException {
+        final long before = usedHeap();
+        final KeyedMessagesBuilder messagesBuilder = builder.equals("packed")
+            ? new KeyedMessagesBuilder(MessageTextPool.shared(), false)
+            : new KeyedMessagesBuilder();
+        for(ResourceKey resource : resources) {
+            for(int i = 0; i < messagesPerFile; ++i) {
+                final String text = new String(texts[i % texts.length]);
+                final Severity severity = i % 3 == 0 ? Severity.Warning : Severity.Error;
+                messagesBuilder.addMessage(text, severity, resource, Region.fromOffsetLength(i * 20, 5));
+            }
+        }
+        final KeyedMessages messages = messagesBuilder.build();
+        messagesBuilder.clearAll();
+        size.retainedKilobytes = (usedHeap() - before) / 1024;
+        size.serializedKilobytes = SerializationUtil.serialize(messages).length / 1024;
+        return messages;
+    }
+
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
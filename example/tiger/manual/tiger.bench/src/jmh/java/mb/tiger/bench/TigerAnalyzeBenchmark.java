@@ -0,0 +1,121 @@
+package mb.tiger.bench;
+
+import mb.constraint.common.ConstraintAnalyzer.MultiFileResult;
+import mb.constraint.common.ConstraintAnalyzer.SingleFileResult;
+import mb.constraint.common.ConstraintAnalyzerContext;
+import mb.constraint.common.ConstraintAnalyzerException;
+import mb.log.api.LoggerFactory;
+import mb.log.noop.NoopLoggerFactory;
+import mb.resource.DefaultResourceKey;
+import mb.resource.DefaultResourceService;
+import mb.resource.DummyResourceRegistry;
+import mb.resource.ResourceKey;
+import mb.resource.ResourceService;
+import mb.resource.fs.FSResourceRegistry;
+import mb.resource.url.URLResourceRegistry;
+import mb.stratego.common.StrategoRuntime;
+import mb.stratego.common.StrategoRuntimeBuilder;
+import mb.stratego.common.StrategoRuntimePool;
+import mb.tiger.TigerConstraintAnalyzer;
+import mb.tiger.TigerConstraintAnalyzerFactory;
+import mb.tiger.TigerParser;
+import mb.tiger.TigerParserFactory;
+import mb.tiger.TigerStrategoRuntimeBuilderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks single-file and multi-file constraint analysis of Tiger programs with {@link TigerConstraintAnalyzer}.
+ * Multi-file analysis is measured both with one strategy invocation for all files, and with files analyzed
+ * concurrently on runtimes from a pool, to measure the wall-clock speedup of concurrent analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TigerAnalyzeBenchmark {
+    private static final String qualifier = "bench";
+
+    @Param({"10", "100"}) public int declarations;
+
+    private TigerParser parser;
+    private TigerConstraintAnalyzer analyzer;
+    private TigerConstraintAnalyzer concurrentAnalyzer;
+    private ExecutorService executor;
+    private ResourceKey singleResource;
+    private IStrategoTerm singleAst;
+
+    @Setup public void setup() throws InterruptedException {
+        final LoggerFactory loggerFactory = new NoopLoggerFactory();
+        final ResourceService resourceService = new DefaultResourceService(new DummyResourceRegistry(qualifier), new FSResourceRegistry(), new URLResourceRegistry());
+        final StrategoRuntimeBuilder strategoRuntimeBuilder = new TigerStrategoRuntimeBuilderFactory().create(loggerFactory, resourceService);
+        final StrategoRuntime strategoRuntime = strategoRuntimeBuilder.build();
+        parser = new TigerParserFactory().create();
+        analyzer = new TigerConstraintAnalyzerFactory(loggerFactory, resourceService, strategoRuntime).create();
+        final StrategoRuntimePool strategoRuntimePool = new StrategoRuntimePool(strategoRuntimeBuilder, strategoRuntime);
+        strategoRuntimePool.warmUp(strategoRuntimePool.getMaxSize());
+        executor = Executors.newFixedThreadPool(strategoRuntimePool.getMaxSize());
+        concurrentAnalyzer = new TigerConstraintAnalyzerFactory(loggerFactory, resourceService, strategoRuntimePool, executor).create();
+        singleResource = new DefaultResourceKey(qualifier, "file0.tig");
+        singleAst = parse(singleResource, 0);
+    }
+
+    @TearDown public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private IStrategoTerm parse(ResourceKey resource, int seed) throws InterruptedException {
+        return parser.parse(TigerPrograms.program(declarations, seed), "Module", resource).getAst()
+            .orElseThrow(() -> new IllegalStateException("Parsing '" + resource + "' failed"));
+    }
+
+    /**
+     * Parsed ASTs of a synthetic multi-file project, in separate state such that the {@link #files} parameter only
+     * applies to multi-file benchmarks.
+     */
+    @State(Scope.Benchmark)
+    public static class Project {
+        @Param({"1", "10", "50"}) public int files;
+
+        private HashMap<ResourceKey, IStrategoTerm> asts;
+
+        @Setup public void setup(TigerAnalyzeBenchmark benchmark) throws InterruptedException {
+            asts = new HashMap<>();
+            for(int i = 0; i < files; ++i) {
+                final ResourceKey resource = new DefaultResourceKey(qualifier, "file" + i + ".tig");
+                asts.put(resource, benchmark.parse(resource, i));
+            }
+        }
+    }
+
+
+    @Benchmark public SingleFileResult analyzeSingle() throws ConstraintAnalyzerException {
+        return analyzer.analyze(singleResource, singleAst, new ConstraintAnalyzerContext());
+    }
+
+    @Benchmark public MultiFileResult analyzeMulti(Project project) throws ConstraintAnalyzerException {
+        return analyzer.analyze(null, project.asts, new ConstraintAnalyzerContext());
+    }
+
+    @Benchmark public MultiFileResult analyzeMultiConcurrently(Project project) throws ConstraintAnalyzerException {
+        return concurrentAnalyzer.analyze(null, project.asts, new ConstraintAnalyzerContext());
+    }
+}
@@ -0,0 +1,16 @@
+package mb.tiger.bench;
+
+import dagger.Component;
+import mb.spoofax.core.language.LanguageScope;
+import mb.spoofax.core.platform.PlatformComponent;
+import mb.tiger.TigerParser;
+import mb.tiger.spoofax.TigerComponent;
+import mb.tiger.spoofax.TigerModule;
+import mb.tiger.spoofax.task.TigerIdeCheckMulti;
+
+@LanguageScope @Component(modules = {TigerModule.class}, dependencies = PlatformComponent.class)
+public interface TigerBenchComponent extends TigerComponent {
+    TigerIdeCheckMulti getIdeCheckMulti();
+
+    TigerParser getParser();
+}
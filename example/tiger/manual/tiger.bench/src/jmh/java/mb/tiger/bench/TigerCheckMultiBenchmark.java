@@ -0,0 +1,129 @@
+package mb.tiger.bench;
+
+import mb.common.message.KeyedMessages;
+import mb.log.noop.NoopLoggerFactory;
+import mb.pie.api.MixedSession;
+import mb.pie.api.Pie;
+import mb.pie.api.Task;
+import mb.pie.dagger.PieModule;
+import mb.pie.runtime.PieBuilderImpl;
+import mb.resource.fs.FSPath;
+import mb.resource.hierarchical.match.PathResourceMatcher;
+import mb.resource.hierarchical.match.path.ExtensionsPathMatcher;
+import mb.resource.hierarchical.match.path.NoHiddenPathMatcher;
+import mb.resource.hierarchical.walk.PathResourceWalker;
+import mb.spoofax.core.platform.DaggerPlatformComponent;
+import mb.spoofax.core.platform.LoggerFactoryModule;
+import mb.spoofax.core.platform.PlatformComponent;
+import mb.tiger.spoofax.TigerModule;
+import mb.tiger.spoofax.task.TigerIdeCheckMulti;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks full PIE runs of {@link TigerIdeCheckMulti} on synthetic Tiger projects written to a temporary
+ * directory, both from scratch and incrementally after changing a single file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TigerCheckMultiBenchmark {
+    @Param({"10", "50", "200"}) public int files;
+    @Param({"10"}) public int declarations;
+
+    private Path root;
+    private ArrayList<Path> paths;
+    private Pie pie;
+    private TigerBenchComponent languageComponent;
+    private Task<KeyedMessages> task;
+
+    @Setup public void setup() throws IOException {
+        root = Files.createTempDirectory("tiger-bench");
+        paths = TigerPrograms.project(root, files, declarations);
+
+        final PlatformComponent platformComponent = DaggerPlatformComponent
+            .builder()
+            .loggerFactoryModule(new LoggerFactoryModule(new NoopLoggerFactory()))
+            .pieModule(new PieModule(PieBuilderImpl::new))
+            .build();
+        pie = platformComponent.getPie();
+        languageComponent = DaggerTigerBenchComponent
+            .builder()
+            .platformComponent(platformComponent)
+            .tigerModule(new TigerModule())
+            .build();
+        task = languageComponent.getIdeCheckMulti().createTask(new TigerIdeCheckMulti.Input(
+            new FSPath(root),
+            new PathResourceWalker(new NoHiddenPathMatcher()),
+            new PathResourceMatcher(new ExtensionsPathMatcher("tig"))
+        ));
+    }
+
+    @TearDown public void tearDown() throws IOException {
+        TigerPrograms.delete(root);
+    }
+
+    /**
+     * Drops all stored task results and cached analysis contexts before each invocation, such that every invocation
+     * runs from scratch.
+     */
+    @State(Scope.Benchmark)
+    public static class Clean {
+        @Setup(Level.Invocation) public void setup(TigerCheckMultiBenchmark benchmark) {
+            benchmark.pie.dropStore();
+            benchmark.languageComponent.getConstraintAnalyzerCache().clear();
+        }
+    }
+
+    /**
+     * Changes the first file of the project before each invocation, such that every invocation (except the first)
+     * runs incrementally after a single-file change.
+     */
+    @State(Scope.Benchmark)
+    public static class Changed {
+        private int changes = 0;
+
+        @Setup(Level.Invocation) public void setup(TigerCheckMultiBenchmark benchmark) throws IOException {
+            ++changes;
+            final Path file = benchmark.paths.get(0);
+            Files.write(file, TigerPrograms.program(benchmark.declarations, benchmark.files + (changes % 2)).getBytes(StandardCharsets.UTF_8));
+            // Explicitly move the modification time forward, as file systems may have a coarse modification time resolution.
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + changes * 1000L));
+        }
+    }
+
+
+    @Benchmark public KeyedMessages checkFromScratch(Clean clean) throws Exception {
+        try(final MixedSession session = languageComponent.newPieSession()) {
+            return session.require(task);
+        }
+    }
+
+    @Benchmark public KeyedMessages checkAfterChange(Changed changed) throws Exception {
+        try(final MixedSession session = languageComponent.newPieSession()) {
+            return session.require(task);
+        }
+    }
+}
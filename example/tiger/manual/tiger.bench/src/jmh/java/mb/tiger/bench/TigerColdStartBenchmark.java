@@ -0,0 +1,58 @@
+package mb.tiger.bench;
+
+import mb.log.noop.NoopLoggerFactory;
+import mb.pie.dagger.PieModule;
+import mb.pie.runtime.PieBuilderImpl;
+import mb.spoofax.core.platform.DaggerPlatformComponent;
+import mb.spoofax.core.platform.LoggerFactoryModule;
+import mb.spoofax.core.platform.PlatformComponent;
+import mb.tiger.spoofax.TigerModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks starting Tiger as the Tiger CLI does: creating the platform and language components, creating the language
+ * instance (which builds the prototype Stratego runtime, as its commands use it), and parsing a file. Every measurement
+ * runs in a fresh JVM without warmup, such that class loading, parse table loading, and Stratego runtime building are
+ * included in the measured time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(20)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class TigerColdStartBenchmark {
+    private static final String text = TigerPrograms.program(10, 0);
+
+
+    @Benchmark public void startAndParse(Blackhole blackhole) throws InterruptedException {
+        final TigerBenchComponent languageComponent = createLanguageComponent();
+        blackhole.consume(languageComponent.getLanguageInstance());
+        blackhole.consume(languageComponent.getParser().parse(text, "Module"));
+    }
+
+
+    private static TigerBenchComponent createLanguageComponent() {
+        final PlatformComponent platformComponent = DaggerPlatformComponent
+            .builder()
+            .loggerFactoryModule(new LoggerFactoryModule(new NoopLoggerFactory()))
+            .pieModule(new PieModule(PieBuilderImpl::new))
+            .build();
+        return DaggerTigerBenchComponent
+            .builder()
+            .platformComponent(platformComponent)
+            .tigerModule(new TigerModule())
+            .build();
+    }
+}
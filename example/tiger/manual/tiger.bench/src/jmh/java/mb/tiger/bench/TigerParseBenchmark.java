@@ -0,0 +1,68 @@
+package mb.tiger.bench;
+
+import mb.common.token.Token;
+import mb.jsglr.common.JSGLRTokens;
+import mb.jsglr1.common.JSGLR1ParseResult;
+import mb.tiger.TigerParser;
+import mb.tiger.TigerParserFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing Tiger programs with {@link TigerParser}, and extracting tokens from parse results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TigerParseBenchmark {
+    @Param({"10", "100", "1000"}) public int declarations;
+
+    private TigerParser parser;
+    private String text;
+
+    @Setup public void setup() {
+        parser = new TigerParserFactory().create();
+        text = TigerPrograms.program(declarations, 0);
+    }
+
+
+    @Benchmark public JSGLR1ParseResult parse() throws InterruptedException {
+        return parser.parse(text, "Module");
+    }
+
+    /**
+     * Parses and then creates a token object for every token, as consumers that require a list of tokens do.
+     */
+    @Benchmark public ArrayList<? extends Token<IStrategoTerm>> parseAndGetTokens() throws InterruptedException {
+        return parser.parse(text, "Module").getTokens().orElseThrow(IllegalStateException::new);
+    }
+
+    /**
+     * Parses and then iterates over the compact token stream by index, without creating token objects.
+     */
+    @Benchmark public int parseAndIterateTokenStream() throws InterruptedException {
+        final JSGLRTokens tokens = parser.parse(text, "Module").getTokenStream().orElseThrow(IllegalStateException::new);
+        final int size = tokens.size();
+        int sum = 0;
+        for(int i = 0; i < size; ++i) {
+            sum += tokens.getEndOffset(i) - tokens.getStartOffset(i);
+        }
+        return sum;
+    }
+}
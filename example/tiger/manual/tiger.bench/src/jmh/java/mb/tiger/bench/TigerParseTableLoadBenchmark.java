@@ -0,0 +1,119 @@
+package mb.tiger.bench;
+
+import mb.jsglr1.common.JSGLR1ParseResult;
+import mb.jsglr1.common.JSGLR1ParseTable;
+import mb.jsglr1.common.JSGLR1ParseTableException;
+import mb.jsglr1.common.JSGLR1ParserPool;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks loading the Tiger parse table in a fresh JVM, from the textual ATerm table, from a memory mapped binary
+ * table file, or from a binary table stream, up to and including the first parse. The binary table is the SAF encoding
+ * of the table term, so all formats still construct the parse table from a decoded term. The {@code load} benchmark
+ * measures the cold load time. The {@code loadRetainedHeap} benchmark reports the heap retained by the loaded table as
+ * the {@code retainedKilobytes} secondary result; its measured time includes forced garbage collections, and is
+ * therefore not meaningful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class TigerParseTableLoadBenchmark {
+    private static final String resource = "mb/tiger/target/metaborg/sdf.tbl";
+
+    @Param({"aterm", "binaryFile", "binaryStream"}) public String format;
+
+    private byte[] table;
+    private Path binaryTableFile;
+
+    @Setup(Level.Trial) public void setup() throws IOException, JSGLR1ParseTableException {
+        final ByteArrayOutputStream textualTable = new ByteArrayOutputStream();
+        final ByteArrayOutputStream binaryTable = new ByteArrayOutputStream();
+        try(final InputStream inputStream = openTableResource()) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while((read = inputStream.read(buffer)) != -1) {
+                textualTable.write(buffer, 0, read);
+            }
+        }
+        JSGLR1ParseTable.writeBinary(new ByteArrayInputStream(textualTable.toByteArray()), binaryTable);
+        table = format.equals("aterm") ? textualTable.toByteArray() : binaryTable.toByteArray();
+        binaryTableFile = Files.createTempFile("tiger", ".tbl.bin");
+        Files.write(binaryTableFile, binaryTable.toByteArray());
+    }
+
+    @TearDown(Level.Trial) public void tearDown() throws IOException {
+        Files.deleteIfExists(binaryTableFile);
+    }
+
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long retainedKilobytes;
+    }
+
+    @Benchmark public JSGLR1ParseResult load() throws JSGLR1ParseTableException, InterruptedException {
+        return new JSGLR1ParserPool(loadTable(), 1).parse("1", "Module");
+    }
+
+    @Benchmark public JSGLR1ParseTable loadRetainedHeap(Heap heap) throws JSGLR1ParseTableException, InterruptedException {
+        final long before = usedHeap();
+        final JSGLR1ParseTable parseTable = loadTable();
+        new JSGLR1ParserPool(parseTable, 1).parse("1", "Module");
+        heap.retainedKilobytes = (usedHeap() - before) / 1024;
+        return parseTable;
+    }
+
+
+    private JSGLR1ParseTable loadTable() throws JSGLR1ParseTableException {
+        switch(format) {
+            case "binaryFile":
+                return JSGLR1ParseTable.fromBinaryFile(binaryTableFile);
+            case "binaryStream":
+                return JSGLR1ParseTable.fromBinaryStream(new ByteArrayInputStream(table));
+            default:
+                return JSGLR1ParseTable.fromStream(new ByteArrayInputStream(table));
+        }
+    }
+
+    private static InputStream openTableResource() throws IOException {
+        final @Nullable InputStream inputStream = TigerParseTableLoadBenchmark.class.getClassLoader().getResourceAsStream(resource);
+        if(inputStream == null) {
+            throw new IOException("Cannot find resource '" + resource + "' in classloader resources");
+        }
+        return inputStream;
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,64 @@
+package mb.tiger.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Generates synthetic Tiger programs and projects for benchmarking. Generated programs are deterministic, parse
+ * without errors, and analyze without errors, such that benchmarks measure the regular (non-recovering) paths.
+ */
+final class TigerPrograms {
+    private TigerPrograms() {}
+
+    /**
+     * Generates a Tiger program with {@code declarations} variable and function declarations, where {@code seed}
+     * distinguishes programs of the same size (e.g. files in a project) from each other.
+     */
+    static String program(int declarations, int seed) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("let\n");
+        for(int i = 0; i < declarations; ++i) {
+            sb.append("  var v").append(i).append(" : int := ").append(seed + i).append('\n');
+            sb.append("  var s").append(i).append(" : string := \"str").append(seed).append('_').append(i).append("\"\n");
+            sb.append("  function f").append(i).append("(a : int) : int =\n");
+            sb.append("    if a < 1 then v").append(i).append(" else a * f").append(i).append("(a - 1)\n");
+        }
+        sb.append("in\n");
+        sb.append("  0");
+        for(int i = 0; i < declarations; ++i) {
+            sb.append(" + f").append(i).append("(").append(i % 5).append(")");
+        }
+        sb.append("\nend\n");
+        return sb.toString();
+    }
+
+    /**
+     * Writes a synthetic project of {@code files} Tiger files, each with {@code declarations} declarations, into
+     * {@code root}, and returns the paths of the written files.
+     */
+    static ArrayList<Path> project(Path root, int files, int declarations) throws IOException {
+        final ArrayList<Path> paths = new ArrayList<>(files);
+        for(int i = 0; i < files; ++i) {
+            final Path file = root.resolve("file" + i + ".tig");
+            Files.write(file, program(declarations, i).getBytes(StandardCharsets.UTF_8));
+            paths.add(file);
+        }
+        return paths;
+    }
+
+    /**
+     * Deletes {@code directory} and everything in it.
+     */
+    static void delete(Path directory) throws IOException {
+        try(final Stream<Path> paths = Files.walk(directory)) {
+            for(Path path : (Iterable<Path>)paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package mb.tiger.bench;
+
+import mb.log.api.LoggerFactory;
+import mb.log.noop.NoopLoggerFactory;
+import mb.resource.DefaultResourceService;
+import mb.resource.ResourceService;
+import mb.resource.fs.FSResourceRegistry;
+import mb.resource.url.URLResourceRegistry;
+import mb.stratego.common.StrategoException;
+import mb.stratego.common.StrategoRuntime;
+import mb.stratego.common.StrategoRuntimeBuilder;
+import mb.tiger.TigerParserFactory;
+import mb.tiger.TigerStrategoRuntimeBuilderFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks invoking the desugaring, compilation, and pretty-printing strategies of Tiger with a {@link
+ * StrategoRuntime}, on parsed Tiger programs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TigerStrategoBenchmark {
+    @Param({"10", "100"}) public int declarations;
+    @Param({"desugar-all", "list-of-literal-vals", "pp-Tiger-string"}) public String strategy;
+
+    private StrategoRuntimeBuilder builder;
+    private StrategoRuntime prototype;
+    private StrategoRuntime runtime;
+    private IStrategoTerm ast;
+
+    @Setup public void setup() throws InterruptedException {
+        final LoggerFactory loggerFactory = new NoopLoggerFactory();
+        final ResourceService resourceService = new DefaultResourceService(new FSResourceRegistry(), new URLResourceRegistry());
+        builder = new TigerStrategoRuntimeBuilderFactory().create(loggerFactory, resourceService);
+        prototype = builder.build();
+        runtime = builder.buildFromPrototype(prototype);
+        ast = new TigerParserFactory().create().parse(TigerPrograms.program(declarations, 0), "Module").getAst()
+            .orElseThrow(IllegalStateException::new);
+    }
+
+
+    @Benchmark public @Nullable IStrategoTerm invoke() throws StrategoException {
+        return runtime.invoke(strategy, ast);
+    }
+
+    /**
+     * Builds a runtime from the prototype before invoking the strategy, as tasks do for every execution.
+     */
+    @Benchmark public @Nullable IStrategoTerm buildFromPrototypeAndInvoke() throws StrategoException {
+        return builder.buildFromPrototype(prototype).invoke(strategy, ast);
+    }
+}
@@ -0,0 +1,55 @@
+package mb.tiger.bench;
+
+import mb.log.noop.NoopLoggerFactory;
+import mb.resource.DefaultResourceService;
+import mb.resource.fs.FSResourceRegistry;
+import mb.resource.url.URLResourceRegistry;
+import mb.stratego.common.StrategoRuntime;
+import mb.stratego.common.StrategoRuntimeBuilder;
+import mb.stratego.common.StrategoRuntimeCache;
+import mb.tiger.TigerStrategoRuntimeBuilderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building a Tiger {@link StrategoRuntime} from scratch with {@link StrategoRuntimeBuilder#build}, as tasks
+ * that take the builder instead of the prototype do for every execution, with and without a {@link
+ * StrategoRuntimeCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TigerStrategoBuildBenchmark {
+    @Param({"true", "false"}) public boolean cached;
+
+    private StrategoRuntimeBuilder builder;
+
+    @Setup public void setup() {
+        builder = new TigerStrategoRuntimeBuilderFactory()
+            .create(new NoopLoggerFactory(), new DefaultResourceService(new FSResourceRegistry(), new URLResourceRegistry()))
+            .withCache(cached ? new StrategoRuntimeCache(64, 16) : null);
+    }
+
+
+    @Benchmark public StrategoRuntime build() {
+        return builder.build();
+    }
+
+    @Benchmark public StrategoRuntime buildAndBuildFromPrototype() {
+        return builder.buildFromPrototype(builder.build());
+    }
+}
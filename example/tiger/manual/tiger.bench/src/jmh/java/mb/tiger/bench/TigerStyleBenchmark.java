@@ -0,0 +1,58 @@
+package mb.tiger.bench;
+
+import mb.common.style.Styling;
+import mb.common.token.Token;
+import mb.jsglr.common.JSGLRTokens;
+import mb.jsglr1.common.JSGLR1ParseResult;
+import mb.log.noop.NoopLoggerFactory;
+import mb.tiger.TigerParserFactory;
+import mb.tiger.TigerStyler;
+import mb.tiger.TigerStylerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks styling the tokens of parsed Tiger programs with {@link TigerStyler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class TigerStyleBenchmark {
+    @Param({"10", "100", "1000"}) public int declarations;
+
+    private TigerStyler styler;
+    private ArrayList<? extends Token<IStrategoTerm>> tokens;
+    private JSGLRTokens tokenStream;
+
+    @Setup public void setup() throws InterruptedException {
+        styler = new TigerStylerFactory(new NoopLoggerFactory()).create();
+        final JSGLR1ParseResult result = new TigerParserFactory().create().parse(TigerPrograms.program(declarations, 0), "Module");
+        tokens = result.getTokens().orElseThrow(IllegalStateException::new);
+        tokenStream = result.getTokenStream().orElseThrow(IllegalStateException::new);
+    }
+
+
+    @Benchmark public Styling styleTokens() {
+        return styler.style(tokens);
+    }
+
+    @Benchmark public Styling styleTokenStream() {
+        return styler.style(tokenStream);
+    }
+}
@@ -0,0 +1,80 @@
+package mb.tiger.bench;
+
+import mb.jsglr.common.InterningTermFactory;
+import mb.jsglr1.common.JSGLR1ParserOptions;
+import mb.tiger.TigerParser;
+import mb.tiger.TigerParserFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the heap retained by the ASTs of a large synthetic Tiger project, parsed with the default term factory or
+ * with an {@link InterningTermFactory}. The retained heap is reported as the {@code retainedKilobytes} secondary result.
+ * The measured time includes forced garbage collections, and is therefore not meaningful.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class TigerTermFactoryHeapBenchmark {
+    @Param({"200"}) public int files;
+    @Param({"50"}) public int declarations;
+    @Param({"default", "interning"}) public String termFactory;
+
+    private TigerParser parser;
+    private ArrayList<String> texts;
+
+    @Setup public void setup() {
+        final TigerParserFactory parserFactory = termFactory.equals("interning")
+            ? new TigerParserFactory(JSGLR1ParserOptions.defaults(), new ImploderOriginTermFactory(new InterningTermFactory()))
+            : new TigerParserFactory();
+        parser = parserFactory.create();
+        texts = new ArrayList<>(files);
+        for(int i = 0; i < files; ++i) {
+            texts.add(TigerPrograms.program(declarations, i));
+        }
+    }
+
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public long retainedKilobytes;
+    }
+
+    @Benchmark public ArrayList<IStrategoTerm> parseProject(Heap heap) throws InterruptedException {
+        final long before = usedHeap();
+        final ArrayList<IStrategoTerm> asts = new ArrayList<>(files);
+        for(String text : texts) {
+            asts.add(parser.parse(text, "Module").getAst().orElseThrow(IllegalStateException::new));
+        }
+        heap.retainedKilobytes = (usedHeap() - before) / 1024;
+        return asts;
+    }
+
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
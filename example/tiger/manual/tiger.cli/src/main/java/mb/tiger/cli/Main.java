@@ -1,5 +1,6 @@
 package mb.tiger.cli;
 
+import mb.log.api.LoggerFactory;
 import mb.log.slf4j.SLF4JLoggerFactory;
 import mb.pie.dagger.PieModule;
 import mb.pie.runtime.PieBuilderImpl;
@@ -7,24 +8,56 @@ import mb.spoofax.cli.DaggerSpoofaxCliComponent;
 import mb.spoofax.cli.SpoofaxCli;
 import mb.spoofax.cli.SpoofaxCliComponent;
 import mb.spoofax.core.platform.LoggerFactoryModule;
+import mb.stratego.common.StrategoProfiler;
 import mb.tiger.spoofax.DaggerTigerComponent;
 import mb.tiger.spoofax.TigerComponent;
 import mb.tiger.spoofax.TigerModule;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 public class Main {
+    /**
+     * System property that enables profiling of Stratego strategy invocations, set to the file to write the metrics to
+     * as JSON, e.g.: {@code -Dtiger.stratego.profile=profile.json}.
+     */
+    private static final String strategoProfileProperty = "tiger.stratego.profile";
+    /**
+     * System property that enables persisting multi-file analysis results across runs, set to the directory to store
+     * them in, e.g.: {@code -Dtiger.analysis.cache=.tiger-cache}.
+     */
+    private static final String analysisCacheProperty = "tiger.analysis.cache";
+
     public static void main(String[] args) {
+        final @Nullable String strategoProfileFile = System.getProperty(strategoProfileProperty);
+        final @Nullable StrategoProfiler strategoProfiler = strategoProfileFile != null ? new StrategoProfiler() : null;
+        final @Nullable String analysisCacheDirectory = System.getProperty(analysisCacheProperty);
+        final LoggerFactory loggerFactory = new SLF4JLoggerFactory();
         final SpoofaxCliComponent platformComponent = DaggerSpoofaxCliComponent
             .builder()
-            .loggerFactoryModule(new LoggerFactoryModule(new SLF4JLoggerFactory()))
+            .loggerFactoryModule(new LoggerFactoryModule(loggerFactory))
             .pieModule(new PieModule(PieBuilderImpl::new))
             .build();
         final TigerComponent tigerComponent = DaggerTigerComponent
             .builder()
             .platformComponent(platformComponent)
-            .tigerModule(new TigerModule())
+            .tigerModule(new TigerModule(strategoProfiler, null, analysisCacheDirectory != null ? Paths.get(analysisCacheDirectory) : null))
             .build();
         final SpoofaxCli cmd = platformComponent.getSpoofaxCmd();
         final int status = cmd.run(args, tigerComponent);
+        // Analysis cache files are written in the background, which does not keep the process alive.
+        tigerComponent.getConstraintAnalyzerCache().flush();
+        if(strategoProfileFile != null && strategoProfiler != null) {
+            try(final Writer writer = Files.newBufferedWriter(Paths.get(strategoProfileFile), StandardCharsets.UTF_8)) {
+                strategoProfiler.writeJson(writer);
+            } catch(IOException e) {
+                loggerFactory.create(Main.class).error("Writing Stratego profile to '{}' failed", e, strategoProfileFile);
+            }
+        }
         System.exit(status);
     }
 }
@@ -1,6 +1,7 @@
 package mb.tiger.spoofax;
 
 import dagger.Component;
+import mb.constraint.common.ConstraintAnalyzerCache;
 import mb.spoofax.core.language.LanguageComponent;
 import mb.spoofax.core.language.LanguageScope;
 import mb.spoofax.core.platform.PlatformComponent;
@@ -13,4 +14,6 @@ import mb.spoofax.core.platform.PlatformComponent;
 @LanguageScope @Component(modules = TigerModule.class, dependencies = PlatformComponent.class)
 public interface TigerComponent extends LanguageComponent {
     @Override TigerInstance getLanguageInstance();
+
+    ConstraintAnalyzerCache getConstraintAnalyzerCache();
 }
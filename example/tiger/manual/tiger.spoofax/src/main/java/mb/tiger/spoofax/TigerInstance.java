@@ -2,7 +2,7 @@ package mb.tiger.spoofax;
 
 import mb.common.region.Region;
 import mb.common.style.Styling;
-import mb.common.token.Token;
+import mb.common.token.PackedTokens;
 import mb.common.util.CollectionView;
 import mb.common.util.ListView;
 import mb.common.util.MapView;
@@ -34,7 +34,6 @@ import mb.tiger.spoofax.task.reusable.TigerStyle;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
 import java.util.Set;
 
 public class TigerInstance implements LanguageInstance {
@@ -104,7 +103,7 @@ public class TigerInstance implements LanguageInstance {
     }
 
 
-    @Override public Task<@Nullable ArrayList<? extends Token<?>>> createTokenizeTask(ResourceKey resourceKey) {
+    @Override public Task<@Nullable PackedTokens<?>> createTokenizeTask(ResourceKey resourceKey) {
         return tokenize.createTask(resourceKey);
     }
 
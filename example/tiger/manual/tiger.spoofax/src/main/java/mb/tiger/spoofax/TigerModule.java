@@ -3,6 +3,7 @@ package mb.tiger.spoofax;
 import dagger.Module;
 import dagger.Provides;
 import dagger.multibindings.ElementsIntoSet;
+import mb.constraint.common.ConstraintAnalyzerCache;
 import mb.log.api.LoggerFactory;
 import mb.pie.api.MapTaskDefs;
 import mb.pie.api.Pie;
@@ -15,8 +16,11 @@ import mb.spoofax.core.language.LanguageScope;
 import mb.spoofax.core.language.command.AutoCommandRequest;
 import mb.spoofax.core.language.command.CommandDef;
 import mb.spoofax.core.language.command.HierarchicalResourceType;
+import mb.stratego.common.StrategoMemoCache;
+import mb.stratego.common.StrategoProfiler;
 import mb.stratego.common.StrategoRuntime;
 import mb.stratego.common.StrategoRuntimeBuilder;
+import mb.stratego.common.StrategoRuntimePool;
 import mb.tiger.TigerConstraintAnalyzer;
 import mb.tiger.TigerConstraintAnalyzerFactory;
 import mb.tiger.TigerParser;
@@ -36,6 +40,7 @@ import mb.tiger.spoofax.task.TigerCompileDirectory;
 import mb.tiger.spoofax.task.TigerCompileFile;
 import mb.tiger.spoofax.task.TigerCompileFileAlt;
 import mb.tiger.spoofax.task.TigerIdeCheck;
+import mb.tiger.spoofax.task.TigerIdeCheckMulti;
 import mb.tiger.spoofax.task.TigerIdeTokenize;
 import mb.tiger.spoofax.task.TigerShowAnalyzedAst;
 import mb.tiger.spoofax.task.TigerShowDesugaredAst;
@@ -43,24 +48,73 @@ import mb.tiger.spoofax.task.TigerShowParsedAst;
 import mb.tiger.spoofax.task.TigerShowPrettyPrintedText;
 import mb.tiger.spoofax.task.TigerShowScopeGraph;
 import mb.tiger.spoofax.task.reusable.TigerAnalyze;
+import mb.tiger.spoofax.task.reusable.TigerAnalyzeMulti;
 import mb.tiger.spoofax.task.reusable.TigerCompleteTaskDef;
 import mb.tiger.spoofax.task.reusable.TigerListDefNames;
 import mb.tiger.spoofax.task.reusable.TigerListLiteralVals;
 import mb.tiger.spoofax.task.reusable.TigerParse;
 import mb.tiger.spoofax.task.reusable.TigerStyle;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import javax.inject.Named;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Set;
 
 @Module
 public class TigerModule {
+    private final @Nullable StrategoProfiler strategoProfiler;
+    private final @Nullable StrategoMemoCache strategoMemoCache;
+    private final @Nullable Path analysisCacheDirectory;
+
+
+    public TigerModule() {
+        this(null, null, null);
+    }
+
+    /**
+     * @param strategoProfiler  Profiler that records metrics of all Stratego strategy invocations of Tiger, or {@code
+     *                          null} to disable profiling.
+     * @param strategoMemoCache Cache that memoizes invocations of pure Tiger Stratego strategies, or {@code null} to
+     *                          disable memoization. Use {@link #createStrategoMemoCache(long)} to create a cache for
+     *                          the pure strategies of Tiger.
+     * @param analysisCacheDirectory Directory to persist multi-file analysis results in across processes, or {@code
+     *                               null} to disable persisting analysis results.
+     */
+    public TigerModule(@Nullable StrategoProfiler strategoProfiler, @Nullable StrategoMemoCache strategoMemoCache, @Nullable Path analysisCacheDirectory) {
+        this.strategoProfiler = strategoProfiler;
+        this.strategoMemoCache = strategoMemoCache;
+        this.analysisCacheDirectory = analysisCacheDirectory;
+    }
+
+    public TigerModule(@Nullable StrategoProfiler strategoProfiler, @Nullable StrategoMemoCache strategoMemoCache) {
+        this(strategoProfiler, strategoMemoCache, null);
+    }
+
+    public TigerModule(@Nullable StrategoProfiler strategoProfiler) {
+        this(strategoProfiler, null, null);
+    }
+
+
+    /**
+     * Creates a memo cache for the Tiger strategies that only depend on their input term: pretty-printing, and listing
+     * definition names and literal values. Desugaring is not memoized, as its output carries the origins of its input.
+     *
+     * @param maxWeight Maximum total number of term nodes of memoized inputs and outputs.
+     */
+    public static StrategoMemoCache createStrategoMemoCache(long maxWeight) {
+        return new StrategoMemoCache(maxWeight, "pp-Tiger-string", "list-of-def-names", "list-of-literal-vals");
+    }
+
+
     @Provides @LanguageScope
     TigerParserFactory provideParserFactory() {
         return new TigerParserFactory();
     }
 
-    @Provides /* Unscoped: parser has state, so create a new parser every call. */
+    @Provides /* Unscoped: parsers are cheap to create, as they share the pooled parser state of the factory. */
     TigerParser provideParser(TigerParserFactory parserFactory) {
         return parserFactory.create();
     }
@@ -83,7 +137,7 @@ public class TigerModule {
 
     @Provides @LanguageScope
     StrategoRuntimeBuilder provideStrategoRuntimeBuilder(TigerStrategoRuntimeBuilderFactory factory, LoggerFactory loggerFactory, ResourceService resourceService) {
-        return factory.create(loggerFactory, resourceService);
+        return factory.create(loggerFactory, resourceService).withProfiler(strategoProfiler).withMemoCache(strategoMemoCache);
     }
 
     @Provides @LanguageScope
@@ -91,10 +145,15 @@ public class TigerModule {
         return builder.build();
     }
 
+    @Provides @LanguageScope
+    StrategoRuntimePool provideStrategoRuntimePool(StrategoRuntimeBuilder builder, StrategoRuntime prototypeStrategoRuntime) {
+        return new StrategoRuntimePool(builder, prototypeStrategoRuntime);
+    }
+
 
     @Provides @LanguageScope
-    TigerConstraintAnalyzerFactory provideConstraintAnalyzerFactory(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntime prototypeStrategoRuntime) {
-        return new TigerConstraintAnalyzerFactory(loggerFactory, resourceService, prototypeStrategoRuntime);
+    TigerConstraintAnalyzerFactory provideConstraintAnalyzerFactory(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntimePool strategoRuntimePool) {
+        return new TigerConstraintAnalyzerFactory(loggerFactory, resourceService, strategoRuntimePool);
     }
 
     @Provides @LanguageScope
@@ -102,12 +161,28 @@ public class TigerModule {
         return factory.create();
     }
 
+    @Provides @LanguageScope
+    ConstraintAnalyzerCache provideConstraintAnalyzerCache(LoggerFactory loggerFactory, ResourceService resourceService) {
+        if(analysisCacheDirectory == null) {
+            return ConstraintAnalyzerCache.inMemory();
+        }
+        try {
+            // The Tiger JAR (or class directory) contains the parse table and compiled Stratego code of Tiger.
+            final String languageStamp = ConstraintAnalyzerCache.languageStamp(TigerStrategoRuntimeBuilderFactory.class);
+            return new ConstraintAnalyzerCache(analysisCacheDirectory, languageStamp, resourceService, loggerFactory);
+        } catch(IOException e) {
+            loggerFactory.create(TigerModule.class).warn("Stamping Tiger language failed; not persisting analysis results", e);
+            return ConstraintAnalyzerCache.inMemory();
+        }
+    }
+
 
     @Provides @LanguageScope @Named("language") @ElementsIntoSet
     static Set<TaskDef<?, ?>> provideTaskDefsSet(
         TigerParse parse,
         TigerStyle style,
         TigerAnalyze analyze,
+        TigerAnalyzeMulti analyzeMulti,
         TigerCompleteTaskDef complete,
 
         TigerListLiteralVals listLiteralVals,
@@ -115,6 +190,7 @@ public class TigerModule {
 
         TigerIdeTokenize tokenize,
         TigerIdeCheck check,
+        TigerIdeCheckMulti checkMulti,
 
         TigerShowParsedAst showParsedAst,
         TigerShowPrettyPrintedText showPrettyPrintedText,
@@ -131,6 +207,7 @@ public class TigerModule {
         taskDefs.add(parse);
         taskDefs.add(style);
         taskDefs.add(analyze);
+        taskDefs.add(analyzeMulti);
         taskDefs.add(complete);
 
         taskDefs.add(listLiteralVals);
@@ -138,6 +215,7 @@ public class TigerModule {
 
         taskDefs.add(tokenize);
         taskDefs.add(check);
+        taskDefs.add(checkMulti);
 
         taskDefs.add(showParsedAst);
         taskDefs.add(showPrettyPrintedText);
@@ -2,8 +2,11 @@ package mb.tiger.spoofax.task;
 
 import mb.common.message.KeyedMessages;
 import mb.common.message.KeyedMessagesBuilder;
+import mb.common.message.KeyedMessagesSink;
+import mb.common.message.KeyedMessagesSinks;
+import mb.common.message.MessageTextPool;
+import mb.common.message.Messages;
 import mb.common.util.UncheckedException;
-import mb.jsglr1.common.JSGLR1ParseResult;
 import mb.pie.api.ExecContext;
 import mb.pie.api.ExecException;
 import mb.pie.api.ResourceStringSupplier;
@@ -65,26 +68,40 @@ public class TigerIdeCheckMulti implements TaskDef<TigerIdeCheckMulti.Input, Key
 
     private final TigerParse parse;
     private final TigerAnalyzeMulti analyze;
+    private final KeyedMessagesSinks messageSinks = new KeyedMessagesSinks();
 
-    @Inject public TigerIdeCheckMulti(TigerParse parse, TigerAnalyzeMulti analyze) {
+    @Inject
+    public TigerIdeCheckMulti(TigerParse parse, TigerAnalyzeMulti analyze) {
         this.parse = parse;
         this.analyze = analyze;
     }
 
     @Override public String getId() {
-        return "mb.tiger.spoofax.task.TigerCheck";
+        return getClass().getName();
+    }
+
+    /**
+     * Gets the registry of sinks that receive the messages of each file while a project is being checked.
+     */
+    public KeyedMessagesSinks getMessageSinks() {
+        return messageSinks;
     }
 
     @Override
     public KeyedMessages exec(ExecContext context, Input input) throws Exception {
-        final KeyedMessagesBuilder messagesBuilder = new KeyedMessagesBuilder();
+        final KeyedMessagesBuilder messagesBuilder = new KeyedMessagesBuilder(MessageTextPool.shared(), false);
+        final KeyedMessagesSink messagesSink = messageSinks.get(input.root);
         final HierarchicalResource root = context.require(input.root, ResourceStampers.modifiedDirRec(input.walker, input.matcher));
+        // Files are parsed through the parse task, such that each file is only reparsed when it changes, and the
+        // analysis below reuses the same parse results. Messages of each file are pushed as soon as the file is parsed,
+        // such that they can be shown before the whole project is checked.
         try {
             root.walk(input.walker, input.matcher).forEach(file -> {
                 final ResourcePath filePath = file.getPath();
                 try {
-                    final JSGLR1ParseResult parseResult = context.require(parse, new ResourceStringSupplier(filePath));
-                    messagesBuilder.addMessages(filePath, parseResult.getMessages());
+                    final Messages messages = context.require(parse, new ResourceStringSupplier(filePath)).getMessages();
+                    messagesBuilder.addMessages(filePath, messages);
+                    messagesSink.messages(filePath, messages);
                 } catch(ExecException | InterruptedException e) {
                     throw new UncheckedException(e);
                 }
@@ -97,6 +114,7 @@ public class TigerIdeCheckMulti implements TaskDef<TigerIdeCheckMulti.Input, Key
         final TigerAnalyzeMulti.@Nullable Output analysisOutput = context.require(analyze, analyzeInput);
         if(analysisOutput != null) {
             messagesBuilder.addMessages(analysisOutput.result.messages);
+            messagesSink.messages(analysisOutput.result.messages);
         }
         return messagesBuilder.build();
     }
@@ -1,6 +1,7 @@
 package mb.tiger.spoofax.task;
 
-import mb.common.token.Token;
+import mb.common.token.PackedTokens;
+import mb.jsglr.common.JSGLRTokens;
 import mb.jsglr1.common.JSGLR1ParseResult;
 import mb.pie.api.ExecContext;
 import mb.pie.api.ExecException;
@@ -12,10 +13,9 @@ import mb.tiger.spoofax.task.reusable.TigerParse;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import javax.inject.Inject;
-import java.util.ArrayList;
 
 @LanguageScope
-public class TigerIdeTokenize implements TaskDef<ResourceKey, @Nullable ArrayList<? extends Token<?>>> {
+public class TigerIdeTokenize implements TaskDef<ResourceKey, @Nullable PackedTokens<?>> {
     private final TigerParse parse;
 
     @Inject public TigerIdeTokenize(TigerParse parse) {
@@ -27,8 +27,8 @@ public class TigerIdeTokenize implements TaskDef<ResourceKey, @Nullable ArrayLis
     }
 
     @Override
-    public @Nullable ArrayList<? extends Token<?>> exec(ExecContext context, ResourceKey key) throws ExecException, InterruptedException {
+    public @Nullable PackedTokens<?> exec(ExecContext context, ResourceKey key) throws ExecException, InterruptedException {
         final @Nullable JSGLR1ParseResult parseResult = context.require(parse, new ResourceStringSupplier(key));
-        return parseResult.getTokens().orElse(null);
+        return parseResult.getTokenStream().map(JSGLRTokens::getPackedTokens).orElse(null);
     }
 }
@@ -14,6 +14,7 @@ import mb.spoofax.core.language.command.CommandOutput;
 import mb.stratego.common.StrategoRuntime;
 import mb.stratego.common.StrategoRuntimeBuilder;
 import mb.stratego.common.StrategoUtil;
+import mb.stratego.common.StrategyHandle;
 import mb.tiger.spoofax.task.reusable.TigerParse;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
@@ -24,6 +25,7 @@ public class TigerShowDesugaredAst implements TaskDef<TigerShowArgs, CommandOutp
     private final TigerParse parse;
     private final StrategoRuntimeBuilder strategoRuntimeBuilder;
     private final StrategoRuntime prototypeStrategoRuntime;
+    private final StrategyHandle strategy;
 
     @Inject public TigerShowDesugaredAst(
         TigerParse parse,
@@ -33,6 +35,7 @@ public class TigerShowDesugaredAst implements TaskDef<TigerShowArgs, CommandOutp
         this.parse = parse;
         this.strategoRuntimeBuilder = strategoRuntimeBuilder;
         this.prototypeStrategoRuntime = prototypeStrategoRuntime;
+        this.strategy = prototypeStrategoRuntime.lookup("desugar-all");
     }
 
     @Override public String getId() {
@@ -55,10 +58,9 @@ public class TigerShowDesugaredAst implements TaskDef<TigerShowArgs, CommandOutp
         }
 
         final StrategoRuntime strategoRuntime = strategoRuntimeBuilder.buildFromPrototype(prototypeStrategoRuntime);
-        final String strategyId = "desugar-all";
-        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategyId, term);
+        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategy, term);
         if(result == null) {
-            throw new RuntimeException("Cannot show desugared AST, executing Stratego strategy '" + strategyId + "' failed");
+            throw new RuntimeException("Cannot show desugared AST, executing Stratego strategy '" + strategy + "' failed");
         }
 
         final String formatted = StrategoUtil.toString(result);
@@ -14,6 +14,7 @@ import mb.spoofax.core.language.command.CommandOutput;
 import mb.stratego.common.StrategoRuntime;
 import mb.stratego.common.StrategoRuntimeBuilder;
 import mb.stratego.common.StrategoUtil;
+import mb.stratego.common.StrategyHandle;
 import mb.tiger.spoofax.task.reusable.TigerParse;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
@@ -24,6 +25,7 @@ public class TigerShowPrettyPrintedText implements TaskDef<TigerShowArgs, Comman
     private final TigerParse parse;
     private final StrategoRuntimeBuilder strategoRuntimeBuilder;
     private final StrategoRuntime prototypeStrategoRuntime;
+    private final StrategyHandle strategy;
 
     @Inject public TigerShowPrettyPrintedText(
         TigerParse parse,
@@ -33,6 +35,7 @@ public class TigerShowPrettyPrintedText implements TaskDef<TigerShowArgs, Comman
         this.parse = parse;
         this.strategoRuntimeBuilder = strategoRuntimeBuilder;
         this.prototypeStrategoRuntime = prototypeStrategoRuntime;
+        this.strategy = prototypeStrategoRuntime.lookup("pp-Tiger-string");
     }
 
     @Override public String getId() {
@@ -55,10 +58,9 @@ public class TigerShowPrettyPrintedText implements TaskDef<TigerShowArgs, Comman
         }
 
         final StrategoRuntime strategoRuntime = strategoRuntimeBuilder.buildFromPrototype(prototypeStrategoRuntime);
-        final String strategyId = "pp-Tiger-string";
-        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategyId, term);
+        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategy, term);
         if(result == null) {
-            throw new RuntimeException("Cannot show pretty-printed text, executing Stratego strategy '" + strategyId + "' failed");
+            throw new RuntimeException("Cannot show pretty-printed text, executing Stratego strategy '" + strategy + "' failed");
         }
 
         final String formatted = StrategoUtil.toString(result);
@@ -12,6 +12,7 @@ import mb.spoofax.core.language.command.CommandOutput;
 import mb.stratego.common.StrategoRuntime;
 import mb.stratego.common.StrategoRuntimeBuilder;
 import mb.stratego.common.StrategoUtil;
+import mb.stratego.common.StrategyHandle;
 import mb.tiger.spoofax.task.reusable.TigerAnalyze;
 import mb.tiger.spoofax.task.reusable.TigerParse;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -26,6 +27,7 @@ public class TigerShowScopeGraph implements TaskDef<TigerShowArgs, CommandOutput
     private final ResourceService resourceService;
     private final StrategoRuntimeBuilder strategoRuntimeBuilder;
     private final StrategoRuntime prototypeStrategoRuntime;
+    private final StrategyHandle strategy;
 
 
     @Inject public TigerShowScopeGraph(
@@ -40,6 +42,7 @@ public class TigerShowScopeGraph implements TaskDef<TigerShowArgs, CommandOutput
         this.resourceService = resourceService;
         this.strategoRuntimeBuilder = strategoRuntimeBuilder;
         this.prototypeStrategoRuntime = prototypeStrategoRuntime;
+        this.strategy = prototypeStrategoRuntime.lookup("spoofax3-editor-show-analysis-term");
     }
 
     @Override public String getId() {
@@ -59,12 +62,11 @@ public class TigerShowScopeGraph implements TaskDef<TigerShowArgs, CommandOutput
         }
 
         final StrategoRuntime strategoRuntime = strategoRuntimeBuilder.buildFromPrototype(prototypeStrategoRuntime);
-        final String strategyId = "spoofax3-editor-show-analysis-term";
         final ITermFactory termFactory = strategoRuntime.getTermFactory();
         final IStrategoTerm inputTerm = termFactory.makeTuple(output.result.ast, termFactory.makeString(resourceService.toString(key)));
-        final @Nullable IStrategoTerm result = strategoRuntime.addContextObject(output.context).invoke(strategyId, inputTerm);
+        final @Nullable IStrategoTerm result = strategoRuntime.addContextObject(output.context).invoke(strategy, inputTerm);
         if(result == null) {
-            throw new RuntimeException("Cannot show scope graph, executing Stratego strategy '" + strategyId + "' failed");
+            throw new RuntimeException("Cannot show scope graph, executing Stratego strategy '" + strategy + "' failed");
         }
 
         final String formatted = StrategoUtil.toString(result);
@@ -2,6 +2,7 @@ package mb.tiger.spoofax.task.reusable;
 
 import mb.common.util.UncheckedException;
 import mb.constraint.common.ConstraintAnalyzer.MultiFileResult;
+import mb.constraint.common.ConstraintAnalyzerCache;
 import mb.constraint.common.ConstraintAnalyzerContext;
 import mb.pie.api.ExecContext;
 import mb.pie.api.Function;
@@ -21,10 +22,16 @@ import org.spoofax.interpreter.terms.IStrategoTerm;
 
 import javax.inject.Inject;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Objects;
 
 /**
+ * Multi-file analysis of Tiger files. Continues from the context of the previous analysis of the same root, kept in the
+ * {@link ConstraintAnalyzerCache analysis cache}, and only reanalyzes files whose modification time changed since then,
+ * reusing the cached results of other files. When the analysis cache is persistent, the first execution per root in a
+ * process continues from the cached context of a previous process, and the cache file is updated in the background.
+ *
  * @implNote Although Tiger is a single-file language, we implement the multi-file analysis variant here as well for
  * development/testing purposes.
  */
@@ -75,36 +82,41 @@ public class TigerAnalyzeMulti implements TaskDef<TigerAnalyzeMulti.Input, Tiger
     public static class Output implements Serializable {
         public final ConstraintAnalyzerContext context;
         public final MultiFileResult result;
+        public final HashMap<ResourceKey, Instant> modifiedTimes;
 
-        public Output(ConstraintAnalyzerContext context, MultiFileResult result) {
+        public Output(ConstraintAnalyzerContext context, MultiFileResult result, HashMap<ResourceKey, Instant> modifiedTimes) {
             this.result = result;
             this.context = context;
+            this.modifiedTimes = modifiedTimes;
         }
 
         @Override public boolean equals(Object o) {
             if(this == o) return true;
             if(o == null || getClass() != o.getClass()) return false;
             final Output output = (Output)o;
-            return context.equals(output.context) && result.equals(output.result);
+            return context.equals(output.context) && result.equals(output.result) && modifiedTimes.equals(output.modifiedTimes);
         }
 
         @Override public int hashCode() {
-            return Objects.hash(context, result);
+            return Objects.hash(context, result, modifiedTimes);
         }
 
         @Override public String toString() {
             return "Output{" +
                 "context=" + context +
                 ", result=" + result +
+                ", modifiedTimes=" + modifiedTimes +
                 '}';
         }
     }
 
     private final TigerConstraintAnalyzer constraintAnalyzer;
+    private final ConstraintAnalyzerCache analysisCache;
 
     @Inject
-    public TigerAnalyzeMulti(TigerConstraintAnalyzer constraintAnalyzer) {
+    public TigerAnalyzeMulti(TigerConstraintAnalyzer constraintAnalyzer, ConstraintAnalyzerCache analysisCache) {
         this.constraintAnalyzer = constraintAnalyzer;
+        this.analysisCache = analysisCache;
     }
 
     @Override public String getId() {
@@ -114,12 +126,14 @@ public class TigerAnalyzeMulti implements TaskDef<TigerAnalyzeMulti.Input, Tiger
     @Override public @Nullable Output exec(ExecContext context, Input input) throws Exception {
         final HierarchicalResource root = context.require(input.root, ResourceStampers.modifiedDirRec(input.walker, input.matcher));
         final HashMap<ResourceKey, IStrategoTerm> asts = new HashMap<>();
+        final HashMap<ResourceKey, Instant> modifiedTimes = new HashMap<>();
         try {
             root.walk(input.walker, input.matcher).forEach(file -> {
                 try {
                     final @Nullable IStrategoTerm ast = context.require(input.astFunction, new ResourceStringSupplier(file.getPath()));
                     if(ast != null) {
                         asts.put(file.getKey(), ast);
+                        modifiedTimes.put(file.getKey(), file.getLastModifiedTime());
                     }
                 } catch(Exception e) {
                     throw new UncheckedException(e);
@@ -128,8 +142,19 @@ public class TigerAnalyzeMulti implements TaskDef<TigerAnalyzeMulti.Input, Tiger
         } catch(UncheckedException e) {
             throw e.getCause();
         }
-        final ConstraintAnalyzerContext constraintAnalyzerContext = new ConstraintAnalyzerContext();
-        final MultiFileResult result = constraintAnalyzer.analyze(input.root, asts, constraintAnalyzerContext);
-        return new Output(constraintAnalyzerContext, result);
+
+        final ConstraintAnalyzerCache.@Nullable WarmStart warmStart = analysisCache.get(input.root, modifiedTimes);
+        final ConstraintAnalyzerContext constraintAnalyzerContext;
+        final MultiFileResult result;
+        if(warmStart != null) {
+            constraintAnalyzerContext = warmStart.context;
+            result = constraintAnalyzer.analyze(input.root, asts, warmStart.unchanged, constraintAnalyzerContext);
+        } else {
+            constraintAnalyzerContext = new ConstraintAnalyzerContext();
+            result = constraintAnalyzer.analyze(input.root, asts, constraintAnalyzerContext);
+        }
+        // A persistent cache writes its file later, on a background thread.
+        analysisCache.put(input.root, constraintAnalyzerContext, modifiedTimes);
+        return new Output(constraintAnalyzerContext, result, modifiedTimes);
     }
 }
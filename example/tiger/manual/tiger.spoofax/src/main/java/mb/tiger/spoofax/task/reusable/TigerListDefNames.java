@@ -6,6 +6,7 @@ import mb.pie.api.TaskDef;
 import mb.stratego.common.StrategoRuntime;
 import mb.stratego.common.StrategoRuntimeBuilder;
 import mb.stratego.common.StrategoUtil;
+import mb.stratego.common.StrategyHandle;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
@@ -14,6 +15,7 @@ import javax.inject.Inject;
 public class TigerListDefNames implements TaskDef<Supplier<@Nullable IStrategoTerm>, @Nullable String> {
     private final StrategoRuntimeBuilder strategoRuntimeBuilder;
     private final StrategoRuntime prototypeStrategoRuntime;
+    private final StrategyHandle strategy;
 
     @Inject
     public TigerListDefNames(
@@ -22,6 +24,7 @@ public class TigerListDefNames implements TaskDef<Supplier<@Nullable IStrategoTe
     ) {
         this.strategoRuntimeBuilder = strategoRuntimeBuilder;
         this.prototypeStrategoRuntime = prototypeStrategoRuntime;
+        this.strategy = prototypeStrategoRuntime.lookup("list-of-def-names");
     }
 
     @Override public String getId() {
@@ -36,8 +39,7 @@ public class TigerListDefNames implements TaskDef<Supplier<@Nullable IStrategoTe
         }
 
         final StrategoRuntime strategoRuntime = strategoRuntimeBuilder.buildFromPrototype(prototypeStrategoRuntime);
-        final String strategyId = "list-of-def-names";
-        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategyId, ast);
+        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategy, ast);
         if(result == null) {
             return null;
         }
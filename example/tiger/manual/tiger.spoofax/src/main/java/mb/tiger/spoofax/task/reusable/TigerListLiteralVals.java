@@ -6,6 +6,7 @@ import mb.pie.api.TaskDef;
 import mb.stratego.common.StrategoRuntime;
 import mb.stratego.common.StrategoRuntimeBuilder;
 import mb.stratego.common.StrategoUtil;
+import mb.stratego.common.StrategyHandle;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
@@ -14,6 +15,7 @@ import javax.inject.Inject;
 public class TigerListLiteralVals implements TaskDef<Supplier<@Nullable IStrategoTerm>, @Nullable String> {
     private final StrategoRuntimeBuilder strategoRuntimeBuilder;
     private final StrategoRuntime prototypeStrategoRuntime;
+    private final StrategyHandle strategy;
 
     @Inject public TigerListLiteralVals(
         StrategoRuntimeBuilder strategoRuntimeBuilder,
@@ -21,6 +23,7 @@ public class TigerListLiteralVals implements TaskDef<Supplier<@Nullable IStrateg
     ) {
         this.strategoRuntimeBuilder = strategoRuntimeBuilder;
         this.prototypeStrategoRuntime = prototypeStrategoRuntime;
+        this.strategy = prototypeStrategoRuntime.lookup("list-of-literal-vals");
     }
 
     @Override public String getId() {
@@ -35,8 +38,7 @@ public class TigerListLiteralVals implements TaskDef<Supplier<@Nullable IStrateg
         }
 
         final StrategoRuntime strategoRuntime = strategoRuntimeBuilder.buildFromPrototype(prototypeStrategoRuntime);
-        final String strategyId = "list-of-literal-vals";
-        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategyId, ast);
+        final @Nullable IStrategoTerm result = strategoRuntime.invoke(strategy, ast);
         if(result == null) {
             return null;
         }
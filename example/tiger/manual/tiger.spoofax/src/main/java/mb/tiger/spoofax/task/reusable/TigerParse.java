@@ -2,7 +2,7 @@ package mb.tiger.spoofax.task.reusable;
 
 import mb.common.message.Message;
 import mb.common.message.Messages;
-import mb.common.token.Token;
+import mb.jsglr.common.JSGLRTokens;
 import mb.jsglr1.common.JSGLR1ParseResult;
 import mb.pie.api.ExecContext;
 import mb.pie.api.ExecException;
@@ -22,7 +22,6 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
 
 @LanguageScope
 public class TigerParse implements TaskDef<Supplier<String>, JSGLR1ParseResult> {
@@ -67,19 +66,19 @@ public class TigerParse implements TaskDef<Supplier<String>, JSGLR1ParseResult>
         return this.createSupplier(new ResourceStringSupplier(key, stamper, charset)).map(new AstMapper());
     }
 
-    public Supplier<@Nullable ArrayList<? extends Token<IStrategoTerm>>> createTokensSupplier(Supplier<String> stringSupplier) {
+    public Supplier<@Nullable JSGLRTokens> createTokensSupplier(Supplier<String> stringSupplier) {
         return this.createSupplier(stringSupplier).map(new TokensMapper());
     }
 
-    public Supplier<@Nullable ArrayList<? extends Token<IStrategoTerm>>> createTokensSupplier(ResourceKey key) {
+    public Supplier<@Nullable JSGLRTokens> createTokensSupplier(ResourceKey key) {
         return this.createSupplier(new ResourceStringSupplier(key)).map(new TokensMapper());
     }
 
-    public Supplier<@Nullable ArrayList<? extends Token<IStrategoTerm>>> createTokensSupplier(ResourceKey key, ResourceStamper<ReadableResource> stamper) {
+    public Supplier<@Nullable JSGLRTokens> createTokensSupplier(ResourceKey key, ResourceStamper<ReadableResource> stamper) {
         return this.createSupplier(new ResourceStringSupplier(key, stamper)).map(new TokensMapper());
     }
 
-    public Supplier<@Nullable ArrayList<? extends Token<IStrategoTerm>>> createTokensSupplier(ResourceKey key, ResourceStamper<ReadableResource> stamper, Charset charset) {
+    public Supplier<@Nullable JSGLRTokens> createTokensSupplier(ResourceKey key, ResourceStamper<ReadableResource> stamper, Charset charset) {
         return this.createSupplier(new ResourceStringSupplier(key, stamper, charset)).map(new TokensMapper());
     }
 
@@ -105,7 +104,7 @@ public class TigerParse implements TaskDef<Supplier<String>, JSGLR1ParseResult>
         return this.createFunction().mapOutput(new AstMapper());
     }
 
-    public Function<Supplier<String>, @Nullable ArrayList<? extends Token<IStrategoTerm>>> createTokensFunction() {
+    public Function<Supplier<String>, @Nullable JSGLRTokens> createTokensFunction() {
         return this.createFunction().mapOutput(new TokensMapper());
     }
 
@@ -120,9 +119,9 @@ class AstMapper implements java.util.function.Function<JSGLR1ParseResult, @Nulla
     }
 }
 
-class TokensMapper implements java.util.function.Function<JSGLR1ParseResult, @Nullable ArrayList<? extends Token<IStrategoTerm>>>, Serializable {
-    @Override public @Nullable ArrayList<? extends Token<IStrategoTerm>> apply(JSGLR1ParseResult result) {
-        return result.getTokens().orElse(null);
+class TokensMapper implements java.util.function.Function<JSGLR1ParseResult, @Nullable JSGLRTokens>, Serializable {
+    @Override public @Nullable JSGLRTokens apply(JSGLR1ParseResult result) {
+        return result.getTokenStream().orElse(null);
     }
 }
 
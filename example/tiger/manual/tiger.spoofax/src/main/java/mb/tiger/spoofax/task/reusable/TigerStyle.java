@@ -1,7 +1,7 @@
 package mb.tiger.spoofax.task.reusable;
 
 import mb.common.style.Styling;
-import mb.common.token.Token;
+import mb.jsglr.common.JSGLRTokens;
 import mb.pie.api.ExecContext;
 import mb.pie.api.ExecException;
 import mb.pie.api.Supplier;
@@ -9,14 +9,12 @@ import mb.pie.api.TaskDef;
 import mb.spoofax.core.language.LanguageScope;
 import mb.tiger.TigerStyler;
 import org.checkerframework.checker.nullness.qual.Nullable;
-import org.spoofax.interpreter.terms.IStrategoTerm;
 
 import javax.inject.Inject;
 import java.io.IOException;
-import java.util.ArrayList;
 
 @LanguageScope
-public class TigerStyle implements TaskDef<Supplier<@Nullable ArrayList<? extends Token<IStrategoTerm>>>, @Nullable Styling> {
+public class TigerStyle implements TaskDef<Supplier<@Nullable JSGLRTokens>, @Nullable Styling> {
     private final TigerStyler styler;
 
     @Inject public TigerStyle(TigerStyler styler) {
@@ -29,9 +27,9 @@ public class TigerStyle implements TaskDef<Supplier<@Nullable ArrayList<? extend
 
     @Override public @Nullable Styling exec(
         ExecContext context,
-        Supplier<@Nullable ArrayList<? extends Token<IStrategoTerm>>> tokensSupplier
+        Supplier<@Nullable JSGLRTokens> tokensSupplier
     ) throws ExecException, IOException, InterruptedException {
-        final @Nullable ArrayList<? extends Token<IStrategoTerm>> tokens = context.require(tokensSupplier);
+        final @Nullable JSGLRTokens tokens = context.require(tokensSupplier);
         if(tokens == null) {
             return null;
         } else {
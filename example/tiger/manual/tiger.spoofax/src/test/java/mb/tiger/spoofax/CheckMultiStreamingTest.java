@@ -0,0 +1,60 @@
+package mb.tiger.spoofax;
+
+import mb.common.message.KeyedMessages;
+import mb.common.message.KeyedMessagesBuilder;
+import mb.common.message.KeyedMessagesSinks;
+import mb.pie.api.ExecException;
+import mb.pie.api.MixedSession;
+import mb.resource.fs.FSPath;
+import mb.resource.hierarchical.match.PathResourceMatcher;
+import mb.resource.hierarchical.match.path.ExtensionsPathMatcher;
+import mb.resource.hierarchical.match.path.NoHiddenPathMatcher;
+import mb.resource.hierarchical.walk.PathResourceWalker;
+import mb.tiger.spoofax.task.TigerIdeCheckMulti;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckMultiStreamingTest extends TestBase {
+    @Test void streamsMessagesOfEachFile(@TempDir Path root) throws IOException, ExecException {
+        final Path file1 = Files.write(root.resolve("a.tig"), "1 + 1".getBytes(StandardCharsets.UTF_8));
+        final Path file2 = Files.write(root.resolve("b.tig"), "1 + 2 +".getBytes(StandardCharsets.UTF_8));
+        final TigerIdeCheckMulti checkMulti = languageComponent.getIdeCheckMulti();
+        final FSPath rootPath = new FSPath(root);
+        final TigerIdeCheckMulti.Input input = new TigerIdeCheckMulti.Input(
+            rootPath,
+            new PathResourceWalker(new NoHiddenPathMatcher()),
+            new PathResourceMatcher(new ExtensionsPathMatcher("tig"))
+        );
+
+        final KeyedMessagesBuilder streamedBuilder = new KeyedMessagesBuilder();
+        final ArrayList<Object> streamedResources = new ArrayList<>();
+        final KeyedMessages messages;
+        try(
+            final MixedSession session = languageComponent.newPieSession();
+            final KeyedMessagesSinks.Registration ignored = checkMulti.getMessageSinks().register(rootPath, (resource, resourceMessages) -> {
+                streamedResources.add(resource);
+                if(resource == null) {
+                    streamedBuilder.addMessages(resourceMessages);
+                } else {
+                    streamedBuilder.addMessages(resource, resourceMessages);
+                }
+            })
+        ) {
+            messages = session.require(checkMulti.createTask(input));
+        }
+
+        // Every file is pushed, also when it has no messages, and the pushed messages add up to the final messages.
+        assertTrue(streamedResources.contains(new FSPath(file1)));
+        assertTrue(streamedResources.contains(new FSPath(file2)));
+        assertTrue(messages.containsError());
+        assertEquals(messages, streamedBuilder.build());
+    }
+}
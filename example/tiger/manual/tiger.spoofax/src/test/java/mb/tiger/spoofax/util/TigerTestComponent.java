@@ -6,6 +6,7 @@ import mb.spoofax.core.platform.PlatformComponent;
 import mb.tiger.spoofax.TigerComponent;
 import mb.tiger.spoofax.TigerModule;
 import mb.tiger.spoofax.command.TigerShowScopeGraphCommand;
+import mb.tiger.spoofax.task.TigerIdeCheckMulti;
 import mb.tiger.spoofax.task.TigerShowScopeGraph;
 
 @LanguageScope @Component(modules = {TigerModule.class}, dependencies = PlatformComponent.class)
@@ -13,4 +14,6 @@ public interface TigerTestComponent extends TigerComponent {
     TigerShowScopeGraph getShowScopeGraph();
 
     TigerShowScopeGraphCommand getShowScopeGraphCommand();
+
+    TigerIdeCheckMulti getIdeCheckMulti();
 }
@@ -4,8 +4,20 @@ import mb.constraint.common.ConstraintAnalyzer;
 import mb.log.api.LoggerFactory;
 import mb.resource.ResourceService;
 import mb.stratego.common.StrategoRuntime;
+import mb.stratego.common.StrategoRuntimePool;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.Executor;
 
 public class TigerConstraintAnalyzer extends ConstraintAnalyzer {
+    public TigerConstraintAnalyzer(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntimePool strategoRuntimePool, @Nullable Executor unitExecutor) {
+        super(loggerFactory, resourceService, strategoRuntimePool, "editor-analyze", false, unitExecutor);
+    }
+
+    public TigerConstraintAnalyzer(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntimePool strategoRuntimePool) {
+        this(loggerFactory, resourceService, strategoRuntimePool, null);
+    }
+
     public TigerConstraintAnalyzer(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntime strategoRuntime) {
         super(loggerFactory, resourceService, strategoRuntime, "editor-analyze", false);
     }
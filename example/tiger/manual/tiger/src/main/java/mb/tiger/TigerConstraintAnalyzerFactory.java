@@ -4,19 +4,37 @@ import mb.log.api.LoggerFactory;
 import mb.resource.ResourceService;
 import mb.spoofax.compiler.interfaces.spoofaxcore.ConstraintAnalyzerFactory;
 import mb.stratego.common.StrategoRuntime;
+import mb.stratego.common.StrategoRuntimePool;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.concurrent.Executor;
 
 public class TigerConstraintAnalyzerFactory implements ConstraintAnalyzerFactory {
     private final LoggerFactory loggerFactory;
     private final ResourceService resourceService;
-    private final StrategoRuntime strategoRuntime;
+    private final StrategoRuntimePool strategoRuntimePool;
+    private final @Nullable Executor unitExecutor;
 
-    public TigerConstraintAnalyzerFactory(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntime strategoRuntime) {
+    /**
+     * @param unitExecutor Executor to analyze files concurrently on, with runtimes from {@code strategoRuntimePool}, or
+     *                     {@code null} to analyze files with one strategy invocation.
+     */
+    public TigerConstraintAnalyzerFactory(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntimePool strategoRuntimePool, @Nullable Executor unitExecutor) {
         this.loggerFactory = loggerFactory;
         this.resourceService = resourceService;
-        this.strategoRuntime = strategoRuntime;
+        this.strategoRuntimePool = strategoRuntimePool;
+        this.unitExecutor = unitExecutor;
+    }
+
+    public TigerConstraintAnalyzerFactory(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntimePool strategoRuntimePool) {
+        this(loggerFactory, resourceService, strategoRuntimePool, null);
+    }
+
+    public TigerConstraintAnalyzerFactory(LoggerFactory loggerFactory, ResourceService resourceService, StrategoRuntime strategoRuntime) {
+        this(loggerFactory, resourceService, StrategoRuntimePool.of(strategoRuntime));
     }
 
     @Override public TigerConstraintAnalyzer create() {
-        return new TigerConstraintAnalyzer(loggerFactory, resourceService, strategoRuntime);
+        return new TigerConstraintAnalyzer(loggerFactory, resourceService, strategoRuntimePool, unitExecutor);
     }
 }
@@ -1,25 +1,41 @@
 package mb.tiger;
 
 import mb.jsglr1.common.JSGLR1ParseResult;
-import mb.jsglr1.common.JSGLR1Parser;
+import mb.jsglr1.common.JSGLR1ParserMetrics;
+import mb.jsglr1.common.JSGLR1ParserOptions;
+import mb.jsglr1.common.JSGLR1ParserPool;
 import mb.resource.ResourceKey;
 import mb.spoofax.compiler.interfaces.spoofaxcore.Parser;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class TigerParser implements Parser {
-    private final JSGLR1Parser parser;
+    private final JSGLR1ParserPool parserPool;
+
+    public TigerParser(JSGLR1ParserPool parserPool) {
+        this.parserPool = parserPool;
+    }
 
     public TigerParser(TigerParseTable parseTable) {
-        this.parser = new JSGLR1Parser(parseTable.parseTable);
+        this(new JSGLR1ParserPool(parseTable.parseTable, 1));
     }
 
     @Override
     public JSGLR1ParseResult parse(String text, String startSymbol) throws InterruptedException {
-        return parser.parse(text, startSymbol, null);
+        return parserPool.parse(text, startSymbol, null);
     }
 
     @Override
     public JSGLR1ParseResult parse(String text, String startSymbol, @Nullable ResourceKey resource) throws InterruptedException {
-        return parser.parse(text, startSymbol, resource);
+        return parserPool.parse(text, startSymbol, resource);
+    }
+
+    @Override
+    public JSGLR1ParserOptions getOptions() {
+        return parserPool.getOptions();
+    }
+
+    @Override
+    public JSGLR1ParserMetrics getMetrics() {
+        return parserPool.getMetrics();
     }
 }
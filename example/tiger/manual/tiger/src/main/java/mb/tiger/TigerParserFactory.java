@@ -1,15 +1,51 @@
 package mb.tiger;
 
+import mb.jsglr1.common.JSGLR1ParserOptions;
+import mb.jsglr1.common.JSGLR1ParserPool;
 import mb.spoofax.compiler.interfaces.spoofaxcore.ParserFactory;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.spoofax.interpreter.terms.ITermFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TigerParserFactory implements ParserFactory {
     private final TigerParseTable parseTable;
+    private final JSGLR1ParserOptions defaultOptions;
+    private final @Nullable ITermFactory termFactory;
+    private final ConcurrentHashMap<JSGLR1ParserOptions, JSGLR1ParserPool> parserPools = new ConcurrentHashMap<>();
 
     public TigerParserFactory() {
+        this(JSGLR1ParserOptions.defaults());
+    }
+
+    public TigerParserFactory(JSGLR1ParserOptions defaultOptions) {
+        this(defaultOptions, null);
+    }
+
+    /**
+     * @param termFactory Term factory that parsers create terms with, which must be thread-safe, or {@code null} to
+     *                    use a default term factory. For example, {@code new ImploderOriginTermFactory(new
+     *                    InterningTermFactory())} shares strings and constructors between parsed files.
+     */
+    public TigerParserFactory(JSGLR1ParserOptions defaultOptions, @Nullable ITermFactory termFactory) {
         this.parseTable = TigerParseTable.fromClassLoaderResources();
+        this.defaultOptions = defaultOptions;
+        this.termFactory = termFactory;
     }
 
     @Override public TigerParser create() {
-        return new TigerParser(parseTable);
+        return create(defaultOptions);
+    }
+
+    @Override public TigerParser create(JSGLR1ParserOptions options) {
+        return new TigerParser(getParserPool(options));
+    }
+
+    public JSGLR1ParserPool getParserPool() {
+        return getParserPool(defaultOptions);
+    }
+
+    public JSGLR1ParserPool getParserPool(JSGLR1ParserOptions options) {
+        return parserPools.computeIfAbsent(options, o -> new JSGLR1ParserPool(parseTable.parseTable, o, Runtime.getRuntime().availableProcessors(), false, termFactory));
     }
 }
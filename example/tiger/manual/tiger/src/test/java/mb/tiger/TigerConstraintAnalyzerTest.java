@@ -4,6 +4,7 @@ import mb.common.message.Severity;
 import mb.constraint.common.ConstraintAnalyzer;
 import mb.constraint.common.ConstraintAnalyzer.MultiFileResult;
 import mb.constraint.common.ConstraintAnalyzer.SingleFileResult;
+import mb.constraint.common.ConstraintAnalyzerCache;
 import mb.constraint.common.ConstraintAnalyzerContext;
 import mb.constraint.common.ConstraintAnalyzerException;
 import mb.jsglr1.common.JSGLR1ParseResult;
@@ -14,15 +15,25 @@ import mb.resource.DefaultResourceService;
 import mb.resource.DummyResourceRegistry;
 import mb.resource.ResourceKey;
 import mb.resource.ResourceService;
+import mb.resource.fs.FSPath;
 import mb.resource.fs.FSResourceRegistry;
 import mb.resource.url.URLResourceRegistry;
 import mb.stratego.common.StrategoRuntime;
 import mb.stratego.common.StrategoRuntimeBuilder;
+import mb.stratego.common.StrategoRuntimePool;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 import org.spoofax.interpreter.terms.IStrategoTerm;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -127,4 +138,174 @@ class TigerConstraintAnalyzerTest {
         assertNotNull(result3.analysis);
         assertTrue(result.messages.isEmpty());
     }
+
+    @Test void analyzeMultipleIncrementally() throws InterruptedException, ConstraintAnalyzerException {
+        final ResourceKey resource1 = new DefaultResourceKey(qualifier, "a.tig");
+        final JSGLR1ParseResult parsed1 = parser.parse("1 + nil", "Module", resource1);
+        assertTrue(parsed1.getAst().isPresent());
+        final ResourceKey resource2 = new DefaultResourceKey(qualifier, "b.tig");
+        final JSGLR1ParseResult parsed2 = parser.parse("1 + 2", "Module", resource2);
+        assertTrue(parsed2.getAst().isPresent());
+        final HashMap<ResourceKey, IStrategoTerm> asts = new HashMap<>();
+        asts.put(resource1, parsed1.getAst().get());
+        asts.put(resource2, parsed2.getAst().get());
+        final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext();
+        final MultiFileResult result = analyzer.analyze(null, asts, context);
+        assertTrue(result.messages.containsError());
+
+        // Change resource 2 into a file with an error, keep resource 1 unchanged.
+        final JSGLR1ParseResult reparsed2 = parser.parse("2 + nil", "Module", resource2);
+        assertTrue(reparsed2.getAst().isPresent());
+        asts.put(resource2, reparsed2.getAst().get());
+        final ConstraintAnalyzerContext newContext = new ConstraintAnalyzerContext(context);
+        final MultiFileResult newResult = analyzer.analyze(null, asts, Collections.singleton(resource1), newContext);
+
+        // Result of unchanged resource 1 is reused, including its messages.
+        assertSame(result.getResult(resource1), newResult.getResult(resource1));
+        assertNotSame(result.getResult(resource2), newResult.getResult(resource2));
+        assertTrue(newResult.messages.getMessages(resource1).iterator().hasNext());
+        assertTrue(newResult.messages.getMessages(resource2).iterator().hasNext());
+        // Context of the previous analysis is not modified.
+        assertSame(result.getResult(resource2), context.getResult(resource2));
+    }
+
+    @Test void analyzeMultipleConcurrently() throws InterruptedException, ConstraintAnalyzerException {
+        final HashMap<ResourceKey, IStrategoTerm> asts = new HashMap<>();
+        for(int i = 0; i < 8; ++i) {
+            final ResourceKey resource = new DefaultResourceKey(qualifier, "file" + i + ".tig");
+            final JSGLR1ParseResult parsed = parser.parse(i % 3 == 0 ? i + " + nil" : i + " + 1", "Module", resource);
+            assertTrue(parsed.getAst().isPresent());
+            asts.put(resource, parsed.getAst().get());
+        }
+        final MultiFileResult expected = analyzer.analyze(null, asts, new ConstraintAnalyzerContext());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final StrategoRuntimePool pool = new StrategoRuntimePool(strategoRuntimeBuilder, strategoRuntime, 4, 0);
+            final TigerConstraintAnalyzer concurrentAnalyzer = new TigerConstraintAnalyzerFactory(loggerFactory, resourceService, pool, executor).create();
+            final MultiFileResult result = concurrentAnalyzer.analyze(null, asts, new ConstraintAnalyzerContext());
+            for(ResourceKey resource : asts.keySet()) {
+                final ConstraintAnalyzer.@Nullable Result expectedResult = expected.getResult(resource);
+                final ConstraintAnalyzer.@Nullable Result actualResult = result.getResult(resource);
+                assertNotNull(expectedResult);
+                assertNotNull(actualResult);
+                assertEquals(expectedResult.ast, actualResult.ast);
+                assertNotNull(actualResult.analysis);
+            }
+            assertEquals(expected.messages, result.messages);
+            assertTrue(pool.getStats().created > 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test void analyzeWarmStartFromCache() throws InterruptedException, ConstraintAnalyzerException, IOException {
+        final ResourceKey root = new DefaultResourceKey(qualifier, "project");
+        final ResourceKey resource1 = new DefaultResourceKey(qualifier, "a.tig");
+        final ResourceKey resource2 = new DefaultResourceKey(qualifier, "b.tig");
+        final HashMap<ResourceKey, IStrategoTerm> asts = new HashMap<>();
+        final HashMap<ResourceKey, String> stamps = new HashMap<>();
+        for(ResourceKey resource : new ResourceKey[]{resource1, resource2}) {
+            final String text = resource == resource1 ? "1 + nil" : "1 + 2";
+            final JSGLR1ParseResult parsed = parser.parse(text, "Module", resource);
+            assertTrue(parsed.getAst().isPresent());
+            asts.put(resource, parsed.getAst().get());
+            stamps.put(resource, ConstraintAnalyzerCache.contentStamp(text.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        final Path directory = Files.createTempDirectory("tiger-analysis-cache");
+        try {
+            final ConstraintAnalyzerCache cache = new ConstraintAnalyzerCache(directory, "tiger-1", resourceService, loggerFactory);
+            assertTrue(cache.load(root, stamps).isCold());
+            final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext();
+            final MultiFileResult result = analyzer.analyze(null, asts, context);
+            cache.store(root, context, stamps);
+
+            // Same contents: all results are reused, including messages.
+            final ConstraintAnalyzerCache.WarmStart warmStart = cache.load(root, stamps);
+            assertEquals(stamps.keySet(), warmStart.unchanged);
+            final MultiFileResult warmResult = analyzer.analyze(null, asts, warmStart.unchanged, warmStart.context);
+            assertEquals(result.getResult(resource1), warmResult.getResult(resource1));
+            assertEquals(result.getResult(resource2), warmResult.getResult(resource2));
+            assertEquals(result.messages, warmResult.messages);
+
+            // Changed contents of resource 2: only resource 1 is reused.
+            final HashMap<ResourceKey, String> changedStamps = new HashMap<>(stamps);
+            changedStamps.put(resource2, ConstraintAnalyzerCache.contentStamp("2 + 2".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(Collections.singleton(resource1), cache.load(root, changedStamps).unchanged);
+
+            // Changed language: nothing is reused.
+            assertTrue(new ConstraintAnalyzerCache(directory, "tiger-2", resourceService, loggerFactory).load(root, stamps).isCold());
+            assertTrue(ConstraintAnalyzerCache.inMemory().load(root, stamps).isCold());
+            cache.invalidate(root);
+            assertTrue(cache.load(root, stamps).isCold());
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test void analyzeFromPreviousInMemory() throws InterruptedException, ConstraintAnalyzerException {
+        final ResourceKey root = new DefaultResourceKey(qualifier, "project");
+        final ResourceKey resource1 = new DefaultResourceKey(qualifier, "a.tig");
+        final ResourceKey resource2 = new DefaultResourceKey(qualifier, "b.tig");
+        final HashMap<ResourceKey, IStrategoTerm> asts = new HashMap<>();
+        final HashMap<ResourceKey, Instant> modifiedTimes = new HashMap<>();
+        for(ResourceKey resource : new ResourceKey[]{resource1, resource2}) {
+            final JSGLR1ParseResult parsed = parser.parse(resource == resource1 ? "1 + nil" : "1 + 2", "Module", resource);
+            assertTrue(parsed.getAst().isPresent());
+            asts.put(resource, parsed.getAst().get());
+            modifiedTimes.put(resource, Instant.ofEpochMilli(1000));
+        }
+
+        final ConstraintAnalyzerCache cache = ConstraintAnalyzerCache.inMemory();
+        assertNull(cache.get(root, modifiedTimes));
+        final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext();
+        final MultiFileResult result = analyzer.analyze(null, asts, context);
+        cache.put(root, context, modifiedTimes);
+
+        // Changed modification time of resource 2: only resource 1 is reused, from a copy of the cached context.
+        final HashMap<ResourceKey, Instant> changedModifiedTimes = new HashMap<>(modifiedTimes);
+        changedModifiedTimes.put(resource2, Instant.ofEpochMilli(2000));
+        final ConstraintAnalyzerCache.@Nullable WarmStart warmStart = cache.get(root, changedModifiedTimes);
+        assertNotNull(warmStart);
+        assertEquals(Collections.singleton(resource1), warmStart.unchanged);
+        assertNotSame(context, warmStart.context);
+        final MultiFileResult warmResult = analyzer.analyze(null, asts, warmStart.unchanged, warmStart.context);
+        assertSame(result.getResult(resource1), warmResult.getResult(resource1));
+        assertSame(result.getResult(resource2), context.getResult(resource2));
+
+        cache.clear();
+        assertNull(cache.get(root, modifiedTimes));
+    }
+
+    @Test void analyzeWarmStartFromFlushedCache() throws InterruptedException, ConstraintAnalyzerException, IOException {
+        final Path projectDirectory = Files.createTempDirectory("tiger-project");
+        final Path directory = Files.createTempDirectory("tiger-analysis-cache");
+        final FSPath root = new FSPath(projectDirectory);
+        final HashMap<ResourceKey, IStrategoTerm> asts = new HashMap<>();
+        final HashMap<ResourceKey, Instant> modifiedTimes = new HashMap<>();
+        for(String text : new String[]{"1 + nil", "1 + 2"}) {
+            final Path file = Files.write(projectDirectory.resolve(asts.size() + ".tig"), text.getBytes(StandardCharsets.UTF_8));
+            final FSPath resource = new FSPath(file);
+            final JSGLR1ParseResult parsed = parser.parse(text, "Module", resource);
+            assertTrue(parsed.getAst().isPresent());
+            asts.put(resource, parsed.getAst().get());
+            modifiedTimes.put(resource, Files.getLastModifiedTime(file).toInstant());
+        }
+
+        final ConstraintAnalyzerCache cache = new ConstraintAnalyzerCache(directory, "tiger-1", resourceService, loggerFactory);
+        assertNull(cache.get(root, modifiedTimes));
+        final ConstraintAnalyzerContext context = new ConstraintAnalyzerContext();
+        final MultiFileResult result = analyzer.analyze(null, asts, context);
+        cache.put(root, context, modifiedTimes);
+        cache.flush();
+
+        // A cache of a new process loads the flushed context, and reuses results of all unchanged resources.
+        final ConstraintAnalyzerCache.@Nullable WarmStart warmStart =
+            new ConstraintAnalyzerCache(directory, "tiger-1", resourceService, loggerFactory).get(root, modifiedTimes);
+        assertNotNull(warmStart);
+        assertEquals(modifiedTimes.keySet(), warmStart.unchanged);
+        final MultiFileResult warmResult = analyzer.analyze(null, asts, warmStart.unchanged, warmStart.context);
+        assertEquals(result.messages, warmResult.messages);
+    }
 }
@@ -1,10 +1,31 @@
 package mb.tiger;
 
+import mb.common.token.Token;
+import mb.jsglr.common.InterningTermFactory;
+import mb.jsglr.common.JSGLRTokens;
 import mb.jsglr1.common.JSGLR1ParseResult;
+import mb.jsglr1.common.JSGLR1ParseTable;
+import mb.jsglr1.common.JSGLR1ParseTableException;
+import mb.jsglr1.common.JSGLR1ParserMetrics;
+import mb.jsglr1.common.JSGLR1ParserOptions;
+import mb.jsglr1.common.JSGLR1ParserPool;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
+import org.spoofax.interpreter.terms.IStrategoAppl;
+import org.spoofax.interpreter.terms.IStrategoString;
+import org.spoofax.interpreter.terms.IStrategoTerm;
 import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.jsglr.client.imploder.ImploderOriginTermFactory;
 import org.spoofax.terms.TermFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TigerParserTest {
@@ -22,4 +43,121 @@ class TigerParserTest {
             termFactory.makeAppl(termFactory.makeConstructor("Int", 1), termFactory.makeString("1"))));
         assertTrue(result.getMessages().isEmpty());
     }
+
+    @Test void parseWithInterningTermFactory() throws InterruptedException {
+        final InterningTermFactory interningTermFactory = new InterningTermFactory();
+        final TigerParser parser = new TigerParserFactory(JSGLR1ParserOptions.defaults(), new ImploderOriginTermFactory(interningTermFactory)).create();
+        final JSGLR1ParseResult result1 = parser.parse("let var x : int := 1 in x end", "Module");
+        final JSGLR1ParseResult result2 = parser.parse("let var x : int := 2 in x end", "Module");
+        assertTrue(result1.getAst().isPresent());
+        assertTrue(result2.getAst().isPresent());
+        final IStrategoTerm ast1 = result1.getAst().get();
+        final IStrategoTerm ast2 = result2.getAst().get();
+        final @Nullable IStrategoString x1 = findString(ast1, "x");
+        final @Nullable IStrategoString x2 = findString(ast2, "x");
+        assertNotNull(x1);
+        assertNotNull(x2);
+        // Equal strings and constructors are shared between files, but term nodes are not, as they have different origins.
+        assertSame(x1.stringValue(), x2.stringValue());
+        assertNotSame(x1, x2);
+        assertSame(((IStrategoAppl)ast1).getConstructor(), ((IStrategoAppl)ast2).getConstructor());
+        assertTrue(interningTermFactory.getInternedCount() > 0);
+    }
+
+    private static @Nullable IStrategoString findString(IStrategoTerm term, String value) {
+        if(term instanceof IStrategoString && ((IStrategoString)term).stringValue().equals(value)) {
+            return (IStrategoString)term;
+        }
+        for(IStrategoTerm subterm : term.getAllSubterms()) {
+            final @Nullable IStrategoString found = findString(subterm, value);
+            if(found != null) return found;
+        }
+        return null;
+    }
+
+    @Test void parseReusesPooledParsers() throws InterruptedException {
+        final TigerParserFactory parserFactory = new TigerParserFactory();
+        final TigerParser parser1 = parserFactory.create();
+        final TigerParser parser2 = parserFactory.create();
+        assertTrue(parser1.parse("1", "Module").hasSucceeded());
+        assertTrue(parser2.parse("2", "Module").hasSucceeded());
+        assertTrue(parser1.parse("3", "Module").hasSucceeded());
+        final JSGLR1ParserPool.Stats stats = parserFactory.getParserPool().getStats();
+        assertEquals(1, stats.created);
+        assertEquals(2, stats.reused);
+        assertEquals(0, stats.checkedOut);
+        assertEquals(1, stats.idle);
+    }
+
+    @Test void parseWithOptions() throws InterruptedException {
+        final TigerParserFactory parserFactory = new TigerParserFactory();
+        final TigerParser batchParser = parserFactory.create(JSGLR1ParserOptions.batch());
+        assertEquals(JSGLR1ParserOptions.batch(), batchParser.getOptions());
+        assertTrue(batchParser.parse("1", "Module").hasSucceeded());
+        assertTrue(batchParser.parse("1 +", "Module").hasFailed());
+        final JSGLR1ParserMetrics metrics = batchParser.getMetrics();
+        assertEquals(2, metrics.getParses());
+        assertEquals(0, metrics.getRecovered());
+        assertEquals(1, metrics.getFailed());
+        assertEquals(0, metrics.getTimeouts());
+        assertEquals(0, parserFactory.create().getMetrics().getParses());
+    }
+
+    @Test void tokenStream() throws InterruptedException {
+        final JSGLR1ParseResult result = parser.parse("let var x := 1 in x + 2 end", "Module");
+        assertTrue(result.getTokenStream().isPresent());
+        assertTrue(result.getTokens().isPresent());
+        final JSGLRTokens tokenStream = result.getTokenStream().get();
+        final ArrayList<? extends Token<IStrategoTerm>> tokens = result.getTokens().get();
+        assertEquals(tokens.size(), tokenStream.size());
+        int i = 0;
+        for(Token<IStrategoTerm> token : tokenStream) {
+            assertEquals(tokens.get(i), token);
+            assertEquals(token.getRegion().getStartOffset(), tokenStream.getStartOffset(i));
+            assertEquals(token.getRegion().getEndOffset(), tokenStream.getEndOffset(i));
+            ++i;
+        }
+        assertSame(tokenStream.getPackedTokens(), tokenStream.getPackedTokens());
+        assertEquals(tokens, tokenStream.getPackedTokens().toList());
+    }
+
+    @Test void tokenStreamEquality() throws InterruptedException {
+        final String text = "let var x := 1 in x + 2 end";
+        final JSGLRTokens tokenStream = parser.parse(text, "Module").getTokenStream().get();
+        final JSGLRTokens reparsedTokenStream = parser.parse(text, "Module").getTokenStream().get();
+        final JSGLRTokens otherTokenStream = parser.parse(text + " ", "Module").getTokenStream().get();
+        assertEquals(tokenStream, reparsedTokenStream);
+        assertEquals(tokenStream.hashCode(), reparsedTokenStream.hashCode());
+        assertNotEquals(tokenStream, otherTokenStream);
+        // Token streams without a parser identity are compared by their tokens.
+        final JSGLRTokens unidentifiedTokenStream = new JSGLRTokens(parser.parse(text, "Module").getAst().get());
+        assertEquals(tokenStream, unidentifiedTokenStream);
+        assertEquals(unidentifiedTokenStream, tokenStream);
+    }
+
+    @Test void parseWithBinaryParseTable() throws InterruptedException, JSGLR1ParseTableException, IOException {
+        final String resource = "mb/tiger/target/metaborg/sdf.tbl";
+        final ByteArrayOutputStream binaryTable = new ByteArrayOutputStream();
+        try(final @Nullable InputStream inputStream = TigerParserTest.class.getClassLoader().getResourceAsStream(resource)) {
+            assertNotNull(inputStream);
+            JSGLR1ParseTable.writeBinary(inputStream, binaryTable);
+        }
+        final Path binaryTableFile = Files.createTempFile("tiger", ".tbl.bin");
+        Files.write(binaryTableFile, binaryTable.toByteArray());
+
+        final String text = "let var x : int := 1 in x + 2 end";
+        final JSGLR1ParseResult expected = parser.parse(text, "Module");
+        for(JSGLR1ParseTable parseTable : new JSGLR1ParseTable[]{
+            JSGLR1ParseTable.fromBinaryFile(binaryTableFile),
+            JSGLR1ParseTable.fromBinaryStream(new ByteArrayInputStream(binaryTable.toByteArray()))
+        }) {
+            final TigerParser binaryTableParser = new TigerParser(new JSGLR1ParserPool(parseTable, 1));
+            final JSGLR1ParseResult result = binaryTableParser.parse(text, "Module");
+            assertTrue(result.hasSucceeded());
+            assertEquals(expected.getAst(), result.getAst());
+            assertEquals(expected.getTokens(), result.getTokens());
+            assertEquals(parser.parse("1 +", "Module").getMessages(), binaryTableParser.parse("1 +", "Module").getMessages());
+        }
+        Files.delete(binaryTableFile);
+    }
 }
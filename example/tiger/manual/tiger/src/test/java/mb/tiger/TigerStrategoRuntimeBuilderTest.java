@@ -7,11 +7,27 @@ import mb.resource.DefaultResourceService;
 import mb.resource.ResourceService;
 import mb.resource.fs.FSResourceRegistry;
 import mb.stratego.common.StrategoException;
+import mb.stratego.common.StrategoMemoCache;
+import mb.stratego.common.StrategoProfiler;
 import mb.stratego.common.StrategoRuntime;
+import mb.stratego.common.StrategoRuntimeBuilder;
+import mb.stratego.common.StrategoRuntimeCache;
+import mb.stratego.common.StrategoRuntimePool;
+import mb.stratego.common.StrategyHandle;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.Test;
 import org.spoofax.interpreter.terms.IStrategoString;
 import org.spoofax.interpreter.terms.IStrategoTerm;
+import org.spoofax.interpreter.terms.ITermFactory;
+import org.spoofax.terms.TermFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,7 +35,8 @@ class TigerStrategoRuntimeBuilderTest {
     private final TigerParser parser = new TigerParserFactory().create();
     private final LoggerFactory loggerFactory = new NoopLoggerFactory();
     private final ResourceService resourceService = new DefaultResourceService(new FSResourceRegistry());
-    private final StrategoRuntime runtime = new TigerStrategoRuntimeBuilderFactory().create(loggerFactory, resourceService).build();
+    private final StrategoRuntimeBuilder builder = new TigerStrategoRuntimeBuilderFactory().create(loggerFactory, resourceService);
+    private final StrategoRuntime runtime = builder.build();
 
     @Test void parseUnparse() throws InterruptedException, StrategoException {
         final String str = "1 + 2";
@@ -31,4 +48,161 @@ class TigerStrategoRuntimeBuilderTest {
         final String unparsed = unparsedStringTerm.stringValue();
         assertEquals(str, unparsed);
     }
+
+    @Test void lookupAndInvokeHandle() throws InterruptedException, StrategoException {
+        final StrategyHandle strategy = runtime.lookup("pp-Tiger-string");
+        assertEquals("pp-Tiger-string", strategy.getName());
+        assertThrows(IllegalArgumentException.class, () -> runtime.lookup("undefined-strategy"));
+        final JSGLR1ParseResult parsed = parser.parse("1 + 2", "Module");
+        assertTrue(parsed.getAst().isPresent());
+        // Handles can be used on runtimes built from the runtime they were looked up in.
+        final @Nullable IStrategoTerm unparsedTerm = builder.buildFromPrototype(runtime).invoke(strategy, parsed.getAst().get());
+        assertNotNull(unparsedTerm);
+        assertEquals("1 + 2", ((IStrategoString)unparsedTerm).stringValue());
+    }
+
+    @Test void profileParseUnparse() throws InterruptedException, StrategoException {
+        final StrategoProfiler profiler = new StrategoProfiler();
+        final StrategoRuntime profiledRuntime = builder.buildFromPrototype(runtime).withProfiler(profiler);
+        final JSGLR1ParseResult parsed = parser.parse("1 + 2", "Module");
+        assertTrue(parsed.getAst().isPresent());
+        assertNotNull(profiledRuntime.invoke("pp-Tiger-string", parsed.getAst().get()));
+        assertNotNull(profiledRuntime.invoke("pp-Tiger-string", parsed.getAst().get()));
+        assertThrows(StrategoException.class, () -> profiledRuntime.invoke("undefined-strategy", parsed.getAst().get()));
+        assertNull(profiler.getMetrics("desugar-all"));
+
+        final StrategoProfiler.@Nullable StrategyMetrics metrics = profiler.getMetrics("pp-Tiger-string");
+        assertNotNull(metrics);
+        assertEquals(2, metrics.getInvocations());
+        assertEquals(0, metrics.getFailures());
+        assertEquals(0, metrics.getExceptions());
+        assertTrue(metrics.getTotalNanos() >= metrics.getMaxNanos());
+        assertTrue(metrics.getInputTermSize() > 0);
+        assertEquals(2, metrics.getOutputTermSize()); // Two string terms.
+        final StrategoProfiler.@Nullable StrategyMetrics undefinedMetrics = profiler.getMetrics("undefined-strategy");
+        assertNotNull(undefinedMetrics);
+        assertEquals(1, undefinedMetrics.getExceptions());
+
+        final String json = profiler.toJson();
+        assertTrue(json.startsWith("{\"strategies\":["));
+        assertTrue(json.contains("\"strategy\":\"pp-Tiger-string\",\"invocations\":2,"));
+        profiler.reset();
+        assertTrue(profiler.getMetrics().isEmpty());
+    }
+
+    @Test void memoizePureStrategies() throws InterruptedException, StrategoException {
+        final StrategoMemoCache memoCache = new StrategoMemoCache(1024, "pp-Tiger-string");
+        final StrategoRuntime memoRuntime1 = builder.buildFromPrototype(runtime).withMemoCache(memoCache);
+        final StrategoRuntime memoRuntime2 = builder.copy().withMemoCache(memoCache).buildFromPrototype(runtime);
+        final JSGLR1ParseResult parsed1 = parser.parse("1 + 2", "Module");
+        final JSGLR1ParseResult parsed2 = parser.parse("1 + 2", "Module");
+        assertTrue(parsed1.getAst().isPresent());
+        assertTrue(parsed2.getAst().isPresent());
+
+        final @Nullable IStrategoTerm output1 = memoRuntime1.invoke("pp-Tiger-string", parsed1.getAst().get());
+        assertNotNull(output1);
+        // Structurally equal input from another parse, on another runtime sharing the cache.
+        assertSame(output1, memoRuntime2.invoke("pp-Tiger-string", parsed2.getAst().get()));
+        assertNotNull(memoRuntime1.invoke("desugar-all", parsed1.getAst().get())); // Not pure: not memoized.
+        StrategoMemoCache.Stats stats = memoCache.getStats();
+        assertEquals(1, stats.hits);
+        assertEquals(1, stats.misses);
+        assertEquals(1, stats.size);
+
+        final JSGLR1ParseResult parsed3 = parser.parse("3 + 4", "Module");
+        assertTrue(parsed3.getAst().isPresent());
+        final @Nullable IStrategoTerm output3 = memoRuntime1.invoke("pp-Tiger-string", parsed3.getAst().get());
+        assertNotNull(output3);
+        assertNotEquals(output1, output3);
+        stats = memoCache.getStats();
+        assertEquals(2, stats.misses);
+        assertEquals(2, stats.size);
+
+        final StrategoMemoCache smallMemoCache = new StrategoMemoCache(stats.weight / 2, "pp-Tiger-string");
+        final StrategoRuntime smallMemoRuntime = runtime.withMemoCache(smallMemoCache);
+        assertNotNull(smallMemoRuntime.invoke("pp-Tiger-string", parsed1.getAst().get()));
+        assertNotNull(smallMemoRuntime.invoke("pp-Tiger-string", parsed3.getAst().get()));
+        assertEquals(1, smallMemoCache.getStats().size);
+        assertEquals(1, smallMemoCache.getStats().evictions);
+        memoCache.clear();
+        assertEquals(0, memoCache.getStats().size);
+    }
+
+    @Test void parseUnparseWithCachedAndUncachedBuilds() throws InterruptedException, StrategoException {
+        final JSGLR1ParseResult parsed = parser.parse("1 + 2", "Module");
+        assertTrue(parsed.getAst().isPresent());
+        final StrategoRuntimeCache cache = new StrategoRuntimeCache(4, 4);
+        final StrategoRuntime cachedRuntime1 = builder.copy().withCache(cache).build();
+        final StrategoRuntime cachedRuntime2 = builder.copy().withCache(cache).build();
+        final StrategoRuntime uncachedRuntime = builder.copy().withCache(null).build();
+        final @Nullable IStrategoTerm expected = uncachedRuntime.invoke("pp-Tiger-string", parsed.getAst().get());
+        assertNotNull(expected);
+        assertEquals(expected, cachedRuntime1.invoke("pp-Tiger-string", parsed.getAst().get()));
+        assertEquals(expected, cachedRuntime2.invoke("pp-Tiger-string", parsed.getAst().get()));
+    }
+
+    @Test void cacheKeysCtreesByTermFactoryAndClassesByClassLoader() throws IOException, ClassNotFoundException {
+        final StrategoRuntimeCache cache = new StrategoRuntimeCache(4, 4, 4);
+        final byte[] ctree = "Specification([])".getBytes(StandardCharsets.UTF_8);
+        final ITermFactory termFactory = new TermFactory();
+        final ITermFactory otherTermFactory = new TermFactory();
+        final IStrategoTerm term = cache.getCtree(ctree, termFactory);
+        assertSame(term, cache.getCtree(ctree, termFactory));
+        assertNotSame(term, cache.getCtree(ctree, otherTermFactory));
+        assertEquals(1, cache.getStats().ctreeHits);
+        assertEquals(2, cache.getStats().ctreeMisses);
+
+        final ArrayList<String> loadedClassNames = new ArrayList<>();
+        final ClassLoader classLoader = new ClassLoader(TigerStrategoRuntimeBuilderTest.class.getClassLoader()) {
+            @Override protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                loadedClassNames.add(name);
+                return super.loadClass(name, resolve);
+            }
+        };
+        final String className = TigerParser.class.getName();
+        assertSame(TigerParser.class, cache.loadClass(null, className));
+        assertTrue(loadedClassNames.isEmpty());
+        assertSame(TigerParser.class, cache.loadClass(classLoader, className));
+        assertSame(TigerParser.class, cache.loadClass(classLoader, className));
+        assertEquals(1, loadedClassNames.size());
+    }
+
+    @Test void pooledParseUnparseConcurrently() throws InterruptedException, ExecutionException {
+        final StrategoRuntimePool pool = new StrategoRuntimePool(builder, runtime, 2, 0);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final ArrayList<Future<@Nullable IStrategoTerm>> futures = new ArrayList<>();
+            for(int i = 0; i < 8; ++i) {
+                final String str = i + " + " + i;
+                final JSGLR1ParseResult parsed = parser.parse(str, "Module");
+                assertTrue(parsed.getAst().isPresent());
+                futures.add(executor.submit(() -> pool.invoke("pp-Tiger-string", parsed.getAst().get())));
+            }
+            for(int i = 0; i < futures.size(); ++i) {
+                final @Nullable IStrategoTerm unparsedTerm = futures.get(i).get();
+                assertNotNull(unparsedTerm);
+                assertEquals(i + " + " + i, ((IStrategoString)unparsedTerm).stringValue());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        final StrategoRuntimePool.Stats stats = pool.getStats();
+        assertEquals(8, stats.leases);
+        assertTrue(stats.created <= 2);
+        assertEquals(0, stats.leased);
+    }
+
+    @Test void pooledLeaseTimeout() throws InterruptedException, StrategoException {
+        final StrategoRuntimePool pool = new StrategoRuntimePool(builder, runtime, 1, 10);
+        pool.warmUp(1);
+        assertEquals(1, pool.getStats().idle);
+        try(final StrategoRuntimePool.Lease lease = pool.lease()) {
+            assertNotNull(lease.getRuntime());
+            assertThrows(StrategoException.class, pool::lease);
+        }
+        assertEquals(1, pool.getStats().timeouts);
+        try(final StrategoRuntimePool.Lease lease = pool.lease()) {
+            assertNotNull(lease.getRuntime());
+        }
+    }
 }